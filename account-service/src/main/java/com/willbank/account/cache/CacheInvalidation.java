@@ -0,0 +1,11 @@
+package com.willbank.account.cache;
+
+import java.io.Serializable;
+
+/**
+ * Message publié sur le canal Redis d'invalidation après chaque évincement :
+ * les autres instances retirent la clé de leur cache local (L1).
+ * Une clé nulle signifie que tout le cache a été vidé.
+ */
+public record CacheInvalidation(String origin, String cacheName, Object key) implements Serializable {
+}
@@ -0,0 +1,31 @@
+package com.willbank.account.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+@Slf4j
+public class CacheInvalidationPublisher {
+    
+    private final RedisTemplate<Object, Object> redisTemplate;
+    private final String channel;
+    private final String instanceId;
+    
+    public CacheInvalidationPublisher(RedisTemplate<Object, Object> redisTemplate, String channel, String instanceId) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.instanceId = instanceId;
+    }
+    
+    public void publish(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(channel, new CacheInvalidation(instanceId, cacheName, key));
+        } catch (Exception e) {
+            // Other instances fall back on the L1 TTL
+            log.warn("Could not publish invalidation of {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+    
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
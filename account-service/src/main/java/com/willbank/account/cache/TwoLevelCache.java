@@ -0,0 +1,215 @@
+package com.willbank.account.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache à deux niveaux : Caffeine local (L1) devant Redis partagé (L2).
+ * Les lectures essaient L1 puis L2 (qui réalimente L1) ; les écritures et
+ * évincements touchent les deux niveaux, et un évincement est diffusé aux
+ * autres instances via {@link CacheInvalidationPublisher}.
+ * <p>
+ * Une lecture qui remplit un niveau (L1 depuis L2, ou L1 + L2 après un miss
+ * {@code @Cacheable}) ne doit pas ressusciter une valeur évincée pendant sa
+ * recherche : chaque évincement, local ou reçu, est daté par un numéro de séquence,
+ * et la valeur écrite est retirée si la clé a été évincée depuis le début de la lecture.
+ */
+public class TwoLevelCache implements Cache {
+    
+    private final String name;
+    private final Cache local;
+    private final Cache remote;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final TierMeters localMeters;
+    private final TierMeters remoteMeters;
+    
+    private final AtomicLong evictionSequence = new AtomicLong();
+    // key -> sequence of its last eviction, kept long enough to outlive any lookup
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Long> evictions;
+    private volatile long clearedAt;
+    // key -> sequence at which this instance filled L2 after a miss: a remote eviction of that
+    // key may have preceded the fill, so L2 is evicted again when one arrives
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Long> recentLoads;
+    // Sequence read by this thread's last miss: the @Cacheable put that follows is checked against it
+    private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+    
+    public TwoLevelCache(String name, Cache local, Cache remote, CacheInvalidationPublisher invalidationPublisher,
+                         MeterRegistry meterRegistry, long maxStamps, Duration stampTtl) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.localMeters = new TierMeters(meterRegistry, name, "l1");
+        this.remoteMeters = new TierMeters(meterRegistry, name, "l2");
+        this.evictions = Caffeine.newBuilder()
+                .maximumSize(maxStamps)
+                .expireAfterWrite(stampTtl)
+                .build();
+        this.recentLoads = Caffeine.newBuilder()
+                .maximumSize(maxStamps)
+                .expireAfterWrite(stampTtl)
+                .build();
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+    
+    @Override
+    public ValueWrapper get(Object key) {
+        long lookupStart = evictionSequence.get();
+        ValueWrapper value = localMeters.lookup(() -> local.get(key));
+        if (value != null) {
+            return value;
+        }
+        value = remoteMeters.lookup(() -> remote.get(key));
+        if (value != null) {
+            local.put(key, value.get());
+            // Checked after the put: an eviction racing with it either is seen here or evicts after it
+            if (evictedSince(key, lookupStart)) {
+                local.evict(key);
+            }
+            return value;
+        }
+        pendingLoad.set(new PendingLoad(key, lookupStart));
+        return null;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        Object stored = value != null ? value.get() : null;
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        T loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, loaded);
+        return loaded;
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        PendingLoad load = pendingLoad.get();
+        pendingLoad.remove();
+        remote.put(key, value);
+        local.put(key, value);
+        if (load == null || !load.key().equals(key)) {
+            return;
+        }
+        // Value loaded after a miss (@Cacheable): it may predate an eviction that ran meanwhile
+        if (evictedSince(key, load.sequence())) {
+            remote.evict(key);
+            local.evict(key);
+        } else {
+            recentLoads.put(key, load.sequence());
+        }
+    }
+    
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        Object effective = existing != null ? existing.get() : value;
+        local.put(key, effective);
+        return existing != null ? new SimpleValueWrapper(effective) : null;
+    }
+    
+    @Override
+    public void evict(Object key) {
+        evictions.put(key, evictionSequence.incrementAndGet());
+        remote.evict(key);
+        local.evict(key);
+        invalidationPublisher.publish(name, key);
+    }
+    
+    @Override
+    public void clear() {
+        clearedAt = evictionSequence.incrementAndGet();
+        remote.clear();
+        local.clear();
+        invalidationPublisher.publish(name, null);
+    }
+    
+    /**
+     * Applies an invalidation received from another instance: L2 is shared and already up to date,
+     * unless this instance refilled it from a load that started before the invalidation.
+     */
+    void invalidateLocal(Object key) {
+        if (key == null) {
+            clearedAt = evictionSequence.incrementAndGet();
+            local.clear();
+            return;
+        }
+        evictions.put(key, evictionSequence.incrementAndGet());
+        local.evict(key);
+        // A value this instance loaded may have reached L2 after the remote eviction
+        if (recentLoads.asMap().remove(key) != null) {
+            remote.evict(key);
+        }
+    }
+    
+    private boolean evictedSince(Object key, long sequence) {
+        if (clearedAt > sequence) {
+            return true;
+        }
+        Long evictedAt = evictions.getIfPresent(key);
+        return evictedAt != null && evictedAt > sequence;
+    }
+    
+    private record PendingLoad(Object key, long sequence) {}
+    
+    private static final class TierMeters {
+        
+        private final Counter hits;
+        private final Counter misses;
+        private final Timer latency;
+        
+        TierMeters(MeterRegistry meterRegistry, String cacheName, String tier) {
+            this.hits = Counter.builder("cache.tier.gets")
+                    .tags("cache", cacheName, "tier", tier, "result", "hit")
+                    .register(meterRegistry);
+            this.misses = Counter.builder("cache.tier.gets")
+                    .tags("cache", cacheName, "tier", tier, "result", "miss")
+                    .register(meterRegistry);
+            this.latency = Timer.builder("cache.tier.latency")
+                    .tags("cache", cacheName, "tier", tier)
+                    .register(meterRegistry);
+        }
+        
+        ValueWrapper lookup(Supplier<ValueWrapper> lookup) {
+            ValueWrapper value = latency.record(lookup);
+            (value != null ? hits : misses).increment();
+            return value;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.willbank.account.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Crée un {@link TwoLevelCache} par nom de cache. Transaction-aware : dans une
+ * transaction, put/evict sont différés après le commit, pour qu'une lecture
+ * concurrente ne remette pas en cache une valeur pas encore commitée.
+ * Écoute aussi le canal d'invalidation pour vider le L1 des autres instances.
+ */
+@Slf4j
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+    
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final MeterRegistry meterRegistry;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final ConcurrentMap<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+    private final JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+    
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, CacheInvalidationPublisher invalidationPublisher,
+                                MeterRegistry meterRegistry, long localMaxSize, Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationPublisher = invalidationPublisher;
+        this.meterRegistry = meterRegistry;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        setTransactionAware(true);
+    }
+    
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return List.of();
+    }
+    
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return twoLevelCaches.computeIfAbsent(name, cacheName -> {
+            CaffeineCache local = new CaffeineCache(cacheName, Caffeine.newBuilder()
+                    .maximumSize(localMaxSize)
+                    .expireAfterWrite(localTtl)
+                    .build());
+            return new TwoLevelCache(cacheName, local, remote, invalidationPublisher, meterRegistry,
+                    localMaxSize, localTtl);
+        });
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object payload = serializer.deserialize(message.getBody());
+        if (!(payload instanceof CacheInvalidation invalidation)
+                || invalidationPublisher.getInstanceId().equals(invalidation.origin())) {
+            return;
+        }
+        // Make sure the cache exists locally, even if this instance never read it yet
+        getCache(invalidation.cacheName());
+        TwoLevelCache cache = twoLevelCaches.get(invalidation.cacheName());
+        if (cache != null) {
+            log.debug("Remote invalidation of {}::{}", invalidation.cacheName(), invalidation.key());
+            cache.invalidateLocal(invalidation.key());
+        }
+    }
+}
@@ -4,10 +4,18 @@ import com.willbank.account.dto.ClientDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "client-service", path = "/api/clients")
+import java.util.List;
+import java.util.Map;
+
+@FeignClient(name = "client-service")
 public interface ClientClient {
     
-    @GetMapping("/{id}")
+    @GetMapping("/internal/clients/{id}")
     ClientDTO getClientById(@PathVariable("id") Long id);
+    
+    @PostMapping("/internal/clients/batch")
+    Map<Long, ClientDTO> getClientsByIds(@RequestBody List<Long> ids);
 }
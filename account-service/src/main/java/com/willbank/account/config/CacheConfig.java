@@ -0,0 +1,58 @@
+package com.willbank.account.config;
+
+import com.willbank.account.cache.CacheInvalidationPublisher;
+import com.willbank.account.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Caches "accounts" et "balances" : Caffeine local (L1) devant Redis (L2),
+ * L1 invalidé sur toutes les instances par pub/sub Redis.
+ */
+@Configuration
+public class CacheConfig {
+    
+    @Value("${app.cache.invalidation-channel:willbank.account-cache.invalidation}")
+    private String invalidationChannel;
+    
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(RedisTemplate<Object, Object> redisTemplate) {
+        return new CacheInvalidationPublisher(redisTemplate, invalidationChannel, UUID.randomUUID().toString());
+    }
+    
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             CacheInvalidationPublisher cacheInvalidationPublisher,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${app.cache.l1.max-size:10000}") long localMaxSize,
+                                             @Value("${app.cache.l1.ttl-seconds:60}") long localTtlSeconds,
+                                             @Value("${app.cache.l2.ttl-seconds:600}") long remoteTtlSeconds) {
+        RedisCacheManager remoteCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(Duration.ofSeconds(remoteTtlSeconds)))
+                .build();
+        remoteCacheManager.initializeCaches();
+        return new TwoLevelCacheManager(remoteCacheManager, cacheInvalidationPublisher, meterRegistry,
+                localMaxSize, Duration.ofSeconds(localTtlSeconds));
+    }
+    
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
+    }
+}
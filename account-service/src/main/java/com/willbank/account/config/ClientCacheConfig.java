@@ -0,0 +1,20 @@
+package com.willbank.account.config;
+
+import com.willbank.clientcache.ClientProfileCache;
+import com.willbank.clientcache.ClientProfileCacheProperties;
+import com.willbank.account.client.ClientClient;
+import com.willbank.account.dto.ClientDTO;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+
+@Configuration
+public class ClientCacheConfig {
+    
+    @Bean
+    public ClientProfileCache<ClientDTO> clientProfileCache(ClientClient clientClient, ClientProfileCacheProperties properties) {
+        return new ClientProfileCache<>(
+                ids -> clientClient.getClientsByIds(new ArrayList<>(ids)), properties);
+    }
+}
@@ -1,6 +1,8 @@
 package com.willbank.account.controller;
 
+import com.willbank.account.dto.AccountBalanceDTO;
 import com.willbank.account.dto.AccountDTO;
+import com.willbank.account.dto.PostingRequest;
 import com.willbank.account.service.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -8,12 +10,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -77,9 +81,13 @@ public class AccountController {
     }
     
     @GetMapping("/{id}/balance")
-    @Operation(summary = "Get account balance", description = "Retrieves the balance of an account (cached)")
-    public ResponseEntity<BigDecimal> getBalance(@PathVariable("id") Long id) {
-        BigDecimal balance = accountService.getBalance(id);
+    @Operation(summary = "Get account balance", description = "Retrieves the current balance of an account (cached), or its balance at a point in time when asOf is given")
+    public ResponseEntity<BigDecimal> getBalance(
+            @PathVariable("id") Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        BigDecimal balance = asOf != null
+                ? accountService.getBalanceAsOf(id, asOf)
+                : accountService.getBalance(id);
         return ResponseEntity.ok(balance);
     }
     
@@ -97,6 +105,19 @@ public class AccountController {
         return ResponseEntity.ok().build();
     }
     
+    @PostMapping("/postings")
+    @Operation(summary = "Apply postings", description = "Applies a batch of signed credit/debit postings in a single transaction and returns the resulting balances")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Postings applied, or already applied under the same reference (current balances)"),
+        @ApiResponse(responseCode = "400", description = "Invalid input or insufficient balance"),
+        @ApiResponse(responseCode = "404", description = "Account not found"),
+        @ApiResponse(responseCode = "409", description = "Postings with the same reference are being applied concurrently")
+    })
+    public ResponseEntity<List<AccountBalanceDTO>> applyPostings(@Valid @RequestBody PostingRequest request) {
+        List<AccountBalanceDTO> balances = accountService.applyPostings(request);
+        return ResponseEntity.ok(balances);
+    }
+    
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete account", description = "Deletes an account from the system")
     public ResponseEntity<Void> deleteAccount(@PathVariable("id") Long id) {
@@ -0,0 +1,15 @@
+package com.willbank.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceDTO {
+    private Long accountId;
+    private BigDecimal balance;
+}
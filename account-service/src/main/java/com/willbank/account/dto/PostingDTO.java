@@ -0,0 +1,23 @@
+package com.willbank.account.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Mouvement signé sur un compte : montant positif = crédit, négatif = débit
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingDTO {
+    
+    @NotNull(message = "Account ID is required")
+    private Long accountId;
+    
+    @NotNull(message = "Amount is required")
+    private BigDecimal amount;
+}
@@ -0,0 +1,20 @@
+package com.willbank.account.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingRequest {
+    
+    private String reference;
+    
+    @NotEmpty(message = "At least one posting is required")
+    private List<@Valid PostingDTO> postings;
+}
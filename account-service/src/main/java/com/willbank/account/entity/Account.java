@@ -42,6 +42,10 @@ public class Account {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
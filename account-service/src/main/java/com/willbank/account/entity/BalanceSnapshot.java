@@ -0,0 +1,40 @@
+package com.willbank.account.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Solde d'un compte figé après l'entrée de journal {@code lastEntryId}.
+ * Le solde à une date donnée = dernier snapshot + queue du journal.
+ */
+@Entity
+@Table(name = "balance_snapshot", indexes = {
+    @Index(name = "idx_snapshot_account_at", columnList = "account_id, snapshot_at"),
+    @Index(name = "idx_snapshot_account_entry", columnList = "account_id, last_entry_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long accountId;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+    
+    @Column(nullable = false)
+    private Long lastEntryId;
+    
+    @Column(nullable = false)
+    private LocalDateTime snapshotAt;
+}
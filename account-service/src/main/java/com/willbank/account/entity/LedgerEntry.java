@@ -0,0 +1,65 @@
+package com.willbank.account.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne du journal append-only, en partie double : chaque mouvement de solde y est
+ * inscrit dans la même transaction que la mise à jour du compte, et les lignes d'une
+ * même écriture (journalId) s'équilibrent à zéro. Les dépôts et retraits externes ont
+ * pour contrepartie le compte interne {@link #CASH_ACCOUNT_ID}.
+ */
+@Entity
+@Table(name = "ledger_entry", indexes = {
+    @Index(name = "idx_ledger_account_created", columnList = "account_id, created_at"),
+    @Index(name = "idx_ledger_account_id", columnList = "account_id, id"),
+    @Index(name = "idx_ledger_journal", columnList = "journal_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+    
+    // Internal counter-account of money entering or leaving the bank; never a row of accounts
+    public static final long CASH_ACCOUNT_ID = -1L;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Groups the balanced lines of one posting
+    @Column(nullable = false, updatable = false)
+    private Long journalId;
+    
+    @Column(nullable = false, updatable = false)
+    private Long accountId;
+    
+    // Signed amount: positive = credit, negative = debit
+    @Column(nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(updatable = false)
+    private String reference;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public LedgerEntry(Long journalId, Long accountId, BigDecimal amount, String reference) {
+        this.journalId = journalId;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.reference = reference;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
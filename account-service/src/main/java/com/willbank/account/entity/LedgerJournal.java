@@ -0,0 +1,45 @@
+package com.willbank.account.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * En-tête d'une écriture du journal. La référence fournie par l'appelant est unique :
+ * un même lot de postings rejoué (retry après timeout) n'est jamais appliqué deux fois.
+ */
+@Entity
+@Table(name = "ledger_journal", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_ledger_journal_reference", columnNames = "reference")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerJournal {
+    
+    // Same value as LedgerEntry.journalId, assigned by the IdGenerator
+    @Id
+    private Long id;
+    
+    // NULL for single-account movements, which carry no caller reference
+    @Column(updatable = false)
+    private String reference;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public LedgerJournal(Long id, String reference) {
+        this.id = id;
+        this.reference = reference;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
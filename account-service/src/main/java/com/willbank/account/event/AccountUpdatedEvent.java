@@ -0,0 +1,18 @@
+package com.willbank.account.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountUpdatedEvent {
+    private Long accountId;
+    private Long clientId;
+    // CREATED, UPDATED (type or status) or DELETED
+    private String updateType;
+    private LocalDateTime timestamp;
+}
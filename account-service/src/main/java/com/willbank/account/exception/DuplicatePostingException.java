@@ -0,0 +1,7 @@
+package com.willbank.account.exception;
+
+public class DuplicatePostingException extends RuntimeException {
+    public DuplicatePostingException(String message) {
+        super(message);
+    }
+}
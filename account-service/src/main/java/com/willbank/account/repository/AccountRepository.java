@@ -2,8 +2,13 @@ package com.willbank.account.repository;
 
 import com.willbank.account.entity.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,30 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumber(String accountNumber);
     List<Account> findByClientId(Long clientId);
     boolean existsByAccountNumber(String accountNumber);
+    
+    /**
+     * Applique un crédit en une seule requête UPDATE (pas de lecture préalable).
+     * Retourne le nombre de lignes modifiées : 0 si le compte n'existe pas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1, a.updatedAt = :now " +
+           "WHERE a.id = :id")
+    int applyCredit(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+    
+    /**
+     * Applique un débit conditionnel : le contrôle de solde et la mise à jour sont
+     * exécutés atomiquement par la base. Retourne 0 si le compte n'existe pas
+     * ou si le solde est insuffisant.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.version = a.version + 1, a.updatedAt = :now " +
+           "WHERE a.id = :id AND a.balance >= :amount")
+    int applyDebit(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+    
+    /**
+     * Verrou partagé sur la ligne du compte : attend les postings en cours sur ce compte
+     * et bloque les suivants jusqu'à la fin de la transaction. Null si le compte n'existe pas.
+     */
+    @Query(value = "SELECT id FROM accounts WHERE id = :id FOR SHARE", nativeQuery = true)
+    Long lockForShare(@Param("id") Long id);
 }
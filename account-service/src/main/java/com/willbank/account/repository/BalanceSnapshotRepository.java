@@ -0,0 +1,16 @@
+package com.willbank.account.repository;
+
+import com.willbank.account.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+    
+    Optional<BalanceSnapshot> findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(Long accountId, LocalDateTime asOf);
+    
+    Optional<BalanceSnapshot> findFirstByAccountIdOrderByLastEntryIdDesc(Long accountId);
+}
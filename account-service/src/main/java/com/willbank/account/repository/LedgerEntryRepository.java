@@ -0,0 +1,40 @@
+package com.willbank.account.repository;
+
+import com.willbank.account.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e " +
+           "WHERE e.accountId = :accountId AND e.id > :afterEntryId AND e.createdAt <= :asOf")
+    BigDecimal sumAfterEntry(@Param("accountId") Long accountId,
+                             @Param("afterEntryId") Long afterEntryId,
+                             @Param("asOf") LocalDateTime asOf);
+    
+    // Accounts whose latest entry is past their latest snapshot (loose scan of idx_ledger_account_id)
+    @Query(value = "SELECT e.account_id FROM ledger_entry e " +
+                   "LEFT JOIN (SELECT account_id, MAX(last_entry_id) AS last_entry_id " +
+                   "           FROM balance_snapshot GROUP BY account_id) s ON s.account_id = e.account_id " +
+                   "WHERE e.account_id <> :excludedAccountId " +
+                   "GROUP BY e.account_id " +
+                   "HAVING MAX(e.id) > COALESCE(MAX(s.last_entry_id), 0)",
+           nativeQuery = true)
+    List<Long> findAccountIdsToSnapshot(@Param("excludedAccountId") Long excludedAccountId);
+    
+    @Query("SELECT MAX(e.id) FROM LedgerEntry e WHERE e.accountId = :accountId")
+    Long findMaxIdByAccountId(@Param("accountId") Long accountId);
+    
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e " +
+           "WHERE e.accountId = :accountId AND e.id > :fromEntryId AND e.id <= :toEntryId")
+    BigDecimal sumBetweenEntries(@Param("accountId") Long accountId,
+                                 @Param("fromEntryId") Long fromEntryId,
+                                 @Param("toEntryId") Long toEntryId);
+}
@@ -0,0 +1,11 @@
+package com.willbank.account.repository;
+
+import com.willbank.account.entity.LedgerJournal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerJournalRepository extends JpaRepository<LedgerJournal, Long> {
+    
+    boolean existsByReference(String reference);
+}
@@ -0,0 +1,40 @@
+package com.willbank.account.service;
+
+import com.willbank.account.event.AccountUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Publie les AccountUpdatedEvent (création, changement de statut, suppression) sur
+ * willbank.events une fois la transaction commitée : les caches construits à partir de
+ * la liste des comptes d'un client (dashboard) sont évincés.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountEventPublisher {
+    
+    private final RabbitTemplate rabbitTemplate;
+    
+    @Value("${rabbitmq.exchange.name}")
+    private String exchangeName;
+    
+    @Value("${rabbitmq.routing.account-updated}")
+    private String accountUpdatedRoutingKey;
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void publishAccountUpdated(AccountUpdatedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(exchangeName, accountUpdatedRoutingKey, event);
+            log.info("Published AccountUpdatedEvent ({}) for account {}", event.getUpdateType(), event.getAccountId());
+        } catch (Exception e) {
+            // Caches elsewhere fall back on their TTL
+            log.warn("Failed to publish AccountUpdatedEvent for account {}: {}", event.getAccountId(), e.getMessage());
+        }
+    }
+}
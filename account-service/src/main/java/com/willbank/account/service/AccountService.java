@@ -1,22 +1,35 @@
 package com.willbank.account.service;
 
-import com.willbank.account.client.ClientClient;
+import com.willbank.clientcache.ClientProfileCache;
+import com.willbank.account.dto.AccountBalanceDTO;
 import com.willbank.account.dto.AccountDTO;
 import com.willbank.account.dto.ClientDTO;
+import com.willbank.account.dto.PostingDTO;
+import com.willbank.account.dto.PostingRequest;
 import com.willbank.account.entity.Account;
+import com.willbank.account.event.AccountUpdatedEvent;
 import com.willbank.account.exception.AccountNotFoundException;
 import com.willbank.account.exception.InsufficientBalanceException;
 import com.willbank.account.repository.AccountRepository;
+import com.willbank.idgen.IdGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,9 +38,12 @@ import java.util.stream.Collectors;
 public class AccountService {
     
     private final AccountRepository accountRepository;
-    private final ClientClient clientClient;
+    private final ClientProfileCache<ClientDTO> clientProfileCache;
     private final EmailService emailService;
-    private final Random random = new Random();
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final LedgerService ledgerService;
+    private final IdGenerator idGenerator;
     
     @Transactional
     public AccountDTO createAccount(AccountDTO accountDTO) {
@@ -40,10 +56,12 @@ public class AccountService {
         
         Account savedAccount = accountRepository.save(account);
         log.info("Account created successfully with number: {}", savedAccount.getAccountNumber());
+        applicationEventPublisher.publishEvent(new AccountUpdatedEvent(
+            savedAccount.getId(), savedAccount.getClientId(), "CREATED", LocalDateTime.now()));
         
         // Send email notification to the client
         try {
-            ClientDTO client = clientClient.getClientById(savedAccount.getClientId());
+            ClientDTO client = clientProfileCache.get(savedAccount.getClientId());
             emailService.sendAccountCreatedEmail(
                 client.getEmail(),
                 client.getFirstName(),
@@ -89,7 +107,10 @@ public class AccountService {
     }
     
     @Transactional
-    @CacheEvict(value = "accounts", key = "#id")
+    @Caching(evict = {
+        @CacheEvict(value = "accounts", key = "#id"),
+        @CacheEvict(value = "balances", key = "#id")
+    })
     public AccountDTO updateAccount(Long id, AccountDTO accountDTO) {
         log.info("Updating account with ID: {}", id);
         
@@ -101,40 +122,116 @@ public class AccountService {
         
         Account updatedAccount = accountRepository.save(account);
         log.info("Account updated successfully with ID: {}", updatedAccount.getId());
+        applicationEventPublisher.publishEvent(new AccountUpdatedEvent(
+            updatedAccount.getId(), updatedAccount.getClientId(), "UPDATED", LocalDateTime.now()));
         
         return toDTO(updatedAccount);
     }
     
     @Transactional
-    @CacheEvict(value = "accounts", key = "#accountId")
+    @Caching(evict = {
+        @CacheEvict(value = "accounts", key = "#accountId"),
+        @CacheEvict(value = "balances", key = "#accountId")
+    })
     public void credit(Long accountId, BigDecimal amount) {
         log.info("Crediting account ID {} with amount: {}", accountId, amount);
         
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
-        
-        account.setBalance(account.getBalance().add(amount));
-        accountRepository.save(account);
+        // Single conditional UPDATE: no read-modify-write, no lost update under concurrency
+        int updated = accountRepository.applyCredit(accountId, amount, LocalDateTime.now());
+        if (updated == 0) {
+            throw new AccountNotFoundException("Account not found with ID: " + accountId);
+        }
+        ledgerService.record(accountId, amount, null);
         
-        log.info("Account credited successfully. New balance: {}", account.getBalance());
+        log.info("Account credited successfully: {}", accountId);
     }
     
     @Transactional
-    @CacheEvict(value = "accounts", key = "#accountId")
+    @Caching(evict = {
+        @CacheEvict(value = "accounts", key = "#accountId"),
+        @CacheEvict(value = "balances", key = "#accountId")
+    })
     public void debit(Long accountId, BigDecimal amount) {
         log.info("Debiting account ID {} with amount: {}", accountId, amount);
         
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
-        
-        if (account.getBalance().compareTo(amount) < 0) {
+        // The balance >= amount check is part of the UPDATE statement itself
+        int updated = accountRepository.applyDebit(accountId, amount, LocalDateTime.now());
+        if (updated == 0) {
+            if (!accountRepository.existsById(accountId)) {
+                throw new AccountNotFoundException("Account not found with ID: " + accountId);
+            }
             throw new InsufficientBalanceException("Insufficient balance in account: " + accountId);
         }
+        ledgerService.record(accountId, amount.negate(), null);
+        
+        log.info("Account debited successfully: {}", accountId);
+    }
+    
+    /**
+     * Applies a set of signed postings in a single DB transaction.
+     * Postings are netted per account and applied in ascending account id order,
+     * so concurrent batches always take row locks in the same order (no deadlock).
+     */
+    @Transactional
+    public List<AccountBalanceDTO> applyPostings(PostingRequest request) {
+        log.info("Applying {} postings (reference: {})", request.getPostings().size(), request.getReference());
+        
+        Map<Long, BigDecimal> netByAccount = new TreeMap<>();
+        for (PostingDTO posting : request.getPostings()) {
+            netByAccount.merge(posting.getAccountId(), posting.getAmount(), BigDecimal::add);
+        }
+        
+        // A retried request (timeout on the caller side) must not move the money twice
+        if (ledgerService.isJournaled(request.getReference())) {
+            log.info("Postings already applied for reference {}, returning current balances", request.getReference());
+            return currentBalances(netByAccount.keySet());
+        }
+        long journalId = ledgerService.openJournal(request.getReference());
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, BigDecimal> entry : netByAccount.entrySet()) {
+            Long accountId = entry.getKey();
+            BigDecimal delta = entry.getValue();
+            int sign = delta.signum();
+            
+            int updated;
+            if (sign > 0) {
+                updated = accountRepository.applyCredit(accountId, delta, now);
+            } else if (sign < 0) {
+                updated = accountRepository.applyDebit(accountId, delta.negate(), now);
+            } else {
+                updated = accountRepository.existsById(accountId) ? 1 : 0;
+            }
+            
+            if (updated == 0) {
+                if (sign < 0 && accountRepository.existsById(accountId)) {
+                    throw new InsufficientBalanceException("Insufficient balance in account: " + accountId);
+                }
+                throw new AccountNotFoundException("Account not found with ID: " + accountId);
+            }
+        }
         
-        account.setBalance(account.getBalance().subtract(amount));
-        accountRepository.save(account);
+        ledgerService.recordPostings(journalId, request.getPostings(), request.getReference());
         
-        log.info("Account debited successfully. New balance: {}", account.getBalance());
+        // Evictions are deferred until the transaction commits
+        for (String cacheName : List.of("accounts", "balances")) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                netByAccount.keySet().forEach(cache::evict);
+            }
+        }
+        
+        List<AccountBalanceDTO> balances = currentBalances(netByAccount.keySet());
+        
+        log.info("Postings applied successfully on {} accounts", balances.size());
+        return balances;
+    }
+    
+    private List<AccountBalanceDTO> currentBalances(Collection<Long> accountIds) {
+        return accountRepository.findAllById(accountIds).stream()
+                .sorted(Comparator.comparing(Account::getId))
+                .map(account -> new AccountBalanceDTO(account.getId(), account.getBalance()))
+                .collect(Collectors.toList());
     }
     
     @Cacheable(value = "balances", key = "#accountId")
@@ -145,25 +242,29 @@ public class AccountService {
         return account.getBalance();
     }
     
+    public BigDecimal getBalanceAsOf(Long accountId, LocalDateTime asOf) {
+        return ledgerService.getBalanceAsOf(accountId, asOf);
+    }
+    
     @Transactional
-    @CacheEvict(value = "accounts", key = "#id")
+    @Caching(evict = {
+        @CacheEvict(value = "accounts", key = "#id"),
+        @CacheEvict(value = "balances", key = "#id")
+    })
     public void deleteAccount(Long id) {
         log.info("Deleting account with ID: {}", id);
         
-        if (!accountRepository.existsById(id)) {
-            throw new AccountNotFoundException("Account not found with ID: " + id);
-        }
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + id));
         
-        accountRepository.deleteById(id);
+        accountRepository.delete(account);
         log.info("Account deleted successfully with ID: {}", id);
+        applicationEventPublisher.publishEvent(new AccountUpdatedEvent(
+            id, account.getClientId(), "DELETED", LocalDateTime.now()));
     }
     
     private String generateAccountNumber() {
-        String accountNumber;
-        do {
-            accountNumber = String.format("WB%010d", random.nextInt(1000000000));
-        } while (accountRepository.existsByAccountNumber(accountNumber));
-        return accountNumber;
+        return String.format("WB%019d", idGenerator.nextId());
     }
     
     private AccountDTO toDTO(Account account) {
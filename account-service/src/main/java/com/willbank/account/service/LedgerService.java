@@ -0,0 +1,160 @@
+package com.willbank.account.service;
+
+import com.willbank.account.dto.PostingDTO;
+import com.willbank.account.entity.BalanceSnapshot;
+import com.willbank.account.entity.LedgerEntry;
+import com.willbank.account.entity.LedgerJournal;
+import com.willbank.account.exception.AccountNotFoundException;
+import com.willbank.account.exception.DuplicatePostingException;
+import com.willbank.account.repository.AccountRepository;
+import com.willbank.account.repository.BalanceSnapshotRepository;
+import com.willbank.account.repository.LedgerEntryRepository;
+import com.willbank.account.repository.LedgerJournalRepository;
+import com.willbank.idgen.IdGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerService {
+    
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerJournalRepository ledgerJournalRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final AccountRepository accountRepository;
+    private final IdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * Appends a single-account movement (external deposit or withdrawal), balanced
+     * against the cash account. Must run inside the caller's transaction so the
+     * entries commit or roll back together with the balance update.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long accountId, BigDecimal amount, String reference) {
+        recordPostings(openJournal(reference), List.of(new PostingDTO(accountId, amount)), reference);
+    }
+    
+    @Transactional(readOnly = true)
+    public boolean isJournaled(String reference) {
+        return reference != null && ledgerJournalRepository.existsByReference(reference);
+    }
+    
+    /**
+     * Claims the reference of a new journal before any balance moves. The insert is
+     * flushed immediately: a concurrent request with the same reference blocks on the
+     * unique index until this transaction ends, then fails instead of applying twice.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long openJournal(String reference) {
+        long journalId = idGenerator.nextId();
+        try {
+            ledgerJournalRepository.saveAndFlush(new LedgerJournal(journalId, reference));
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicatePostingException("Postings already applied for reference: " + reference);
+        }
+        return journalId;
+    }
+    
+    /**
+     * Appends the postings of one operation under a journal opened by {@link #openJournal}.
+     * Legs that do not net to zero (a deposit or withdrawal part) are balanced by one
+     * cash account line.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPostings(long journalId, List<PostingDTO> postings, String reference) {
+        List<LedgerEntry> entries = new ArrayList<>(postings.size() + 1);
+        BigDecimal net = BigDecimal.ZERO;
+        for (PostingDTO posting : postings) {
+            if (posting.getAmount().signum() != 0) {
+                entries.add(new LedgerEntry(journalId, posting.getAccountId(), posting.getAmount(), reference));
+                net = net.add(posting.getAmount());
+            }
+        }
+        if (net.signum() != 0) {
+            entries.add(new LedgerEntry(journalId, LedgerEntry.CASH_ACCOUNT_ID, net.negate(), reference));
+        }
+        ledgerEntryRepository.saveAll(entries);
+    }
+    
+    /**
+     * Balance at a point in time = latest snapshot taken before {@code asOf}
+     * plus the journal entries recorded after it, up to {@code asOf}.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAsOf(Long accountId, LocalDateTime asOf) {
+        log.info("Computing balance for account ID {} as of {}", accountId, asOf);
+        
+        if (!accountRepository.existsById(accountId)) {
+            throw new AccountNotFoundException("Account not found with ID: " + accountId);
+        }
+        
+        BalanceSnapshot snapshot = balanceSnapshotRepository
+                .findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(accountId, asOf)
+                .orElse(null);
+        
+        BigDecimal base = snapshot != null ? snapshot.getBalance() : BigDecimal.ZERO;
+        Long afterEntryId = snapshot != null ? snapshot.getLastEntryId() : 0L;
+        
+        return base.add(ledgerEntryRepository.sumAfterEntry(accountId, afterEntryId, asOf));
+    }
+    
+    /**
+     * Rolls the journal forward into new snapshots for every account that moved since
+     * its previous snapshot, so as-of lookups only read a short journal tail.
+     * <p>
+     * Entry ids do not follow commit order, so there is no global watermark: each account
+     * is snapshotted in its own transaction, under a shared lock on its row. Postings
+     * update that row before writing their entries, so the in-flight ones are waited for
+     * and the later ones get higher ids. The cash account has no row and is never read
+     * as of a date: it is not snapshotted.
+     */
+    @Scheduled(fixedDelayString = "${app.ledger.snapshot.interval-ms:3600000}",
+               initialDelayString = "${app.ledger.snapshot.initial-delay-ms:60000}")
+    public void takeSnapshots() {
+        List<Long> accountIds = ledgerEntryRepository.findAccountIdsToSnapshot(LedgerEntry.CASH_ACCOUNT_ID);
+        int taken = 0;
+        for (Long accountId : accountIds) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> takeSnapshot(accountId)))) {
+                taken++;
+            }
+        }
+        
+        log.info("Balance snapshots taken for {} accounts", taken);
+    }
+    
+    private boolean takeSnapshot(Long accountId) {
+        // Locking read first: the plain reads below then see every entry committed before it
+        if (accountRepository.lockForShare(accountId) == null) {
+            return false;
+        }
+        LocalDateTime snapshotAt = LocalDateTime.now();
+        
+        BalanceSnapshot previous = balanceSnapshotRepository
+                .findFirstByAccountIdOrderByLastEntryIdDesc(accountId)
+                .orElse(null);
+        BigDecimal base = previous != null ? previous.getBalance() : BigDecimal.ZERO;
+        Long fromEntryId = previous != null ? previous.getLastEntryId() : 0L;
+        
+        Long upToEntryId = ledgerEntryRepository.findMaxIdByAccountId(accountId);
+        if (upToEntryId == null || upToEntryId <= fromEntryId) {
+            return false;
+        }
+        
+        BigDecimal balance = base.add(ledgerEntryRepository.sumBetweenEntries(accountId, fromEntryId, upToEntryId));
+        balanceSnapshotRepository.save(new BalanceSnapshot(null, accountId, balance, upToEntryId, snapshotAt));
+        return true;
+    }
+}
@@ -0,0 +1,148 @@
+package com.willbank.account.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Les évincements qui arrivent pendant une lecture ne doivent pas être annulés par le
+ * remplissage de L1 (hit L2) ni par le put qui suit un miss {@code @Cacheable}.
+ */
+class TwoLevelCacheTest {
+    
+    private ConcurrentMapCache local;
+    private HookedCache remote;
+    private CacheInvalidationPublisher publisher;
+    private TwoLevelCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        local = new ConcurrentMapCache("accounts");
+        remote = new HookedCache("accounts");
+        publisher = mock(CacheInvalidationPublisher.class);
+        cache = new TwoLevelCache("accounts", local, remote, publisher, new SimpleMeterRegistry(),
+                1000, Duration.ofMinutes(1));
+    }
+    
+    @Test
+    void remoteHitFillsLocal() {
+        remote.put(1L, "v1");
+        
+        assertThat(cache.get(1L).get()).isEqualTo("v1");
+        assertThat(local.get(1L).get()).isEqualTo("v1");
+    }
+    
+    @Test
+    void evictionDuringRemoteLookupIsNotUndoneByTheLocalFill() {
+        remote.put(1L, "stale");
+        // The eviction lands after the L2 read, before the L1 put
+        remote.afterNextGet(() -> cache.evict(1L));
+        
+        assertThat(cache.get(1L).get()).isEqualTo("stale");
+        assertThat(local.get(1L)).isNull();
+        assertThat(remote.get(1L)).isNull();
+        verify(publisher).publish("accounts", 1L);
+    }
+    
+    @Test
+    void remoteInvalidationDuringRemoteLookupIsNotUndoneByTheLocalFill() {
+        remote.put(1L, "stale");
+        remote.afterNextGet(() -> cache.invalidateLocal(1L));
+        
+        cache.get(1L);
+        
+        assertThat(local.get(1L)).isNull();
+    }
+    
+    @Test
+    void evictionDuringLoadDropsTheLoadedValueFromBothTiers() {
+        String loaded = cache.get(1L, () -> {
+            // Another instance commits an update and broadcasts its eviction while we load
+            cache.invalidateLocal(1L);
+            return "stale";
+        });
+        
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(local.get(1L)).isNull();
+        assertThat(remote.get(1L)).isNull();
+    }
+    
+    @Test
+    void clearDuringLoadDropsTheLoadedValue() {
+        cache.get(1L, () -> {
+            cache.clear();
+            return "stale";
+        });
+        
+        assertThat(local.get(1L)).isNull();
+        assertThat(remote.get(1L)).isNull();
+    }
+    
+    @Test
+    void invalidationReceivedAfterALoadAlsoEvictsTheValueItWroteToRemote() {
+        cache.get(1L, () -> "loaded");
+        assertThat(remote.get(1L)).isNotNull();
+        
+        cache.invalidateLocal(1L);
+        
+        assertThat(local.get(1L)).isNull();
+        assertThat(remote.get(1L)).isNull();
+    }
+    
+    @Test
+    void invalidationForAnotherKeyKeepsTheLoadedValue() {
+        cache.get(1L, () -> {
+            cache.invalidateLocal(2L);
+            return "fresh";
+        });
+        
+        assertThat(local.get(1L).get()).isEqualTo("fresh");
+        assertThat(remote.get(1L).get()).isEqualTo("fresh");
+    }
+    
+    @Test
+    void plainPutIsNotCheckedAgainstAnEarlierMissOfAnotherKey() {
+        assertThat(cache.get(1L)).isNull();
+        cache.invalidateLocal(2L);
+        
+        cache.put(2L, "written");
+        
+        assertThat(local.get(2L).get()).isEqualTo("written");
+        assertThat(remote.get(2L).get()).isEqualTo("written");
+    }
+    
+    /**
+     * L2 stand-in that runs a hook right after one lookup, to place a concurrent
+     * eviction at an exact point of the read.
+     */
+    private static final class HookedCache extends ConcurrentMapCache {
+        
+        private Runnable afterGet;
+        
+        HookedCache(String name) {
+            super(name);
+        }
+        
+        void afterNextGet(Runnable hook) {
+            this.afterGet = hook;
+        }
+        
+        @Override
+        public ValueWrapper get(Object key) {
+            ValueWrapper value = super.get(key);
+            Runnable hook = afterGet;
+            afterGet = null;
+            if (hook != null) {
+                hook.run();
+            }
+            return value;
+        }
+    }
+}
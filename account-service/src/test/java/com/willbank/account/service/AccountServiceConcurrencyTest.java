@@ -0,0 +1,137 @@
+package com.willbank.account.service;
+
+import com.willbank.account.entity.Account;
+import com.willbank.account.exception.InsufficientBalanceException;
+import com.willbank.account.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * credit/debit sous contention réelle (MySQL) : 64 threads sur le même compte.
+ * Aucune mise à jour perdue, jamais de solde négatif, journal cohérent avec le solde.
+ */
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "app.id-generator.node-id=1",
+    "spring.jpa.show-sql=false"
+})
+@Testcontainers
+class AccountServiceConcurrencyTest {
+    
+    private static final int THREADS = 64;
+    
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+    
+    @Container
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Test
+    void concurrentDebitsNeverLoseAnUpdateNorOverdraw() throws Exception {
+        Long accountId = newAccount();
+        accountService.credit(accountId, new BigDecimal("1000.00"));
+        
+        // 64 x 5 debits of 10 = 3200 requested against 1000 available
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(() -> {
+            for (int i = 0; i < 5; i++) {
+                try {
+                    accountService.debit(accountId, BigDecimal.TEN);
+                    succeeded.incrementAndGet();
+                } catch (InsufficientBalanceException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+        
+        assertThat(succeeded.get()).isEqualTo(100);
+        assertThat(rejected.get()).isEqualTo(THREADS * 5 - 100);
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        assertThat(account.getBalance()).isEqualByComparingTo("0.00");
+        assertJournalMatches(accountId, account.getBalance());
+    }
+    
+    @Test
+    void concurrentCreditsAndDebitsAllApply() throws Exception {
+        Long accountId = newAccount();
+        accountService.credit(accountId, new BigDecimal("500.00"));
+        long versionBefore = accountRepository.findById(accountId).orElseThrow().getVersion();
+        
+        runConcurrently(() -> {
+            for (int i = 0; i < 10; i++) {
+                accountService.credit(accountId, new BigDecimal("7.00"));
+                accountService.debit(accountId, new BigDecimal("3.00"));
+            }
+        });
+        
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        // Every one of the 64 x 10 x (+7 -3) movements is there
+        assertThat(account.getBalance()).isEqualByComparingTo(new BigDecimal("500.00")
+                .add(new BigDecimal("4.00").multiply(BigDecimal.valueOf(THREADS * 10L))));
+        assertThat(account.getVersion()).isEqualTo(versionBefore + THREADS * 20L);
+        assertJournalMatches(accountId, account.getBalance());
+    }
+    
+    private Long newAccount() {
+        Account account = new Account();
+        account.setAccountNumber("TEST" + System.nanoTime());
+        account.setClientId(1L);
+        account.setAccountType(Account.AccountType.CHECKING);
+        account.setBalance(BigDecimal.ZERO);
+        return accountRepository.save(account).getId();
+    }
+    
+    private void assertJournalMatches(Long accountId, BigDecimal balance) {
+        assertThat(accountService.getBalanceAsOf(accountId, LocalDateTime.now().plusSeconds(1)))
+                .isEqualByComparingTo(balance);
+    }
+    
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                // Rethrows anything unexpected raised by a worker
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,58 +1,112 @@
 package com.willbank.gateway.config;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.willbank.gateway.security.AccessTokenValidator;
+import com.willbank.gateway.security.CachingReactiveJwtDecoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.oauth2.server.resource.web.server.authentication.ServerBearerTokenAuthenticationConverter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import reactor.core.publisher.Mono;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPublicKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
+/**
+ * Les tokens émis par client-service (HS512) sont vérifiés ici, une seule fois par requête :
+ * un token invalide, expiré ou qui n'est pas un access token est rejeté en 401 sans
+ * atteindre les services.
+ */
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
     
+    private static final String[] PUBLIC_PATHS = {"/actuator/**", "/eureka/**", "/api/auth/**"};
+    
+    private static final String[] ADMIN_PATHS = {"/api/notifications/admin/**", "/*/api/notifications/admin/**"};
+    
+    // Service-to-service endpoints (/internal/clients/...), never exposed through the gateway
+    private static final String[] INTERNAL_PATHS = {"/internal/**", "/*/internal/**"};
+    
+    @Value("${jwt.secret}")
+    private String secretKey;
+    
+    // Same as client-service's jwt.expiration: tells legacy access tokens from refresh tokens
+    @Value("${jwt.expiration}")
+    private long accessTokenExpirationMs;
+    
+    @Value("${app.gateway.jwt-cache.max-size:100000}")
+    private long jwtCacheMaxSize;
+    
     @Bean
     public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeExchange(exchanges -> exchanges
-                .pathMatchers("/actuator/**").permitAll()
-                .pathMatchers("/eureka/**").permitAll()
-                .anyExchange().permitAll()  // For testing - in production, use .authenticated()
+                .pathMatchers(INTERNAL_PATHS).denyAll()
+                .pathMatchers(HttpMethod.OPTIONS).permitAll()
+                .pathMatchers(PUBLIC_PATHS).permitAll()
+                // Also through the discovery locator routes (/notification-service/api/...)
+                .pathMatchers(ADMIN_PATHS).hasRole("ADMIN")
+                .anyExchange().authenticated()
+            )
+            .oauth2ResourceServer(oauth2 -> oauth2
+                .bearerTokenConverter(bearerTokenConverter())
+                .jwt(jwt -> jwt
+                    .jwtDecoder(jwtDecoder())
+                    .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                )
             );
-            // Uncomment below for JWT authentication
-            // .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> {}));
         
         return http.build();
     }
     
     @Bean
     public ReactiveJwtDecoder jwtDecoder() {
-        try {
-            // Generate RSA key pair in memory for testing
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-            keyPairGenerator.initialize(2048);
-            KeyPair keyPair = keyPairGenerator.generateKeyPair();
-            
-            RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-            
-            RSAKey rsaKey = new RSAKey.Builder(publicKey)
-                    .keyID("willbank-key-id")
-                    .build();
-            
-            JWKSet jwkSet = new JWKSet(rsaKey);
-            
-            return NimbusReactiveJwtDecoder.withPublicKey(publicKey).build();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create JWT decoder", e);
-        }
+        SecretKeySpec key = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withSecretKey(key)
+                .macAlgorithm(MacAlgorithm.HS512)
+                .build();
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefault(),
+                new AccessTokenValidator(Duration.ofMillis(accessTokenExpirationMs))));
+        return new CachingReactiveJwtDecoder(decoder, jwtCacheMaxSize);
+    }
+    
+    private ReactiveJwtAuthenticationConverterAdapter jwtAuthenticationConverter() {
+        // Le claim "roles" contient déjà les autorités complètes (ROLE_CLIENT, ...)
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthoritiesClaimName("roles");
+        authoritiesConverter.setAuthorityPrefix("");
+        
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        return new ReactiveJwtAuthenticationConverterAdapter(converter);
+    }
+    
+    /**
+     * Ignore le header Authorization sur les routes publiques : un ancien token
+     * resté côté client ne doit pas faire échouer un login.
+     */
+    private ServerAuthenticationConverter bearerTokenConverter() {
+        ServerBearerTokenAuthenticationConverter delegate = new ServerBearerTokenAuthenticationConverter();
+        ServerWebExchangeMatcher publicPaths = ServerWebExchangeMatchers.pathMatchers(PUBLIC_PATHS);
+        return exchange -> publicPaths.matches(exchange)
+                .flatMap(match -> match.isMatch() ? Mono.empty() : delegate.convert(exchange));
     }
 }
@@ -0,0 +1,44 @@
+package com.willbank.gateway.security;
+
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * N'accepte que les access tokens (claim token_use = access) : un refresh token, signé
+ * avec la même clé, ne doit pas servir de bearer token. Les tokens émis avant ce claim
+ * sont reconnus à leur durée de vie, qui ne dépasse pas celle d'un access token.
+ */
+public class AccessTokenValidator implements OAuth2TokenValidator<Jwt> {
+    
+    public static final String TOKEN_USE_CLAIM = "token_use";
+    public static final String ACCESS_TOKEN = "access";
+    
+    private static final OAuth2Error NOT_AN_ACCESS_TOKEN = new OAuth2Error(
+            OAuth2ErrorCodes.INVALID_TOKEN, "Not an access token", null);
+    
+    private final Duration maxAccessTokenLifetime;
+    
+    public AccessTokenValidator(Duration maxAccessTokenLifetime) {
+        this.maxAccessTokenLifetime = maxAccessTokenLifetime;
+    }
+    
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        String tokenUse = jwt.getClaimAsString(TOKEN_USE_CLAIM);
+        boolean access = tokenUse != null ? ACCESS_TOKEN.equals(tokenUse) : isAccessTokenLifetime(jwt);
+        return access ? OAuth2TokenValidatorResult.success() : OAuth2TokenValidatorResult.failure(NOT_AN_ACCESS_TOKEN);
+    }
+    
+    private boolean isAccessTokenLifetime(Jwt jwt) {
+        Instant issuedAt = jwt.getIssuedAt();
+        Instant expiresAt = jwt.getExpiresAt();
+        return issuedAt != null && expiresAt != null
+                && Duration.between(issuedAt, expiresAt).compareTo(maxAccessTokenLifetime) <= 0;
+    }
+}
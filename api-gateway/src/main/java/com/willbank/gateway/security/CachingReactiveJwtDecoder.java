@@ -0,0 +1,78 @@
+package com.willbank.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Garde les tokens déjà vérifiés, indexés par leur empreinte SHA-256 : un client qui
+ * renvoie le même token n'est vérifié (signature HMAC + parsing JSON) qu'une fois.
+ * Chaque entrée expire avec le token ; les tokens refusés ne sont jamais mis en cache.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+    
+    private final ReactiveJwtDecoder delegate;
+    private final Cache<String, Jwt> decodedTokens;
+    
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maxSize) {
+        this.delegate = delegate;
+        this.decodedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+                        return remainingNanos(jwt);
+                    }
+        
+                    @Override
+                    public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return remainingNanos(jwt);
+                    }
+        
+                    @Override
+                    public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+    
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        String key = hash(token);
+        Jwt cached = decodedTokens.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return delegate.decode(token).doOnNext(jwt -> decodedTokens.put(key, jwt));
+    }
+    
+    private static long remainingNanos(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return 0;
+        }
+        long remainingMillis = expiresAt.toEpochMilli() - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.willbank.gateway.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Transmet l'utilisateur authentifié aux services en aval dans des headers signés
+ * (HMAC-SHA256 avec app.gateway.user-context.secret) : X-User-Id, X-User-Email,
+ * X-User-Roles, X-User-Context-Timestamp et X-User-Context-Signature. X-User-Id est
+ * absent (et signé comme vide) quand le token n'a pas de claim uid.
+ * Les mêmes headers envoyés par le client sont toujours supprimés.
+ */
+@Component
+public class UserContextFilter implements GlobalFilter, Ordered {
+    
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    public static final String TIMESTAMP_HEADER = "X-User-Context-Timestamp";
+    public static final String SIGNATURE_HEADER = "X-User-Context-Signature";
+    
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    // HMAC-SHA256 key: at least as long as its output
+    private static final int MIN_SECRET_BYTES = 32;
+    
+    private final ThreadLocal<Mac> macs;
+    
+    public UserContextFilter(@Value("${app.gateway.user-context.secret}") String secret) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("app.gateway.user-context.secret must be at least "
+                    + MIN_SECRET_BYTES + " bytes (set USER_CONTEXT_SECRET)");
+        }
+        SecretKeySpec key = new SecretKeySpec(secretBytes, HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + HMAC_ALGORITHM, e);
+            }
+        });
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest stripped = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_EMAIL_HEADER);
+                    headers.remove(USER_ROLES_HEADER);
+                    headers.remove(TIMESTAMP_HEADER);
+                    headers.remove(SIGNATURE_HEADER);
+                })
+                .build();
+        ServerWebExchange strippedExchange = exchange.mutate().request(stripped).build();
+        
+        return exchange.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .cast(JwtAuthenticationToken.class)
+                .map(authentication -> withUserContext(strippedExchange, authentication))
+                .defaultIfEmpty(strippedExchange)
+                .flatMap(chain::filter);
+    }
+    
+    private ServerWebExchange withUserContext(ServerWebExchange exchange, JwtAuthenticationToken authentication) {
+        Jwt jwt = authentication.getToken();
+        Object uid = jwt.getClaims().get("uid");
+        // No uid claim: no X-User-Id at all, rather than an empty id that services would take as a user
+        String userId = uid != null ? uid.toString() : "";
+        String email = jwt.getSubject() != null ? jwt.getSubject() : "";
+        String roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        String signature = sign(userId + "\n" + email + "\n" + roles + "\n" + timestamp);
+        
+        ServerHttpRequest.Builder request = exchange.getRequest().mutate()
+                .header(USER_EMAIL_HEADER, email)
+                .header(USER_ROLES_HEADER, roles)
+                .header(TIMESTAMP_HEADER, timestamp)
+                .header(SIGNATURE_HEADER, signature);
+        if (uid != null) {
+            request.header(USER_ID_HEADER, userId);
+        }
+        return exchange.mutate().request(request.build()).build();
+    }
+    
+    private String sign(String payload) {
+        byte[] signature = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+    
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
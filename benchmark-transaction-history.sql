@@ -0,0 +1,76 @@
+-- Benchmark: account history query, OR predicate vs UNION ALL of index range scans
+-- Runs on a scratch database seeded with 10M transactions (takes several minutes)
+--   mysql -u root -p < benchmark-transaction-history.sql
+
+CREATE DATABASE IF NOT EXISTS transaction_bench;
+USE transaction_bench;
+
+DROP TABLE IF EXISTS transactions;
+CREATE TABLE transactions (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    transaction_reference VARCHAR(255) NOT NULL UNIQUE,
+    type VARCHAR(20) NOT NULL,
+    source_account_id BIGINT NOT NULL,
+    destination_account_id BIGINT NULL,
+    destination_iban VARCHAR(34) NULL,
+    amount DECIMAL(19,2) NOT NULL,
+    description VARCHAR(500) NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at DATETIME(6) NOT NULL
+);
+
+-- 10M rows over 100k accounts, spread over ~3 years
+DROP TABLE IF EXISTS digits;
+CREATE TABLE digits (d INT PRIMARY KEY);
+INSERT INTO digits VALUES (0),(1),(2),(3),(4),(5),(6),(7),(8),(9);
+
+INSERT INTO transactions (transaction_reference, type, source_account_id, destination_account_id,
+                          amount, description, status, created_at)
+SELECT CONCAT('BENCH-', n),
+       ELT(1 + n % 3, 'DEPOSIT', 'WITHDRAWAL', 'TRANSFER'),
+       1 + (n * 7919) % 100000,
+       IF(n % 3 = 2, 1 + (n * 104729) % 100000, NULL),
+       ROUND(1 + (n % 100000) / 100, 2),
+       NULL,
+       'COMPLETED',
+       TIMESTAMP('2023-01-01') + INTERVAL (n * 9) SECOND
+FROM (
+    SELECT a.d + 10 * b.d + 100 * c.d + 1000 * d.d + 10000 * e.d + 100000 * f.d + 1000000 * g.d AS n
+    FROM digits a, digits b, digits c, digits d, digits e, digits f, digits g
+) seq;
+
+ANALYZE TABLE transactions;
+
+SET @account = 4242;
+
+-- 1) Before: no history indexes, OR predicate
+
+EXPLAIN ANALYZE
+SELECT * FROM transactions
+WHERE source_account_id = @account OR destination_account_id = @account
+ORDER BY created_at DESC;
+
+-- 2) After: composite indexes + UNION ALL (query used by TransactionRepository.findByAccountId)
+CREATE INDEX idx_tx_source_created ON transactions(source_account_id, created_at);
+CREATE INDEX idx_tx_destination_created ON transactions(destination_account_id, created_at);
+
+EXPLAIN ANALYZE
+SELECT u.* FROM (
+    (SELECT * FROM transactions WHERE source_account_id = @account)
+    UNION ALL
+    (SELECT * FROM transactions WHERE destination_account_id = @account AND source_account_id <> @account)
+) u ORDER BY u.created_at DESC, u.id DESC;
+
+-- 3) After: first keyset page of 50 rows (TransactionRepository.findPageByAccountId)
+EXPLAIN ANALYZE
+SELECT u.* FROM (
+    (SELECT * FROM transactions WHERE source_account_id = @account
+     AND (created_at < '9999-12-31 23:59:00' OR (created_at = '9999-12-31 23:59:00' AND id < 9223372036854775807))
+     ORDER BY created_at DESC, id DESC LIMIT 50)
+    UNION ALL
+    (SELECT * FROM transactions WHERE destination_account_id = @account AND source_account_id <> @account
+     AND (created_at < '9999-12-31 23:59:00' OR (created_at = '9999-12-31 23:59:00' AND id < 9223372036854775807))
+     ORDER BY created_at DESC, id DESC LIMIT 50)
+) u ORDER BY u.created_at DESC, u.id DESC LIMIT 50;
+
+DROP TABLE digits;
@@ -0,0 +1,78 @@
+package com.willbank.clientcache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Cache local et borné des profils clients d'un service.
+ * Un profil est rechargé en arrière-plan après refresh-after (l'ancien reste servi
+ * pendant le rechargement), expire après ttl, et est invalidé à la réception d'un
+ * ClientUpdatedEvent. Une lecture répétée ne coûte aucun appel réseau.
+ *
+ * @param <T> le ClientDTO propre au service appelant
+ */
+@Slf4j
+public class ClientProfileCache<T> {
+    
+    private final LoadingCache<Long, T> profiles;
+    
+    /**
+     * @param batchLoader loads several profiles in one call (POST /internal/clients/batch);
+     *                    ids unknown to client-service are simply absent from the result
+     */
+    public ClientProfileCache(Function<Collection<Long>, Map<Long, T>> batchLoader,
+                              ClientProfileCacheProperties properties) {
+        ClientProfileCacheProperties.Batch batch = properties.getBatch();
+        CoalescingClientLoader<T> coalescingLoader = new CoalescingClientLoader<>(
+                batchLoader, batch.getWindow(), batch.getMaxSize(), batch.getThreads());
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .refreshAfterWrite(properties.getRefreshAfter())
+                .build(new CacheLoader<Long, T>() {
+                    @Override
+                    public T load(Long clientId) {
+                        // Concurrent misses on different ids share one batch call
+                        return coalescingLoader.load(clientId);
+                    }
+                    
+                    @Override
+                    public Map<Long, T> loadAll(Set<? extends Long> clientIds) {
+                        return batchLoader.apply(new ArrayList<>(clientIds));
+                    }
+                });
+    }
+    
+    /**
+     * Returns the cached profile, loading it from client-service on a miss.
+     * Loader failures (e.g. client not found) propagate and are not cached.
+     */
+    public T get(Long clientId) {
+        return profiles.get(clientId);
+    }
+    
+    /**
+     * Returns the profiles of the given clients, loading all the misses in one batch call.
+     * Unknown clients are absent from the result.
+     */
+    public Map<Long, T> getAll(Collection<Long> clientIds) {
+        return profiles.getAll(clientIds);
+    }
+    
+    public void invalidate(Long clientId) {
+        log.debug("Invalidating cached profile of client {}", clientId);
+        profiles.invalidate(clientId);
+    }
+    
+    public void invalidateAll() {
+        profiles.invalidateAll();
+    }
+}
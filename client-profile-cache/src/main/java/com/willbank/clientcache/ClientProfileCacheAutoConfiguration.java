@@ -0,0 +1,52 @@
+package com.willbank.clientcache;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Chaque instance reçoit tous les ClientUpdatedEvent sur sa propre file exclusive
+ * et invalide tous les {@link ClientProfileCache} déclarés comme beans.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(ClientProfileCacheProperties.class)
+public class ClientProfileCacheAutoConfiguration {
+    
+    @Bean
+    public TopicExchange clientProfileEventsExchange(ClientProfileCacheProperties properties) {
+        return new TopicExchange(properties.getExchange());
+    }
+    
+    @Bean
+    @ConditionalOnMissingBean(MessageConverter.class)
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+    
+    @Bean
+    public Queue clientProfileEventsQueue() {
+        return new AnonymousQueue();
+    }
+    
+    @Bean
+    public Binding clientProfileEventsBinding(Queue clientProfileEventsQueue, TopicExchange clientProfileEventsExchange,
+                                              ClientProfileCacheProperties properties) {
+        return BindingBuilder.bind(clientProfileEventsQueue)
+                .to(clientProfileEventsExchange)
+                .with(properties.getRoutingKey());
+    }
+    
+    @Bean
+    public ClientProfileInvalidationListener clientProfileInvalidationListener(ObjectProvider<ClientProfileCache<?>> caches) {
+        return new ClientProfileInvalidationListener(caches);
+    }
+}
@@ -0,0 +1,36 @@
+package com.willbank.clientcache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.client-cache")
+public class ClientProfileCacheProperties {
+    
+    private long maxSize = 10000;
+    
+    // Hard expiry: bounds staleness if an invalidation event is lost
+    private Duration ttl = Duration.ofMinutes(30);
+    
+    // Refresh-ahead: entries older than this are reloaded in the background on access
+    private Duration refreshAfter = Duration.ofMinutes(5);
+    
+    private Batch batch = new Batch();
+    
+    private String exchange = "willbank.events";
+    
+    private String routingKey = "willbank.events.client.updated";
+    
+    @Data
+    public static class Batch {
+        
+        // Concurrent single lookups arriving within this window share one batch call
+        private Duration window = Duration.ofMillis(5);
+        
+        private int maxSize = 100;
+        
+        private int threads = 4;
+    }
+}
@@ -0,0 +1,22 @@
+package com.willbank.clientcache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.ObjectProvider;
+
+@RequiredArgsConstructor
+@Slf4j
+public class ClientProfileInvalidationListener {
+    
+    private final ObjectProvider<ClientProfileCache<?>> caches;
+    
+    @RabbitListener(queues = "#{clientProfileEventsQueue.name}")
+    public void handleClientUpdatedEvent(ClientUpdatedEvent event) {
+        if (event.getClientId() == null) {
+            return;
+        }
+        log.debug("Received ClientUpdatedEvent for client {}", event.getClientId());
+        caches.forEach(cache -> cache.invalidate(event.getClientId()));
+    }
+}
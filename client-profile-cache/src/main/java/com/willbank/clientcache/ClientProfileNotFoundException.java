@@ -0,0 +1,7 @@
+package com.willbank.clientcache;
+
+public class ClientProfileNotFoundException extends RuntimeException {
+    public ClientProfileNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.willbank.clientcache;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Seul le clientId du ClientUpdatedEvent publié par client-service est utile ici.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClientUpdatedEvent {
+    private Long clientId;
+}
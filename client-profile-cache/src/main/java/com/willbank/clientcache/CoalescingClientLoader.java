@@ -0,0 +1,117 @@
+package com.willbank.clientcache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Regroupe les chargements unitaires concurrents en un seul appel batch :
+ * les ids demandés pendant la fenêtre (ou jusqu'à max-size) partent ensemble
+ * vers POST /internal/clients/batch, et chaque appelant reçoit son profil.
+ */
+@Slf4j
+public class CoalescingClientLoader<T> {
+    
+    private final Function<Collection<Long>, Map<Long, T>> batchLoader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService executor;
+    
+    private Batch<T> pending;
+    
+    public CoalescingClientLoader(Function<Collection<Long>, Map<Long, T>> batchLoader,
+                                  Duration window, int maxBatchSize, int threads) {
+        this.batchLoader = batchLoader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "client-batch-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.executor = scheduler;
+    }
+    
+    /**
+     * Blocks until the batch holding {@code clientId} completes. Failures of the batch
+     * call are rethrown as-is; an id absent from the response is not found.
+     */
+    public T load(Long clientId) {
+        try {
+            return enqueue(clientId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private CompletableFuture<T> enqueue(Long clientId) {
+        Batch<T> full = null;
+        CompletableFuture<T> future;
+        synchronized (this) {
+            if (pending == null) {
+                Batch<T> batch = new Batch<>();
+                pending = batch;
+                executor.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            future = pending.futures.computeIfAbsent(clientId, id -> new CompletableFuture<>());
+            if (pending.futures.size() >= maxBatchSize) {
+                full = pending;
+                pending = null;
+            }
+        }
+        if (full != null) {
+            Batch<T> batch = full;
+            executor.execute(() -> flush(batch));
+        }
+        return future;
+    }
+    
+    private void flush(Batch<T> batch) {
+        synchronized (this) {
+            if (pending == batch) {
+                pending = null;
+            }
+        }
+        // A full batch is flushed early; its timer then finds it already taken
+        if (!batch.flushed.compareAndSet(false, true)) {
+            return;
+        }
+        
+        Map<Long, CompletableFuture<T>> futures = batch.futures;
+        log.debug("Loading {} client profiles in one batch", futures.size());
+        try {
+            Map<Long, T> profiles = batchLoader.apply(futures.keySet());
+            futures.forEach((clientId, future) -> {
+                T profile = profiles.get(clientId);
+                if (profile != null) {
+                    future.complete(profile);
+                } else {
+                    future.completeExceptionally(
+                        new ClientProfileNotFoundException("Client not found with ID: " + clientId));
+                }
+            });
+        } catch (RuntimeException e) {
+            futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+    
+    private static final class Batch<T> {
+        // Only mutated under the loader's lock, before the batch is taken
+        private final Map<Long, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        private final AtomicBoolean flushed = new AtomicBoolean();
+    }
+}
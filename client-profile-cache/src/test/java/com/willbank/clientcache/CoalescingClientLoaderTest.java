@@ -0,0 +1,147 @@
+package com.willbank.clientcache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Regroupement des chargements concurrents : chaque appelant reçoit son propre profil,
+ * un id n'est chargé qu'une fois par lot, aucun lot ne dépasse max-size, et un échec
+ * du chargement batch est propagé à tous les appelants du lot.
+ */
+class CoalescingClientLoaderTest {
+    
+    private static final int THREADS = 64;
+    
+    @Test
+    void concurrentLoadsAreCoalescedAndEachCallerGetsItsProfile() throws Exception {
+        RecordingLoader recording = new RecordingLoader(ids -> profiles(ids));
+        CoalescingClientLoader<String> loader = new CoalescingClientLoader<>(recording, Duration.ofMillis(50), 16, 2);
+        
+        List<String> results = runConcurrently(THREADS, i -> loader.load((long) i));
+        
+        for (int i = 0; i < THREADS; i++) {
+            assertThat(results.get(i)).isEqualTo("client-" + i);
+        }
+        assertThat(recording.calls).hasSizeLessThan(THREADS);
+        assertThat(recording.calls).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(16));
+        assertThat(recording.calls.stream().mapToInt(List::size).sum()).isEqualTo(THREADS);
+        assertThat(recording.calls.stream().flatMap(List::stream).distinct().count()).isEqualTo(THREADS);
+    }
+    
+    @Test
+    void sameIdRequestedConcurrentlyIsLoadedOnce() throws Exception {
+        RecordingLoader recording = new RecordingLoader(ids -> profiles(ids));
+        CoalescingClientLoader<String> loader = new CoalescingClientLoader<>(recording, Duration.ofMillis(500), 100, 1);
+        
+        List<String> results = runConcurrently(THREADS, i -> loader.load(42L));
+        
+        assertThat(results).hasSize(THREADS).containsOnly("client-42");
+        assertThat(recording.calls.stream().flatMap(List::stream).filter(id -> id == 42L).count()).isEqualTo(1);
+    }
+    
+    @Test
+    void fullBatchIsFlushedWithoutWaitingForTheWindow() throws Exception {
+        RecordingLoader recording = new RecordingLoader(ids -> profiles(ids));
+        CoalescingClientLoader<String> loader = new CoalescingClientLoader<>(recording, Duration.ofMinutes(10), 4, 1);
+        
+        long start = System.nanoTime();
+        List<String> results = runConcurrently(4, i -> loader.load((long) i));
+        
+        assertThat(results).containsExactly("client-0", "client-1", "client-2", "client-3");
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(10);
+        assertThat(recording.calls).hasSize(1);
+    }
+    
+    @Test
+    void idMissingFromTheResponseIsNotFound() {
+        CoalescingClientLoader<String> loader = new CoalescingClientLoader<>(
+                ids -> Map.of(), Duration.ofMillis(1), 16, 1);
+        
+        assertThatThrownBy(() -> loader.load(7L))
+                .isInstanceOf(ClientProfileNotFoundException.class)
+                .hasMessageContaining("7");
+    }
+    
+    @Test
+    void batchFailureIsRethrownToEveryCaller() throws Exception {
+        IllegalStateException failure = new IllegalStateException("client-service unavailable");
+        CoalescingClientLoader<String> loader = new CoalescingClientLoader<>(ids -> {
+            throw failure;
+        }, Duration.ofMillis(50), 100, 1);
+        
+        List<String> results = runConcurrently(16, i -> {
+            try {
+                loader.load((long) i);
+                return "loaded";
+            } catch (IllegalStateException e) {
+                return e == failure ? "failed" : "other";
+            }
+        });
+        
+        assertThat(results).hasSize(16).containsOnly("failed");
+    }
+    
+    private static Map<Long, String> profiles(Collection<Long> ids) {
+        Map<Long, String> profiles = new HashMap<>();
+        ids.forEach(id -> profiles.put(id, "client-" + id));
+        return profiles;
+    }
+    
+    private static List<String> runConcurrently(int threads, Function<Integer, String> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.apply(index);
+                }));
+            }
+            start.countDown();
+            List<String> results = new ArrayList<>(threads);
+            for (Future<String> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Batch loader that records the ids of every call it receives.
+     */
+    private static final class RecordingLoader implements Function<Collection<Long>, Map<Long, String>> {
+        
+        private final Function<Collection<Long>, Map<Long, String>> delegate;
+        private final List<List<Long>> calls = new CopyOnWriteArrayList<>();
+        
+        RecordingLoader(Function<Collection<Long>, Map<Long, String>> delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public Map<Long, String> apply(Collection<Long> ids) {
+            calls.add(List.copyOf(ids));
+            return delegate.apply(ids);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.willbank.client.config;
+
+import com.willbank.client.entity.Client;
+import com.willbank.client.repository.ClientRepository;
+import com.willbank.clientcache.ClientProfileCache;
+import com.willbank.clientcache.ClientProfileCacheProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.stream.Collectors;
+
+@Configuration
+public class ClientCacheConfig {
+    
+    /**
+     * Statut des clients pour l'authentification JWT : expire vite (app.client-cache.ttl)
+     * et est invalidé sur toutes les instances par ClientUpdatedEvent, un client bloqué
+     * perd donc l'accès sans attendre l'expiration de son token.
+     */
+    @Bean
+    public ClientProfileCache<Client.ClientStatus> clientStatusCache(ClientRepository clientRepository,
+                                                                     ClientProfileCacheProperties properties) {
+        return new ClientProfileCache<>(
+                ids -> clientRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Client::getId, Client::getStatus)),
+                properties);
+    }
+}
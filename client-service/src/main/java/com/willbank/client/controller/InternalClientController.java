@@ -7,6 +7,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Internal controller for service-to-service communication
  * These endpoints don't require authentication and should only be used by other microservices
@@ -24,4 +27,13 @@ public class InternalClientController {
         ClientDTO client = clientService.getClientById(id);
         return ResponseEntity.ok(client);
     }
+    
+    /**
+     * Profiles of several clients in one query. Unknown ids are absent from the map.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, ClientDTO>> getClientsByIds(@RequestBody List<Long> ids) {
+        Map<Long, ClientDTO> clients = clientService.getClientsByIds(ids);
+        return ResponseEntity.ok(clients);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.willbank.client.push;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.messaging.*;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "app.push.transport", havingValue = "firebase", matchIfMissing = true)
+public class FirebasePushTransport implements PushTransport {
+    
+    // Codes that only ever mean the token is dead (unregistered or issued to another project).
+    // INVALID_ARGUMENT is left out: FCM also returns it for a malformed payload
+    private static final Set<MessagingErrorCode> INVALID_TOKEN_CODES = EnumSet.of(
+            MessagingErrorCode.UNREGISTERED,
+            MessagingErrorCode.SENDER_ID_MISMATCH
+    );
+    
+    @Override
+    public boolean isAvailable() {
+        return !FirebaseApp.getApps().isEmpty();
+    }
+    
+    @Override
+    public List<PushResult> sendEach(List<PushMessage> messages) throws FirebaseMessagingException {
+        List<Message> firebaseMessages = messages.stream().map(this::toMessage).toList();
+        BatchResponse response = FirebaseMessaging.getInstance().sendEach(firebaseMessages);
+        
+        List<PushResult> results = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            SendResponse sendResponse = response.getResponses().get(i);
+            String token = messages.get(i).token();
+            if (sendResponse.isSuccessful()) {
+                results.add(PushResult.sent(token));
+            } else {
+                FirebaseMessagingException exception = sendResponse.getException();
+                results.add(PushResult.failed(token, isInvalidToken(exception.getMessagingErrorCode()),
+                        exception.getMessage()));
+            }
+        }
+        return results;
+    }
+    
+    static boolean isInvalidToken(MessagingErrorCode errorCode) {
+        return errorCode != null && INVALID_TOKEN_CODES.contains(errorCode);
+    }
+    
+    private Message toMessage(PushMessage message) {
+        AndroidNotification.Builder androidNotification = AndroidNotification.builder()
+                .setIcon("ic_notification");
+        if (message.color() != null) {
+            androidNotification.setColor(message.color());
+        }
+        
+        Message.Builder builder = Message.builder()
+                .setToken(message.token())
+                .setNotification(Notification.builder()
+                        .setTitle(message.title())
+                        .setBody(message.body())
+                        .build())
+                .setAndroidConfig(AndroidConfig.builder()
+                        .setPriority(AndroidConfig.Priority.HIGH)
+                        .setNotification(androidNotification.build())
+                        .build())
+                .setApnsConfig(ApnsConfig.builder()
+                        .setAps(Aps.builder()
+                                .setSound("default")
+                                .build())
+                        .build());
+        if (message.data() != null && !message.data().isEmpty()) {
+            builder.putAllData(message.data());
+        }
+        return builder.build();
+    }
+}
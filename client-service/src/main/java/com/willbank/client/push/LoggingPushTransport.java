@@ -0,0 +1,33 @@
+package com.willbank.client.push;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Transport local (app.push.transport=log) : rien ne part vers FCM, chaque lot est
+ * journalisé et accepté. Les tokens préfixés par "invalid-" sont rejetés comme le ferait
+ * FCM pour un token désinscrit, pour exercer le nettoyage sans appareil réel.
+ */
+@Component
+@ConditionalOnProperty(name = "app.push.transport", havingValue = "log")
+@Slf4j
+public class LoggingPushTransport implements PushTransport {
+    
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+    
+    @Override
+    public List<PushResult> sendEach(List<PushMessage> messages) {
+        log.info("Simulated push batch of {} messages", messages.size());
+        return messages.stream()
+                .map(message -> message.token().startsWith("invalid-")
+                        ? PushResult.failed(message.token(), true, "Requested entity was not found.")
+                        : PushResult.sent(message.token()))
+                .toList();
+    }
+}
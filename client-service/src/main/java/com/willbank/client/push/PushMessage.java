@@ -0,0 +1,9 @@
+package com.willbank.client.push;
+
+import java.util.Map;
+
+/**
+ * Une notification push vers un appareil, indépendante du transport utilisé.
+ */
+public record PushMessage(String token, String title, String body, Map<String, String> data, String color) {
+}
@@ -0,0 +1,16 @@
+package com.willbank.client.push;
+
+/**
+ * Résultat de l'envoi d'un {@link PushMessage}. invalidToken signale un token que le
+ * fournisseur ne reconnaît plus : il ne faut plus l'utiliser.
+ */
+public record PushResult(String token, boolean success, boolean invalidToken, String error) {
+    
+    public static PushResult sent(String token) {
+        return new PushResult(token, true, false, null);
+    }
+    
+    public static PushResult failed(String token, boolean invalidToken, String error) {
+        return new PushResult(token, false, invalidToken, error);
+    }
+}
@@ -0,0 +1,19 @@
+package com.willbank.client.push;
+
+import java.util.List;
+
+/**
+ * Envoie un lot de notifications push en un seul appel au fournisseur.
+ */
+public interface PushTransport {
+    
+    // Largest batch the provider accepts in one call
+    int MAX_BATCH_SIZE = 500;
+    
+    boolean isAvailable();
+    
+    /**
+     * @return one result per message, in the same order
+     */
+    List<PushResult> sendEach(List<PushMessage> messages) throws Exception;
+}
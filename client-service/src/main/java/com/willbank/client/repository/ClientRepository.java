@@ -2,8 +2,13 @@ package com.willbank.client.repository;
 
 import com.willbank.client.entity.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,9 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByCin(String cin);
     boolean existsByEmail(String email);
     boolean existsByCin(String cin);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Client c SET c.fcmToken = NULL WHERE c.fcmToken IN :tokens")
+    int clearFcmTokens(@Param("tokens") Collection<String> tokens);
 }
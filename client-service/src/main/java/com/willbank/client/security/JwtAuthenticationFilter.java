@@ -1,5 +1,8 @@
 package com.willbank.client.security;
 
+import com.willbank.client.entity.Client;
+import com.willbank.clientcache.ClientProfileCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,7 +11,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,7 +22,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
+/**
+ * Authentifie la requête à partir du token seul : signature et expiration vérifiées en
+ * un parsing, rôles lus dans les claims signés. Seul le statut du client (bloqué,
+ * désactivé) est vérifié, via un cache court ; pas de requête SQL par requête HTTP.
+ * Les tokens émis avant l'ajout des claims uid/roles passent encore par la base.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -24,6 +37,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final ClientProfileCache<Client.ClientStatus> clientStatusCache;
     
     @Override
     protected void doFilterInternal(
@@ -33,8 +47,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -42,13 +54,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         try {
-            jwt = authHeader.substring(7);
-            userEmail = jwtUtil.extractUsername(jwt);
+            String jwt = authHeader.substring(7);
+            Claims claims = jwtUtil.parseToken(jwt);
+            String userEmail = claims.getSubject();
             
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            if (!jwtUtil.isAccessToken(claims)) {
+                log.debug("Rejecting non-access token of {}", userEmail);
+            } else if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = toUserDetails(claims);
                 
-                if (jwtUtil.isTokenValid(jwt, userDetails)) {
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -65,4 +80,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * @return the principal, or null if the client may not authenticate anymore
+     */
+    private UserDetails toUserDetails(Claims claims) {
+        Long clientId = claims.get(JwtUtil.CLIENT_ID_CLAIM, Long.class);
+        List<?> roles = claims.get(JwtUtil.ROLES_CLAIM, List.class);
+        
+        if (clientId == null || roles == null) {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            return userDetails.isEnabled() && userDetails.isAccountNonLocked() ? userDetails : null;
+        }
+        
+        Client.ClientStatus status = clientStatusCache.get(clientId);
+        if (status != Client.ClientStatus.ACTIVE) {
+            log.debug("Rejecting token of client {} with status {}", clientId, status);
+            return null;
+        }
+        
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new User(claims.getSubject(), "", authorities);
+    }
 }
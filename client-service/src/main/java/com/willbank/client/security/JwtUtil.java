@@ -2,9 +2,10 @@ package com.willbank.client.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -12,12 +13,19 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
 @Slf4j
 public class JwtUtil {
     
+    public static final String CLIENT_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String TOKEN_USE_CLAIM = "token_use";
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+    
     @Value("${jwt.secret}")
     private String secret;
     
@@ -27,9 +35,14 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
     
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Built once: both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
     
     public String generateToken(UserDetails userDetails) {
@@ -37,30 +50,62 @@ public class JwtUtil {
     }
     
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        claims.put(ROLES_CLAIM, roles);
+        return buildToken(claims, userDetails, ACCESS_TOKEN, jwtExpiration);
     }
     
+    // No roles: a refresh token only proves who the client is, never what it may do
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return buildToken(new HashMap<>(), userDetails, REFRESH_TOKEN, refreshExpiration);
     }
     
     private String buildToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails,
+            String tokenUse,
             long expiration
     ) {
         return Jwts.builder()
                 .claims(extraClaims)
+                .claim(TOKEN_USE_CLAIM, tokenUse)
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final Claims claims = parseToken(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && claims.getExpiration().after(new Date());
+    }
+    
+    public boolean isAccessToken(Claims claims) {
+        return ACCESS_TOKEN.equals(tokenUse(claims));
+    }
+    
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN.equals(tokenUse(claims));
+    }
+    
+    /**
+     * Tokens issued before the token_use claim are told apart by their lifetime:
+     * only refresh tokens live longer than an access token.
+     */
+    private String tokenUse(Claims claims) {
+        String tokenUse = claims.get(TOKEN_USE_CLAIM, String.class);
+        if (tokenUse != null) {
+            return tokenUse;
+        }
+        if (claims.getIssuedAt() == null || claims.getExpiration() == null) {
+            return null;
+        }
+        long lifetime = claims.getExpiration().getTime() - claims.getIssuedAt().getTime();
+        return lifetime > jwtExpiration ? REFRESH_TOKEN : ACCESS_TOKEN;
     }
     
     public String extractUsername(String token) {
@@ -72,17 +117,16 @@ public class JwtUtil {
     }
     
     public <T> T extractClaim(String token, java.util.function.Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseToken(token);
         return claimsResolver.apply(claims);
     }
     
-    private Claims extractAllClaims(String token) {
+    /**
+     * Verifies the signature and expiry and returns the claims, in a single parse.
+     */
+    public Claims parseToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             log.error("JWT token is expired: {}", e.getMessage());
             throw e;
@@ -98,10 +142,6 @@ public class JwtUtil {
         }
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
     public Long getJwtExpiration() {
         return jwtExpiration;
     }
@@ -7,6 +7,7 @@ import com.willbank.client.exception.InvalidCredentialsException;
 import com.willbank.client.exception.InvalidTokenException;
 import com.willbank.client.repository.ClientRepository;
 import com.willbank.client.security.JwtUtil;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -78,7 +80,7 @@ public class AuthService {
                 }
             }
             
-            String accessToken = jwtUtil.generateToken(userDetails);
+            String accessToken = jwtUtil.generateToken(Map.of(JwtUtil.CLIENT_ID_CLAIM, client.getId()), userDetails);
             String refreshToken = jwtUtil.generateRefreshToken(userDetails);
             
             log.info("Login successful for email: {}", request.getEmail());
@@ -143,7 +145,7 @@ public class AuthService {
         }
         
         UserDetails userDetails = userDetailsService.loadUserByUsername(savedClient.getEmail());
-        String accessToken = jwtUtil.generateToken(userDetails);
+        String accessToken = jwtUtil.generateToken(Map.of(JwtUtil.CLIENT_ID_CLAIM, savedClient.getId()), userDetails);
         String refreshToken = jwtUtil.generateRefreshToken(userDetails);
         
         return LoginResponse.builder()
@@ -159,7 +161,11 @@ public class AuthService {
         log.info("Refresh token request");
         
         try {
-            String email = jwtUtil.extractUsername(request.getRefreshToken());
+            Claims refreshClaims = jwtUtil.parseToken(request.getRefreshToken());
+            if (!jwtUtil.isRefreshToken(refreshClaims)) {
+                throw new InvalidTokenException("Invalid refresh token");
+            }
+            String email = refreshClaims.getSubject();
             UserDetails userDetails = userDetailsService.loadUserByUsername(email);
             
             if (!jwtUtil.isTokenValid(request.getRefreshToken(), userDetails)) {
@@ -169,7 +175,7 @@ public class AuthService {
             Client client = clientRepository.findByEmail(email)
                     .orElseThrow(() -> new InvalidTokenException("Client not found"));
             
-            String accessToken = jwtUtil.generateToken(userDetails);
+            String accessToken = jwtUtil.generateToken(Map.of(JwtUtil.CLIENT_ID_CLAIM, client.getId()), userDetails);
             String newRefreshToken = jwtUtil.generateRefreshToken(userDetails);
             
             log.info("Token refreshed successfully for email: {}", email);
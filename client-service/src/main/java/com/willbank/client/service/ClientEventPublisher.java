@@ -0,0 +1,39 @@
+package com.willbank.client.service;
+
+import com.willbank.client.event.ClientUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Publie les ClientUpdatedEvent sur willbank.events une fois la transaction commitée :
+ * un service qui recharge le profil après invalidation lit la nouvelle version.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientEventPublisher {
+    
+    private final RabbitTemplate rabbitTemplate;
+    
+    @Value("${rabbitmq.exchange.name}")
+    private String exchangeName;
+    
+    @Value("${rabbitmq.routing.client-updated}")
+    private String clientUpdatedRoutingKey;
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void publishClientUpdated(ClientUpdatedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(exchangeName, clientUpdatedRoutingKey, event);
+            log.info("Published ClientUpdatedEvent for client {}", event.getClientId());
+        } catch (Exception e) {
+            // Caches elsewhere fall back on their TTL
+            log.warn("Failed to publish ClientUpdatedEvent for client {}: {}", event.getClientId(), e.getMessage());
+        }
+    }
+}
@@ -3,15 +3,21 @@ package com.willbank.client.service;
 import com.willbank.client.dto.ClientDTO;
 import com.willbank.client.entity.Client;
 import com.willbank.client.exception.ClientAlreadyExistsException;
+import com.willbank.client.event.ClientUpdatedEvent;
 import com.willbank.client.exception.ClientNotFoundException;
 import com.willbank.client.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +27,7 @@ public class ClientService {
     
     private final ClientRepository clientRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher applicationEventPublisher;
     
     @Transactional
     public ClientDTO createClient(ClientDTO clientDTO) {
@@ -48,6 +55,12 @@ public class ClientService {
         return toDTO(client);
     }
     
+    public Map<Long, ClientDTO> getClientsByIds(Collection<Long> ids) {
+        log.info("Fetching {} clients by ID", ids.size());
+        return clientRepository.findAllById(new LinkedHashSet<>(ids)).stream()
+                .collect(Collectors.toMap(Client::getId, this::toDTO));
+    }
+    
     public ClientDTO getClientByEmail(String email) {
         log.info("Fetching client with email: {}", email);
         Client client = clientRepository.findByEmail(email)
@@ -91,6 +104,8 @@ public class ClientService {
         
         Client updatedClient = clientRepository.save(client);
         log.info("Client updated successfully with ID: {}", updatedClient.getId());
+        applicationEventPublisher.publishEvent(new ClientUpdatedEvent(
+            updatedClient.getId(), updatedClient.getEmail(), "UPDATED", LocalDateTime.now()));
         
         return toDTO(updatedClient);
     }
@@ -105,6 +120,7 @@ public class ClientService {
         
         clientRepository.deleteById(id);
         log.info("Client deleted successfully with ID: {}", id);
+        applicationEventPublisher.publishEvent(new ClientUpdatedEvent(id, null, "DELETED", LocalDateTime.now()));
     }
     
     private ClientDTO toDTO(Client client) {
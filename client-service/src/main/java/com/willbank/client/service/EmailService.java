@@ -1,24 +1,18 @@
 package com.willbank.client.service;
 
+import com.willbank.emailtemplates.EmailTemplateRenderer;
+import com.willbank.maildispatch.MailDispatcher;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
-
-import java.time.LocalDateTime;
-import java.util.Map;
-import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -26,8 +20,8 @@ import java.util.Map;
 @Slf4j
 public class EmailService {
     
-    private final JavaMailSender mailSender;
-    private final SpringTemplateEngine templateEngine;
+    private final MailDispatcher mailDispatcher;
+    private final EmailTemplateRenderer templateRenderer;
     
     @Value("${app.email.from}")
     private String fromEmail;
@@ -121,24 +115,21 @@ public class EmailService {
     private void sendTemplateEmail(String to, String subject, String templateName, Map<String, Object> variables) 
             throws MessagingException {
         
-        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessage message = mailDispatcher.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(
                 message,
                 MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
                 StandardCharsets.UTF_8.name()
         );
         
-        Context context = new Context();
-        context.setVariables(variables);
-        
-        String html = templateEngine.process(templateName, context);
+        String html = templateRenderer.render(templateName, variables);
         
         helper.setFrom(fromEmail);
         helper.setTo(to);
         helper.setSubject(subject);
         helper.setText(html, true);
         
-        mailSender.send(message);
+        mailDispatcher.send(message);
     }
     
     @Async
@@ -0,0 +1,199 @@
+package com.willbank.client.service;
+
+import com.willbank.client.push.PushMessage;
+import com.willbank.client.push.PushResult;
+import com.willbank.client.push.PushTransport;
+import com.willbank.client.repository.ClientRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File d'envoi des notifications push : les messages sont regroupés en lots d'au plus
+ * 500 (un seul appel sendEach à FCM par lot). Les tokens rejetés comme invalides sont
+ * effacés de Client.fcmToken. La file est bornée : quand elle est pleine, l'appelant
+ * attend submit-timeout-ms puis le push est abandonné.
+ */
+@Service
+@Slf4j
+public class PushDispatcher {
+    
+    private final PushTransport transport;
+    private final ClientRepository clientRepository;
+    
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+    private final Counter prunedCounter;
+    private final Timer batchTimer;
+    
+    @Value("${app.push.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.push.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${app.push.submit-timeout-ms:100}")
+    private long submitTimeoutMs;
+    
+    // Time a worker waits for more messages before sending a partial batch
+    @Value("${app.push.linger-ms:20}")
+    private long lingerMs;
+    
+    @Value("${app.push.workers:2}")
+    private int workerCount;
+    
+    private BlockingQueue<PushMessage> queue;
+    private ExecutorService workers;
+    private volatile boolean running = true;
+    
+    public PushDispatcher(PushTransport transport, ClientRepository clientRepository, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.clientRepository = clientRepository;
+        
+        this.sentCounter = Counter.builder("push.dispatch.sent")
+                .description("Push notifications accepted by the provider")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("push.dispatch.failed")
+                .description("Push notifications rejected by the provider")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("push.dispatch.dropped")
+                .description("Push notifications dropped because the queue was full")
+                .register(meterRegistry);
+        this.prunedCounter = Counter.builder("push.dispatch.pruned.tokens")
+                .description("Invalid FCM tokens removed from clients")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("push.dispatch.batch")
+                .description("Time to send one push batch")
+                .register(meterRegistry);
+        Gauge.builder("push.dispatch.queued", this, dispatcher -> dispatcher.queue != null ? dispatcher.queue.size() : 0)
+                .description("Push notifications waiting to be sent")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        batchSize = Math.min(batchSize, PushTransport.MAX_BATCH_SIZE);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount,
+                runnable -> new Thread(runnable, "push-dispatch-" + threadCount.incrementAndGet()));
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drain);
+        }
+    }
+    
+    /**
+     * @return false if the push was dropped (provider unavailable or queue full)
+     */
+    public boolean submit(PushMessage message) {
+        if (!transport.isAvailable()) {
+            log.debug("Push transport not available, skipping push notification");
+            return false;
+        }
+        try {
+            if (running && queue.offer(message, submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCounter.increment();
+        log.warn("Push queue full, dropping push notification \"{}\"", message.title());
+        return false;
+    }
+    
+    private void drain() {
+        List<PushMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PushMessage first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (batch.size() < batchSize && lingerMs > 0) {
+                    // Give a burst a moment to fill the batch
+                    TimeUnit.MILLISECONDS.sleep(lingerMs);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                batchTimer.record(() -> sendBatch(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Push dispatch worker error: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void sendBatch(List<PushMessage> batch) {
+        List<PushResult> results;
+        try {
+            results = transport.sendEach(batch);
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("Push batch of {} failed: {}", batch.size(), e.getMessage());
+            return;
+        }
+        
+        int sent = 0;
+        List<String> invalidTokens = new ArrayList<>();
+        for (PushResult result : results) {
+            if (result.success()) {
+                sent++;
+            } else {
+                failedCounter.increment();
+                if (result.invalidToken()) {
+                    invalidTokens.add(result.token());
+                } else {
+                    log.warn("Push to {} failed: {}", maskToken(result.token()), result.error());
+                }
+            }
+        }
+        
+        sentCounter.increment(sent);
+        
+        if (!invalidTokens.isEmpty()) {
+            int pruned = clientRepository.clearFcmTokens(invalidTokens);
+            prunedCounter.increment(pruned);
+            log.info("Removed {} invalid FCM tokens", pruned);
+        }
+        log.debug("Push batch sent: {}/{} delivered", sent, batch.size());
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Queued pushes are still sent before the workers stop
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+    
+    private static String maskToken(String token) {
+        if (token == null || token.length() < 10) {
+            return "***";
+        }
+        return token.substring(0, 5) + "..." + token.substring(token.length() - 5);
+    }
+}
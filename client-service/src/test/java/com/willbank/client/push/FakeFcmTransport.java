@@ -0,0 +1,36 @@
+package com.willbank.client.push;
+
+import com.google.firebase.messaging.MessagingErrorCode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FCM stand-in: answers each token with the error code configured for it (success
+ * otherwise), classified exactly as {@link FirebasePushTransport} does.
+ */
+public class FakeFcmTransport implements PushTransport {
+    
+    private final Map<String, MessagingErrorCode> errors;
+    
+    public FakeFcmTransport(Map<String, MessagingErrorCode> errors) {
+        this.errors = errors;
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+    
+    @Override
+    public List<PushResult> sendEach(List<PushMessage> messages) {
+        return messages.stream()
+                .map(message -> {
+                    MessagingErrorCode error = errors.get(message.token());
+                    return error == null
+                            ? PushResult.sent(message.token())
+                            : PushResult.failed(message.token(), FirebasePushTransport.isInvalidToken(error), error.name());
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,30 @@
+package com.willbank.client.push;
+
+import com.google.firebase.messaging.MessagingErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FirebasePushTransportTest {
+    
+    @ParameterizedTest
+    @EnumSource(value = MessagingErrorCode.class, names = {"UNREGISTERED", "SENDER_ID_MISMATCH"})
+    void deadTokenCodesMarkTheTokenInvalid(MessagingErrorCode code) {
+        assertThat(FirebasePushTransport.isInvalidToken(code)).isTrue();
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MessagingErrorCode.class, mode = EnumSource.Mode.EXCLUDE,
+                names = {"UNREGISTERED", "SENDER_ID_MISMATCH"})
+    void otherCodesKeepTheToken(MessagingErrorCode code) {
+        // INVALID_ARGUMENT included: FCM also returns it for a malformed payload
+        assertThat(FirebasePushTransport.isInvalidToken(code)).isFalse();
+    }
+    
+    @Test
+    void missingCodeKeepsTheToken() {
+        assertThat(FirebasePushTransport.isInvalidToken(null)).isFalse();
+    }
+}
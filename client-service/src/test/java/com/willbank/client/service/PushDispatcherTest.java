@@ -0,0 +1,207 @@
+package com.willbank.client.service;
+
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.willbank.client.push.FakeFcmTransport;
+import com.willbank.client.push.LoggingPushTransport;
+import com.willbank.client.push.PushMessage;
+import com.willbank.client.push.PushResult;
+import com.willbank.client.push.PushTransport;
+import com.willbank.client.repository.ClientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PushDispatcherTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+    private PushDispatcher dispatcher;
+    
+    @BeforeEach
+    void setUp() {
+        when(clientRepository.clearFcmTokens(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).size());
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+    
+    @Test
+    void burstIsSentInBatchesOfAtMostFiveHundred() throws Exception {
+        RecordingTransport transport = new RecordingTransport();
+        dispatcher = newDispatcher(transport, 10_000, 1, 20);
+        
+        for (int i = 0; i < 1200; i++) {
+            assertThat(dispatcher.submit(message("token-" + i))).isTrue();
+        }
+        dispatcher.stop();
+        
+        assertThat(transport.batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(1200);
+        assertThat(transport.batchSizes).allMatch(size -> size <= PushTransport.MAX_BATCH_SIZE);
+        assertThat(transport.batchSizes.size()).isLessThan(1200);
+        assertThat(meterRegistry.counter("push.dispatch.sent").count()).isEqualTo(1200);
+    }
+    
+    @Test
+    void tokensRejectedByTheLoggingTransportArePruned() throws Exception {
+        dispatcher = newDispatcher(new LoggingPushTransport(), 100, 1, 20);
+        
+        dispatcher.submit(message("device-ok-1"));
+        dispatcher.submit(message("invalid-1"));
+        dispatcher.submit(message("device-ok-2"));
+        dispatcher.submit(message("invalid-2"));
+        dispatcher.stop();
+        
+        assertThat(prunedTokens()).containsExactlyInAnyOrder("invalid-1", "invalid-2");
+        assertThat(meterRegistry.counter("push.dispatch.sent").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("push.dispatch.failed").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("push.dispatch.pruned.tokens").count()).isEqualTo(2);
+    }
+    
+    @Test
+    void onlyDeadTokenErrorsFromFcmPruneTheToken() throws Exception {
+        FakeFcmTransport transport = new FakeFcmTransport(Map.of(
+                "unregistered", MessagingErrorCode.UNREGISTERED,
+                "other-project", MessagingErrorCode.SENDER_ID_MISMATCH,
+                "bad-payload", MessagingErrorCode.INVALID_ARGUMENT,
+                "fcm-down", MessagingErrorCode.UNAVAILABLE));
+        dispatcher = newDispatcher(transport, 100, 1, 20);
+        
+        for (String token : List.of("unregistered", "other-project", "bad-payload", "fcm-down", "healthy")) {
+            dispatcher.submit(message(token));
+        }
+        dispatcher.stop();
+        
+        assertThat(prunedTokens()).containsExactlyInAnyOrder("unregistered", "other-project");
+        assertThat(meterRegistry.counter("push.dispatch.sent").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("push.dispatch.failed").count()).isEqualTo(4);
+    }
+    
+    @Test
+    void fullQueueDropsThePush() throws Exception {
+        BlockingTransport transport = new BlockingTransport();
+        dispatcher = newDispatcher(transport, 1, 1, 0);
+        
+        assertThat(dispatcher.submit(message("first"))).isTrue();
+        assertThat(transport.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(dispatcher.submit(message("queued"))).isTrue();
+        assertThat(dispatcher.submit(message("dropped"))).isFalse();
+        
+        assertThat(meterRegistry.counter("push.dispatch.dropped").count()).isEqualTo(1);
+        transport.release.countDown();
+        dispatcher.stop();
+        assertThat(meterRegistry.counter("push.dispatch.sent").count()).isEqualTo(2);
+    }
+    
+    @Test
+    void unavailableTransportSkipsThePush() {
+        RecordingTransport transport = new RecordingTransport();
+        transport.available = false;
+        dispatcher = newDispatcher(transport, 100, 1, 0);
+        
+        assertThat(dispatcher.submit(message("token"))).isFalse();
+        assertThat(meterRegistry.counter("push.dispatch.dropped").count()).isZero();
+    }
+    
+    @Test
+    void failedBatchCountsEveryMessageAndPrunesNothing() throws Exception {
+        RecordingTransport transport = new RecordingTransport();
+        transport.failure = new IllegalStateException("FCM unreachable");
+        dispatcher = newDispatcher(transport, 100, 1, 20);
+        
+        dispatcher.submit(message("a"));
+        dispatcher.submit(message("b"));
+        dispatcher.stop();
+        
+        assertThat(meterRegistry.counter("push.dispatch.failed").count()).isEqualTo(2);
+        verify(clientRepository, never()).clearFcmTokens(anyCollection());
+    }
+    
+    private PushDispatcher newDispatcher(PushTransport transport, int queueCapacity, int workers, long lingerMs) {
+        PushDispatcher pushDispatcher = new PushDispatcher(transport, clientRepository, meterRegistry);
+        ReflectionTestUtils.setField(pushDispatcher, "batchSize", 500);
+        ReflectionTestUtils.setField(pushDispatcher, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(pushDispatcher, "submitTimeoutMs", 10L);
+        ReflectionTestUtils.setField(pushDispatcher, "lingerMs", lingerMs);
+        ReflectionTestUtils.setField(pushDispatcher, "workerCount", workers);
+        pushDispatcher.start();
+        return pushDispatcher;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<String> prunedTokens() {
+        ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(clientRepository, atLeastOnce()).clearFcmTokens(captor.capture());
+        List<String> tokens = new ArrayList<>();
+        captor.getAllValues().forEach(tokens::addAll);
+        return tokens;
+    }
+    
+    private static PushMessage message(String token) {
+        return new PushMessage(token, "Virement reçu", "Vous avez reçu 100 MAD", Map.of("type", "TRANSFER"), null);
+    }
+    
+    private static class RecordingTransport implements PushTransport {
+        
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        volatile boolean available = true;
+        volatile RuntimeException failure;
+        
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+        
+        @Override
+        public List<PushResult> sendEach(List<PushMessage> messages) {
+            if (failure != null) {
+                throw failure;
+            }
+            batchSizes.add(messages.size());
+            return messages.stream().map(message -> PushResult.sent(message.token())).toList();
+        }
+    }
+    
+    /**
+     * Holds the first batch at the provider until released.
+     */
+    private static final class BlockingTransport extends RecordingTransport {
+        
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        
+        @Override
+        public List<PushResult> sendEach(List<PushMessage> messages) {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.sendEach(messages);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.willbank.dashboard.client;
 
 import com.willbank.dashboard.dto.AccountDTO;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,7 +12,7 @@ import java.util.List;
 public interface AccountServiceClient {
     
     @GetMapping("/api/accounts/client/{clientId}")
-    List<AccountDTO> getAccountsByClientId(@PathVariable("clientId") Long clientId);
+    List<AccountDTO> getAccountsByClientId(@PathVariable("clientId") Long clientId, Request.Options options);
     
     @GetMapping("/api/accounts/{id}")
     AccountDTO getAccountById(@PathVariable("id") Long id);
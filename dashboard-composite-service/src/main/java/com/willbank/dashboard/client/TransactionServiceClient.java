@@ -1,21 +1,51 @@
 package com.willbank.dashboard.client;
 
+import com.willbank.dashboard.dto.AccountTransactionsQuery;
+import com.willbank.dashboard.dto.DailyAggregateDTO;
+import com.willbank.dashboard.dto.DailyNetFlowsDTO;
 import com.willbank.dashboard.dto.TransactionDTO;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Les appels du dashboard prennent un {@link Request.Options} : leur timeout de lecture
+ * est le temps restant avant la deadline du dashboard.
+ */
 @FeignClient(name = "transaction-service")
 public interface TransactionServiceClient {
     
     @GetMapping("/api/transactions/account/{accountId}")
     List<TransactionDTO> getTransactionsByAccountId(@PathVariable("accountId") Long accountId);
     
+    @PostMapping("/api/transactions/accounts/batch")
+    Map<Long, List<TransactionDTO>> getTransactionsByAccountIds(@RequestBody AccountTransactionsQuery query, Request.Options options);
+    
+    @GetMapping("/api/transactions/aggregates")
+    List<DailyAggregateDTO> getDailyAggregates(
+        @RequestParam("accountIds") List<Long> accountIds,
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        Request.Options options
+    );
+    
+    @GetMapping("/api/transactions/net-flows")
+    List<DailyNetFlowsDTO> getDailyNetFlows(
+        @RequestParam("accountIds") List<Long> accountIds,
+        @RequestParam("days") int days,
+        Request.Options options
+    );
+    
     @GetMapping("/api/transactions/account/{accountId}/range")
     List<TransactionDTO> getTransactionsByDateRange(
         @PathVariable("accountId") Long accountId,
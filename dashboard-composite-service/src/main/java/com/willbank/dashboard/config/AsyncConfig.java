@@ -0,0 +1,34 @@
+package com.willbank.dashboard.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool dédié aux appels parallèles vers les services (fan-out du dashboard).
+ * Pool saturé : la tâche est refusée et le dashboard la traite comme une branche
+ * dégradée, plutôt que de l'exécuter sans deadline sur le thread de la requête.
+ */
+@Configuration
+public class AsyncConfig {
+    
+    @Value("${app.dashboard.fan-out.pool-size:32}")
+    private int poolSize;
+    
+    @Value("${app.dashboard.fan-out.queue-capacity:500}")
+    private int queueCapacity;
+    
+    @Bean(name = "dashboardExecutor")
+    public ThreadPoolTaskExecutor dashboardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("dashboard-fan-out-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
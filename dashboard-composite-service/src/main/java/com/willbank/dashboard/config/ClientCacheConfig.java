@@ -0,0 +1,20 @@
+package com.willbank.dashboard.config;
+
+import com.willbank.clientcache.ClientProfileCache;
+import com.willbank.clientcache.ClientProfileCacheProperties;
+import com.willbank.dashboard.client.ClientServiceClient;
+import com.willbank.dashboard.dto.ClientDTO;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+
+@Configuration
+public class ClientCacheConfig {
+    
+    @Bean
+    public ClientProfileCache<ClientDTO> clientProfileCache(ClientServiceClient clientServiceClient, ClientProfileCacheProperties properties) {
+        return new ClientProfileCache<>(
+                ids -> clientServiceClient.getClientsByIds(new ArrayList<>(ids)), properties);
+    }
+}
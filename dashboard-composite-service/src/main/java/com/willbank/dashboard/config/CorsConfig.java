@@ -39,13 +39,15 @@ public class CorsConfig {
             "Accept",
             "Origin",
             "Access-Control-Request-Method",
-            "Access-Control-Request-Headers"
+            "Access-Control-Request-Headers",
+            "If-None-Match"
         ));
         
         // Headers exposés au client
         configuration.setExposedHeaders(Arrays.asList(
             "Access-Control-Allow-Origin",
-            "Access-Control-Allow-Credentials"
+            "Access-Control-Allow-Credentials",
+            "ETag"
         ));
         
         // Autoriser les credentials (cookies, authorization headers)
@@ -0,0 +1,93 @@
+package com.willbank.dashboard.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chaque instance du dashboard a ses propres files exclusives : tous les événements de
+ * compte et de client arrivent à toutes les instances, qui évincent leur cache local.
+ * TransactionAggregatedEvent évince une seconde fois, une fois les agrégats de
+ * transaction-service à jour (un dashboard recalculé entre-temps les aurait lus périmés).
+ */
+@Configuration
+public class RabbitMQConfig {
+    
+    @Value("${rabbitmq.exchange.name}")
+    private String exchangeName;
+    
+    @Value("${rabbitmq.routing.transaction-created}")
+    private String transactionCreatedRoutingKey;
+    
+    @Value("${rabbitmq.routing.transaction-aggregated}")
+    private String transactionAggregatedRoutingKey;
+    
+    @Value("${rabbitmq.routing.account-credited}")
+    private String accountCreditedRoutingKey;
+    
+    @Value("${rabbitmq.routing.account-debited}")
+    private String accountDebitedRoutingKey;
+    
+    @Value("${rabbitmq.routing.account-updated}")
+    private String accountUpdatedRoutingKey;
+    
+    @Value("${rabbitmq.routing.client-updated}")
+    private String clientUpdatedRoutingKey;
+    
+    @Bean
+    public TopicExchange topicExchange() {
+        return new TopicExchange(exchangeName);
+    }
+    
+    @Bean
+    public Queue dashboardEventsQueue() {
+        return new AnonymousQueue();
+    }
+    
+    @Bean
+    public Declarables dashboardEventsBindings(Queue dashboardEventsQueue, TopicExchange topicExchange) {
+        return new Declarables(
+            bind(dashboardEventsQueue, topicExchange, transactionCreatedRoutingKey),
+            bind(dashboardEventsQueue, topicExchange, transactionAggregatedRoutingKey),
+            bind(dashboardEventsQueue, topicExchange, accountCreditedRoutingKey),
+            bind(dashboardEventsQueue, topicExchange, accountDebitedRoutingKey)
+        );
+    }
+    
+    @Bean
+    public Queue dashboardAccountEventsQueue() {
+        return new AnonymousQueue();
+    }
+    
+    @Bean
+    public Binding dashboardAccountEventsBinding(Queue dashboardAccountEventsQueue, TopicExchange topicExchange) {
+        return bind(dashboardAccountEventsQueue, topicExchange, accountUpdatedRoutingKey);
+    }
+    
+    @Bean
+    public Queue dashboardClientEventsQueue() {
+        return new AnonymousQueue();
+    }
+    
+    @Bean
+    public Binding dashboardClientEventsBinding(Queue dashboardClientEventsQueue, TopicExchange topicExchange) {
+        return bind(dashboardClientEventsQueue, topicExchange, clientUpdatedRoutingKey);
+    }
+    
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+    
+    private Binding bind(Queue queue, TopicExchange exchange, String routingKey) {
+        return BindingBuilder.bind(queue).to(exchange).with(routingKey);
+    }
+}
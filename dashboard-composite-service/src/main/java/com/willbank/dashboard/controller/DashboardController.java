@@ -2,6 +2,8 @@ package com.willbank.dashboard.controller;
 
 import com.willbank.dashboard.dto.DashboardResponse;
 import com.willbank.dashboard.dto.StatementResponse;
+import com.willbank.dashboard.service.DashboardCacheService;
+import com.willbank.dashboard.service.DashboardCacheService.CachedDashboard;
 import com.willbank.dashboard.service.DashboardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,6 +11,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -23,6 +28,7 @@ import java.time.LocalDateTime;
 public class DashboardController {
     
     private final DashboardService dashboardService;
+    private final DashboardCacheService dashboardCacheService;
     
     @GetMapping("/dashboard/{clientId}")
     @Operation(
@@ -31,11 +37,24 @@ public class DashboardController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Dashboard retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Dashboard unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Client not found")
     })
-    public ResponseEntity<DashboardResponse> getDashboard(@PathVariable("clientId") Long clientId) {
-        DashboardResponse dashboard = dashboardService.getDashboard(clientId);
-        return ResponseEntity.ok(dashboard);
+    public ResponseEntity<DashboardResponse> getDashboard(
+            @PathVariable("clientId") Long clientId,
+            @RequestParam(value = "historyDays", defaultValue = "${app.dashboard.balance-history.default-days:7}") int historyDays,
+            @RequestParam(value = "granularity", defaultValue = "${app.dashboard.balance-history.default-granularity:daily}") String granularity,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CachedDashboard dashboard = dashboardCacheService.getDashboard(clientId, historyDays, granularity);
+        if (dashboard.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(dashboard.etag())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(dashboard.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(dashboard.response());
     }
     
     @GetMapping("/statements/{accountId}")
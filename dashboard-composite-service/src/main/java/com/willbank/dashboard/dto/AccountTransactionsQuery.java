@@ -0,0 +1,18 @@
+package com.willbank.dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountTransactionsQuery {
+    private List<Long> accountIds;
+    private Integer limitPerAccount;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
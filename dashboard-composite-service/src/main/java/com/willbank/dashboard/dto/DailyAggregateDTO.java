@@ -0,0 +1,20 @@
+package com.willbank.dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyAggregateDTO {
+    private Long accountId;
+    private LocalDate activityDate;
+    // DEPOSIT, WITHDRAWAL, TRANSFER_OUT or TRANSFER_IN
+    private String flowType;
+    private BigDecimal totalAmount;
+    private long transactionCount;
+}
@@ -0,0 +1,23 @@
+package com.willbank.dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Net flow of an account for each day of [from, to]: deltas.get(i) is the
+ * signed sum of the movements of day from + i (zero when there were none).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyNetFlowsDTO {
+    private Long accountId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<BigDecimal> deltas;
+}
@@ -26,4 +26,7 @@ public class DashboardResponse {
     private List<BalanceHistoryDTO> balanceHistory;
     private DashboardInsightsDTO insights;
     private LocalDateTime lastUpdated;
+    
+    // true when a backend call missed the deadline or failed: the dashboard is partial
+    private boolean degraded;
 }
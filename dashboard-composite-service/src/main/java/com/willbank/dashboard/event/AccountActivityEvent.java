@@ -0,0 +1,21 @@
+package com.willbank.dashboard.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vue commune de TransactionCreatedEvent, TransactionAggregatedEvent, AccountCreditedEvent
+ * et AccountDebitedEvent :
+ * seuls les comptes touchés comptent pour l'invalidation du cache.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AccountActivityEvent {
+    private Long accountId;
+    private Long sourceAccountId;
+    private Long destinationAccountId;
+}
@@ -0,0 +1,20 @@
+package com.willbank.dashboard.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Création, changement de statut ou suppression d'un compte : la liste des comptes du
+ * client change, son dashboard est évincé même si le compte n'y figurait pas encore.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AccountUpdatedEvent {
+    private Long accountId;
+    private Long clientId;
+    private String updateType;
+}
@@ -0,0 +1,43 @@
+package com.willbank.dashboard.listener;
+
+import com.willbank.clientcache.ClientUpdatedEvent;
+import com.willbank.dashboard.event.AccountActivityEvent;
+import com.willbank.dashboard.event.AccountUpdatedEvent;
+import com.willbank.dashboard.service.DashboardCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardEventListener {
+    
+    private final DashboardCacheService dashboardCacheService;
+    
+    @RabbitListener(queues = "#{dashboardEventsQueue.name}")
+    public void handleAccountActivity(AccountActivityEvent event) {
+        log.debug("Received account activity: {}", event);
+        dashboardCacheService.evictAccounts(
+            event.getAccountId(), event.getSourceAccountId(), event.getDestinationAccountId());
+    }
+    
+    @RabbitListener(queues = "#{dashboardAccountEventsQueue.name}")
+    public void handleAccountUpdated(AccountUpdatedEvent event) {
+        log.debug("Received account update: {}", event);
+        dashboardCacheService.evictAccounts(event.getAccountId());
+        if (event.getClientId() != null) {
+            dashboardCacheService.evictClient(event.getClientId());
+        }
+    }
+    
+    @RabbitListener(queues = "#{dashboardClientEventsQueue.name}")
+    public void handleClientUpdated(ClientUpdatedEvent event) {
+        if (event.getClientId() == null) {
+            return;
+        }
+        log.debug("Received client update for client {}", event.getClientId());
+        dashboardCacheService.evictClient(event.getClientId());
+    }
+}
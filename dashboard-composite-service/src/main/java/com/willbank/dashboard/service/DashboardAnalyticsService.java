@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -17,21 +18,27 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DashboardAnalyticsService {
 
+    private static final String DEPOSIT = "DEPOSIT";
+    private static final String WITHDRAWAL = "WITHDRAWAL";
+    private static final String TRANSFER = "TRANSFER";
+    private static final String TRANSFER_OUT = "TRANSFER_OUT";
+    private static final String TRANSFER_IN = "TRANSFER_IN";
+
     public DashboardInsightsDTO generateInsights(List<AccountDTO> accounts, 
-                                               List<TransactionDTO> transactions) {
+                                               List<DailyAggregateDTO> aggregates) {
         DashboardInsightsDTO insights = new DashboardInsightsDTO();
         
         // Calcul des tendances de dépenses
-        insights.setSpendingTrend(calculateSpendingTrend(transactions));
-        insights.setMonthlyGrowthPercentage(calculateMonthlyGrowth(transactions));
-        insights.setTopSpendingCategory(findTopSpendingCategory(transactions));
+        insights.setSpendingTrend(calculateSpendingTrend(aggregates));
+        insights.setMonthlyGrowthPercentage(calculateMonthlyGrowth(aggregates));
+        insights.setTopSpendingCategory(findTopSpendingCategory(aggregates));
         insights.setAverageMonthlyBalance(calculateAverageBalance(accounts));
         
         // Génération des recommandations
-        insights.setRecommendations(generateRecommendations(accounts, transactions));
+        insights.setRecommendations(generateRecommendations(accounts, aggregates));
         
         // Génération des alertes
-        insights.setAlerts(generateAlerts(accounts, transactions));
+        insights.setAlerts(generateAlerts(accounts, aggregates));
         
         // Progression des objectifs (simulée pour l'exemple)
         insights.setGoalProgress(generateGoalProgress());
@@ -39,38 +46,81 @@ public class DashboardAnalyticsService {
         return insights;
     }
 
-    public List<BalanceHistoryDTO> generateBalanceHistory(List<AccountDTO> accounts, 
-                                                        List<TransactionDTO> transactions) {
-        List<BalanceHistoryDTO> history = new ArrayList<>();
-        
-        // Simulation de l'historique des 7 derniers jours
+    /**
+     * Historique du solde total sur la fenêtre des deltas journaliers, reconstruit en
+     * remontant depuis le solde courant : solde(veille) = solde(jour) - delta(jour).
+     * Un seul passage sur les jours ; en weekly/monthly seul le dernier jour de chaque
+     * période (et aujourd'hui) est conservé.
+     */
+    public List<BalanceHistoryDTO> generateBalanceHistory(List<AccountDTO> accounts,
+                                                        List<DailyNetFlowsDTO> netFlows,
+                                                        int days,
+                                                        String granularity) {
         LocalDate today = LocalDate.now();
-        BigDecimal currentTotal = accounts.stream()
+        BigDecimal running = accounts.stream()
             .map(AccountDTO::getBalance)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            // Simulation d'une variation aléatoire
-            BigDecimal variation = currentTotal.multiply(BigDecimal.valueOf(Math.random() * 0.02 - 0.01));
-            BigDecimal balance = currentTotal.add(variation);
-            
-            history.add(new BalanceHistoryDTO(date, balance, "daily"));
+        // Deltas of all the client's accounts, bucketed per day (index 0 = oldest day)
+        Set<Long> accountIds = accounts.stream().map(AccountDTO::getId).collect(Collectors.toSet());
+        BigDecimal[] deltas = new BigDecimal[days];
+        Arrays.fill(deltas, BigDecimal.ZERO);
+        for (DailyNetFlowsDTO flows : netFlows) {
+            if (!accountIds.contains(flows.getAccountId())) {
+                continue;
+            }
+            List<BigDecimal> accountDeltas = flows.getDeltas();
+            int offset = days - accountDeltas.size();
+            for (int i = Math.max(0, -offset); i < accountDeltas.size(); i++) {
+                deltas[offset + i] = deltas[offset + i].add(accountDeltas.get(i));
+            }
+        }
+        
+        List<BalanceHistoryDTO> history = new ArrayList<>();
+        for (int i = days - 1; i >= 0; i--) {
+            LocalDate date = today.minusDays(days - 1 - i);
+            if (i == days - 1 || isEndOfPeriod(date, granularity)) {
+                history.add(new BalanceHistoryDTO(date, running, granularity));
+            }
+            running = running.subtract(deltas[i]);
         }
+        Collections.reverse(history);
         
         return history;
     }
 
-    public Map<String, BigDecimal> calculateTransactionsByType(List<TransactionDTO> transactions) {
-        return transactions.stream()
+    private boolean isEndOfPeriod(LocalDate date, String granularity) {
+        switch (granularity) {
+            case "weekly":
+                return date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            case "monthly":
+                return date.getDayOfMonth() == date.lengthOfMonth();
+            default:
+                return true;
+        }
+    }
+
+    public Map<String, BigDecimal> calculateTransactionsByType(List<DailyAggregateDTO> aggregates) {
+        // Un virement est compté une fois, côté émetteur (TRANSFER_OUT) : un virement entre
+        // deux comptes du client a aussi une jambe TRANSFER_IN, qui le compterait deux fois
+        return aggregates.stream()
+            .filter(aggregate -> !TRANSFER_IN.equals(aggregate.getFlowType()))
             .collect(Collectors.groupingBy(
-                TransactionDTO::getType,
+                aggregate -> TRANSFER_OUT.equals(aggregate.getFlowType()) ? TRANSFER : aggregate.getFlowType(),
                 Collectors.reducing(BigDecimal.ZERO, 
-                    TransactionDTO::getAmount, 
+                    DailyAggregateDTO::getTotalAmount, 
                     BigDecimal::add)
             ));
     }
 
+    public BigDecimal calculateIncome(List<DailyAggregateDTO> aggregates) {
+        return sumAmounts(aggregates, DEPOSIT, TRANSFER_IN);
+    }
+
+    public BigDecimal calculateExpenses(List<DailyAggregateDTO> aggregates) {
+        return sumAmounts(aggregates, WITHDRAWAL, TRANSFER_OUT);
+    }
+
     public BigDecimal calculateSavingsRate(BigDecimal income, BigDecimal expenses) {
         if (income.compareTo(BigDecimal.ZERO) == 0) {
             return BigDecimal.ZERO;
@@ -81,15 +131,11 @@ public class DashboardAnalyticsService {
                      .multiply(BigDecimal.valueOf(100));
     }
 
-    private String calculateSpendingTrend(List<TransactionDTO> transactions) {
+    private String calculateSpendingTrend(List<DailyAggregateDTO> aggregates) {
         // Logique simplifiée pour calculer la tendance
-        long withdrawals = transactions.stream()
-            .filter(t -> "WITHDRAWAL".equals(t.getType()))
-            .count();
+        long withdrawals = countTransactions(aggregates, WITHDRAWAL);
         
-        long deposits = transactions.stream()
-            .filter(t -> "DEPOSIT".equals(t.getType()))
-            .count();
+        long deposits = countTransactions(aggregates, DEPOSIT);
         
         if (withdrawals > deposits * 1.5) {
             return "INCREASING";
@@ -99,12 +145,12 @@ public class DashboardAnalyticsService {
         return "STABLE";
     }
 
-    private BigDecimal calculateMonthlyGrowth(List<TransactionDTO> transactions) {
+    private BigDecimal calculateMonthlyGrowth(List<DailyAggregateDTO> aggregates) {
         // Simulation d'une croissance mensuelle
         return BigDecimal.valueOf(12.5);
     }
 
-    private String findTopSpendingCategory(List<TransactionDTO> transactions) {
+    private String findTopSpendingCategory(List<DailyAggregateDTO> aggregates) {
         // Pour l'exemple, retourner une catégorie fixe
         return "Alimentation";
     }
@@ -122,7 +168,7 @@ public class DashboardAnalyticsService {
     }
 
     private List<String> generateRecommendations(List<AccountDTO> accounts, 
-                                               List<TransactionDTO> transactions) {
+                                               List<DailyAggregateDTO> aggregates) {
         List<String> recommendations = new ArrayList<>();
         
         // Vérifier les soldes faibles
@@ -149,7 +195,7 @@ public class DashboardAnalyticsService {
     }
 
     private List<AlertDTO> generateAlerts(List<AccountDTO> accounts, 
-                                        List<TransactionDTO> transactions) {
+                                        List<DailyAggregateDTO> aggregates) {
         List<AlertDTO> alerts = new ArrayList<>();
         
         // Alerte solde faible
@@ -167,10 +213,7 @@ public class DashboardAnalyticsService {
             });
         
         // Alerte dépenses inhabituelles
-        BigDecimal totalWithdrawals = transactions.stream()
-            .filter(t -> "WITHDRAWAL".equals(t.getType()))
-            .map(TransactionDTO::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalWithdrawals = sumAmounts(aggregates, WITHDRAWAL);
         
         if (totalWithdrawals.compareTo(BigDecimal.valueOf(5000)) > 0) {
             AlertDTO alert = new AlertDTO();
@@ -186,6 +229,21 @@ public class DashboardAnalyticsService {
         return alerts;
     }
 
+    private BigDecimal sumAmounts(List<DailyAggregateDTO> aggregates, String... flowTypes) {
+        Set<String> types = Set.of(flowTypes);
+        return aggregates.stream()
+            .filter(aggregate -> types.contains(aggregate.getFlowType()))
+            .map(DailyAggregateDTO::getTotalAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private long countTransactions(List<DailyAggregateDTO> aggregates, String flowType) {
+        return aggregates.stream()
+            .filter(aggregate -> flowType.equals(aggregate.getFlowType()))
+            .mapToLong(DailyAggregateDTO::getTransactionCount)
+            .sum();
+    }
+
     private GoalProgressDTO generateGoalProgress() {
         GoalProgressDTO progress = new GoalProgressDTO();
         progress.setTotalSavingsGoal(BigDecimal.valueOf(50000));
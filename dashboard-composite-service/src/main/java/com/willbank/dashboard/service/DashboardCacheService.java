@@ -0,0 +1,149 @@
+package com.willbank.dashboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.willbank.dashboard.dto.DashboardResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache des dashboards par client, évincé par les événements de compte (mouvements,
+ * création, changement de statut, suppression).
+ * Chaque client garde une entrée par variante (fenêtre/granularité de l'historique).
+ * Les réponses dégradées ne sont jamais mises en cache, ni celles dont un compte a été
+ * évincé pendant leur calcul (même si son propriétaire n'était pas encore connu).
+ */
+@Service
+@Slf4j
+public class DashboardCacheService {
+    
+    private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, ConcurrentMap<String, CachedDashboard>> dashboards;
+    // accountId -> clientId, learned from the accounts of each cached dashboard
+    private final Cache<Long, Long> accountOwners;
+    // accountId -> sequence number of its last eviction, kept long enough to outlive any build
+    private final Cache<Long, Long> accountEvictions;
+    private final AtomicLong evictionSequence = new AtomicLong();
+    
+    public DashboardCacheService(DashboardService dashboardService,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.dashboard.cache.max-size:10000}") long maxSize,
+                                 @Value("${app.dashboard.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.dashboardService = dashboardService;
+        this.objectMapper = objectMapper;
+        this.dashboards = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.accountOwners = Caffeine.newBuilder()
+                .maximumSize(maxSize * 4)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.accountEvictions = Caffeine.newBuilder()
+                .maximumSize(maxSize * 4)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, dashboards, "dashboards");
+    }
+    
+    public CachedDashboard getDashboard(Long clientId, int historyDays, String granularity) {
+        String variant = historyDays + ":" + granularity.toLowerCase(Locale.ROOT);
+        ConcurrentMap<String, CachedDashboard> variants = dashboards.get(clientId, id -> new ConcurrentHashMap<>());
+        CachedDashboard cached = variants.get(variant);
+        if (cached != null) {
+            log.debug("Dashboard cache hit for client {}", clientId);
+            return cached;
+        }
+        
+        long buildStart = evictionSequence.get();
+        DashboardResponse response = dashboardService.getDashboard(clientId, historyDays, granularity);
+        CachedDashboard built = new CachedDashboard(response, etag(response));
+        if (response.isDegraded()) {
+            return built;
+        }
+        // Owners are registered before the checks: a later event finds this client and
+        // detaches `variants`, an earlier one (first build, owner unknown) left its stamp
+        response.getAccounts().forEach(account -> accountOwners.put(account.getId(), clientId));
+        if (response.getAccounts().stream().anyMatch(account -> evictedSince(account.getId(), buildStart))) {
+            log.debug("Account of client {} changed while its dashboard was built, not caching it", clientId);
+            return built;
+        }
+        // An event evicting this client while the dashboard was built detached `variants`:
+        // the result then dies with it instead of resurrecting stale data
+        variants.put(variant, built);
+        if (dashboards.getIfPresent(clientId) != variants) {
+            variants.remove(variant);
+        }
+        return built;
+    }
+    
+    public void evictAccounts(Long... accountIds) {
+        Set<Long> owners = new HashSet<>();
+        for (Long accountId : accountIds) {
+            if (accountId == null) {
+                continue;
+            }
+            accountEvictions.put(accountId, evictionSequence.incrementAndGet());
+            Long clientId = accountOwners.getIfPresent(accountId);
+            if (clientId != null) {
+                owners.add(clientId);
+            }
+        }
+        owners.forEach(this::evictClient);
+    }
+    
+    public void evictClient(Long clientId) {
+        log.debug("Evicting cached dashboards of client {}", clientId);
+        dashboards.invalidate(clientId);
+    }
+    
+    private boolean evictedSince(Long accountId, long sequence) {
+        Long evictedAt = accountEvictions.getIfPresent(accountId);
+        return evictedAt != null && evictedAt > sequence;
+    }
+    
+    // lastUpdated is left out so that equal content built by any instance has the same ETag
+    private String etag(DashboardResponse response) {
+        LocalDateTime lastUpdated = response.getLastUpdated();
+        response.setLastUpdated(null);
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(response)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize dashboard", e);
+        } finally {
+            response.setLastUpdated(lastUpdated);
+        }
+    }
+    
+    public record CachedDashboard(DashboardResponse response, String etag) {
+        
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            return Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                    .anyMatch(tag -> tag.equals(etag) || tag.equals("*"));
+        }
+    }
+}
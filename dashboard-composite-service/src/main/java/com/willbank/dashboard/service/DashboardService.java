@@ -1,19 +1,35 @@
 package com.willbank.dashboard.service;
 
+import com.willbank.clientcache.ClientProfileCache;
 import com.willbank.dashboard.client.AccountServiceClient;
-import com.willbank.dashboard.client.ClientServiceClient;
 import com.willbank.dashboard.client.TransactionServiceClient;
 import com.willbank.dashboard.dto.*;
+import feign.Request;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,37 +37,90 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DashboardService {
     
-    private final ClientServiceClient clientServiceClient;
+    private static final int RECENT_TRANSACTIONS = 10;
+    private static final List<String> HISTORY_GRANULARITIES = List.of("daily", "weekly", "monthly");
+    
+    private final ClientProfileCache<ClientDTO> clientProfileCache;
     private final AccountServiceClient accountServiceClient;
     private final TransactionServiceClient transactionServiceClient;
     private final DashboardAnalyticsService analyticsService;
+    private final ThreadPoolTaskExecutor dashboardExecutor;
+    
+    @Value("${app.dashboard.deadline-ms:3000}")
+    private long deadlineMs;
+    
+    @Value("${app.dashboard.connect-timeout-ms:1000}")
+    private long connectTimeoutMs;
+    
+    @Value("${app.dashboard.balance-history.max-days:365}")
+    private int maxHistoryDays;
     
-    public DashboardResponse getDashboard(Long clientId) {
+    public DashboardResponse getDashboard(Long clientId, int historyDays, String historyGranularity) {
         log.info("Fetching dashboard for client ID: {}", clientId);
+        int days = validateHistoryDays(historyDays);
+        String granularity = validateGranularity(historyGranularity);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        AtomicBoolean degraded = new AtomicBoolean(false);
         
-        // Fetch client information
-        ClientDTO client = clientServiceClient.getClientById(clientId);
-        log.info("Client fetched: {}", client.getEmail());
+        // Client and accounts are fetched at the same time
+        CompletableFuture<ClientDTO> clientFuture = submitLeg(() -> clientProfileCache.get(clientId));
+        CompletableFuture<List<AccountDTO>> accountsFuture = submitLeg(
+                () -> accountServiceClient.getAccountsByClientId(clientId, legOptions(deadline)));
         
-        // Fetch all accounts for the client
-        List<AccountDTO> accounts = accountServiceClient.getAccountsByClientId(clientId);
+        List<AccountDTO> accounts = awaitLeg(accountsFuture, deadline, "accounts", List.of(), degraded);
         log.info("Found {} accounts for client", accounts.size());
         
-        // Fetch recent transactions for all accounts (last 10)
+        // Then recent transactions, monthly aggregates and daily net flows of all accounts, in parallel
         List<TransactionDTO> allTransactions = new ArrayList<>();
-        for (AccountDTO account : accounts) {
+        List<DailyAggregateDTO> monthlyAggregates = List.of();
+        List<DailyNetFlowsDTO> netFlows = List.of();
+        if (!accounts.isEmpty()) {
+            List<Long> accountIds = accounts.stream().map(AccountDTO::getId).collect(Collectors.toList());
+            LocalDate today = LocalDate.now();
+            AccountTransactionsQuery query = new AccountTransactionsQuery(accountIds, RECENT_TRANSACTIONS, null, null);
+            CompletableFuture<Map<Long, List<TransactionDTO>>> transactionsFuture = submitLeg(
+                    () -> transactionServiceClient.getTransactionsByAccountIds(query, legOptions(deadline)));
+            CompletableFuture<List<DailyAggregateDTO>> aggregatesFuture = submitLeg(
+                    () -> transactionServiceClient.getDailyAggregates(accountIds, today.withDayOfMonth(1), today,
+                            legOptions(deadline)));
+            CompletableFuture<List<DailyNetFlowsDTO>> netFlowsFuture = submitLeg(
+                    () -> transactionServiceClient.getDailyNetFlows(accountIds, days, legOptions(deadline)));
+            try {
+                Map<Long, List<TransactionDTO>> byAccount = awaitLeg(transactionsFuture, deadline, "transactions",
+                        Map.of(), degraded);
+                // A transfer between two accounts of the client is listed under both: keep it once
+                Set<Long> seen = new HashSet<>();
+                byAccount.values().stream()
+                        .flatMap(List::stream)
+                        .filter(transaction -> seen.add(transaction.getId()))
+                        .forEach(allTransactions::add);
+            } catch (Exception e) {
+                log.warn("Could not fetch transactions for client {}: {}", clientId, e.getMessage());
+                degraded.set(true);
+            }
+            try {
+                monthlyAggregates = awaitLeg(aggregatesFuture, deadline, "aggregates", List.of(), degraded);
+            } catch (Exception e) {
+                log.warn("Could not fetch aggregates for client {}: {}", clientId, e.getMessage());
+                degraded.set(true);
+            }
             try {
-                List<TransactionDTO> accountTransactions = transactionServiceClient.getTransactionsByAccountId(account.getId());
-                allTransactions.addAll(accountTransactions);
+                netFlows = awaitLeg(netFlowsFuture, deadline, "net-flows", List.of(), degraded);
             } catch (Exception e) {
-                log.warn("Could not fetch transactions for account {}: {}", account.getId(), e.getMessage());
+                log.warn("Could not fetch net flows for client {}: {}", clientId, e.getMessage());
+                degraded.set(true);
             }
         }
         
+        ClientDTO client = awaitLeg(clientFuture, deadline, "client", null, degraded);
+        if (client != null) {
+            log.info("Client fetched: {}", client.getEmail());
+        }
+        
         // Sort by date and get last 10
         List<TransactionDTO> recentTransactions = allTransactions.stream()
                 .sorted(Comparator.comparing(TransactionDTO::getCreatedAt).reversed())
-                .limit(10)
+                .limit(RECENT_TRANSACTIONS)
                 .collect(Collectors.toList());
         
         log.info("Fetched {} recent transactions", recentTransactions.size());
@@ -61,20 +130,14 @@ public class DashboardService {
             .map(AccountDTO::getBalance)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         
-        BigDecimal monthlyIncome = allTransactions.stream()
-            .filter(t -> "DEPOSIT".equals(t.getType()))
-            .map(TransactionDTO::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal monthlyExpenses = allTransactions.stream()
-            .filter(t -> "WITHDRAWAL".equals(t.getType()) || "TRANSFER".equals(t.getType()))
-            .map(TransactionDTO::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Analytics du mois en cours, à partir des agrégats journaliers
+        BigDecimal monthlyIncome = analyticsService.calculateIncome(monthlyAggregates);
+        BigDecimal monthlyExpenses = analyticsService.calculateExpenses(monthlyAggregates);
         
         BigDecimal savingsRate = analyticsService.calculateSavingsRate(monthlyIncome, monthlyExpenses);
-        Map<String, BigDecimal> transactionsByType = analyticsService.calculateTransactionsByType(allTransactions);
-        List<BalanceHistoryDTO> balanceHistory = analyticsService.generateBalanceHistory(accounts, allTransactions);
-        DashboardInsightsDTO insights = analyticsService.generateInsights(accounts, allTransactions);
+        Map<String, BigDecimal> transactionsByType = analyticsService.calculateTransactionsByType(monthlyAggregates);
+        List<BalanceHistoryDTO> balanceHistory = analyticsService.generateBalanceHistory(accounts, netFlows, days, granularity);
+        DashboardInsightsDTO insights = analyticsService.generateInsights(accounts, monthlyAggregates);
         
         DashboardResponse response = new DashboardResponse();
         response.setClient(client);
@@ -88,12 +151,83 @@ public class DashboardService {
         response.setBalanceHistory(balanceHistory);
         response.setInsights(insights);
         response.setLastUpdated(LocalDateTime.now());
+        response.setDegraded(degraded.get());
         
         log.info("Dashboard enriched with analytics data for client {}", clientId);
         
         return response;
     }
     
+    private int validateHistoryDays(int days) {
+        if (days < 1 || days > maxHistoryDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "historyDays must be between 1 and " + maxHistoryDays);
+        }
+        return days;
+    }
+    
+    private String validateGranularity(String granularity) {
+        String normalized = granularity.toLowerCase(Locale.ROOT);
+        if (!HISTORY_GRANULARITIES.contains(normalized)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "granularity must be one of " + HISTORY_GRANULARITIES);
+        }
+        return normalized;
+    }
+    
+    /**
+     * Submits one leg to the fan-out pool. When the pool is saturated the leg fails at once
+     * with the rejection, which {@link #awaitLeg} turns into a degraded result.
+     */
+    private <T> CompletableFuture<T> submitLeg(Supplier<T> leg) {
+        try {
+            return CompletableFuture.supplyAsync(leg, dashboardExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Feign timeouts of a leg, computed when its call starts: the read timeout is the time
+     * left before the deadline, so an abandoned call does not keep its pool thread much longer.
+     */
+    private Request.Options legOptions(long deadline) {
+        long remainingMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        return new Request.Options(Math.min(connectTimeoutMs, remainingMs), TimeUnit.MILLISECONDS,
+                remainingMs, TimeUnit.MILLISECONDS, true);
+    }
+    
+    /**
+     * Waits for one leg of the fan-out until the global deadline. A leg that misses it, or
+     * that the saturated pool refused, is replaced by {@code fallback} and the dashboard is
+     * flagged as degraded. A late leg is not interrupted (Feign ignores interrupts): it is
+     * abandoned and ends on its own read timeout, which {@link #legOptions} bounds by the deadline.
+     * Failures (e.g. client not found) are rethrown as-is.
+     */
+    private <T> T awaitLeg(CompletableFuture<T> future, long deadline, String leg, T fallback, AtomicBoolean degraded) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Dashboard leg '{}' missed the {} ms deadline, returning partial result", leg, deadlineMs);
+            degraded.set(true);
+            return fallback;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                log.warn("Dashboard leg '{}' rejected, fan-out pool saturated, returning partial result", leg);
+                degraded.set(true);
+                return fallback;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            degraded.set(true);
+            return fallback;
+        }
+    }
+    
     public StatementResponse getAccountStatement(Long accountId, LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Fetching statement for account ID: {} from {} to {}", accountId, startDate, endDate);
         
@@ -0,0 +1,138 @@
+package com.willbank.dashboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willbank.dashboard.dto.AccountDTO;
+import com.willbank.dashboard.dto.DashboardResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache des dashboards : une réponse reste en cache jusqu'à l'évincement d'un de ses
+ * comptes, et un dashboard construit pendant un évincement n'est jamais mis en cache,
+ * que le propriétaire du compte soit déjà connu ou non.
+ */
+class DashboardCacheServiceTest {
+    
+    private static final long CLIENT_ID = 1L;
+    private static final long ACCOUNT_ID = 10L;
+    
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final DashboardCacheService cacheService = new DashboardCacheService(
+            dashboardService, new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(), 1000, 300);
+    
+    @Test
+    void dashboardIsCachedPerVariantUntilOneOfItsAccountsIsEvicted() {
+        when(dashboardService.getDashboard(eq(CLIENT_ID), anyInt(), anyString())).thenAnswer(invocation -> dashboard(false));
+        
+        cacheService.getDashboard(CLIENT_ID, 30, "DAILY");
+        cacheService.getDashboard(CLIENT_ID, 30, "daily");
+        verify(dashboardService, times(1)).getDashboard(CLIENT_ID, 30, "DAILY");
+        cacheService.getDashboard(CLIENT_ID, 90, "WEEKLY");
+        verify(dashboardService, times(1)).getDashboard(CLIENT_ID, 90, "WEEKLY");
+        
+        cacheService.evictAccounts(ACCOUNT_ID);
+        cacheService.getDashboard(CLIENT_ID, 30, "DAILY");
+        verify(dashboardService, times(2)).getDashboard(CLIENT_ID, 30, "DAILY");
+    }
+    
+    @Test
+    void degradedDashboardIsNotCached() {
+        when(dashboardService.getDashboard(eq(CLIENT_ID), anyInt(), anyString())).thenAnswer(invocation -> dashboard(true));
+        
+        cacheService.getDashboard(CLIENT_ID, 30, "DAILY");
+        cacheService.getDashboard(CLIENT_ID, 30, "DAILY");
+        
+        verify(dashboardService, times(2)).getDashboard(CLIENT_ID, 30, "DAILY");
+    }
+    
+    @Test
+    void firstBuildRacingAnAccountEvictionIsNotCached() throws Exception {
+        // Nothing cached yet: the eviction cannot find the owner and only leaves its stamp
+        assertBuildRacingAnEvictionIsNotCached(30, "DAILY");
+    }
+    
+    @Test
+    void buildRacingAnEvictionOfAKnownOwnerIsNotCached() throws Exception {
+        when(dashboardService.getDashboard(eq(CLIENT_ID), anyInt(), anyString())).thenAnswer(invocation -> dashboard(false));
+        cacheService.getDashboard(CLIENT_ID, 30, "DAILY");
+        
+        assertBuildRacingAnEvictionIsNotCached(90, "WEEKLY");
+        cacheService.getDashboard(CLIENT_ID, 30, "DAILY");
+        verify(dashboardService, times(2)).getDashboard(CLIENT_ID, 30, "DAILY");
+    }
+    
+    @Test
+    void etagIgnoresLastUpdated() {
+        DashboardResponse first = dashboard(false);
+        DashboardResponse second = dashboard(false);
+        second.setLastUpdated(first.getLastUpdated().plusMinutes(5));
+        when(dashboardService.getDashboard(eq(CLIENT_ID), anyInt(), anyString())).thenReturn(first, second);
+        
+        DashboardCacheService.CachedDashboard cached = cacheService.getDashboard(CLIENT_ID, 30, "DAILY");
+        cacheService.evictAccounts(ACCOUNT_ID);
+        DashboardCacheService.CachedDashboard rebuilt = cacheService.getDashboard(CLIENT_ID, 30, "DAILY");
+        
+        assertThat(rebuilt.etag()).isEqualTo(cached.etag());
+        assertThat(rebuilt.response().getLastUpdated()).isEqualTo(second.getLastUpdated());
+        assertThat(cached.matches("W/" + cached.etag())).isTrue();
+        assertThat(cached.matches("\"other\", " + cached.etag())).isTrue();
+        assertThat(cached.matches("\"other\"")).isFalse();
+        assertThat(cached.matches(null)).isFalse();
+    }
+    
+    private void assertBuildRacingAnEvictionIsNotCached(int historyDays, String granularity) throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        AtomicBoolean firstBuild = new AtomicBoolean(true);
+        when(dashboardService.getDashboard(CLIENT_ID, historyDays, granularity)).thenAnswer(invocation -> {
+            if (firstBuild.compareAndSet(true, false)) {
+                // The backends are read, then the account changes before the result is cached
+                building.countDown();
+                evicted.await(10, TimeUnit.SECONDS);
+            }
+            return dashboard(false);
+        });
+        
+        CompletableFuture<DashboardCacheService.CachedDashboard> staleBuild = CompletableFuture.supplyAsync(
+                () -> cacheService.getDashboard(CLIENT_ID, historyDays, granularity));
+        assertThat(building.await(10, TimeUnit.SECONDS)).isTrue();
+        cacheService.evictAccounts(ACCOUNT_ID);
+        evicted.countDown();
+        assertThat(staleBuild.get(10, TimeUnit.SECONDS)).isNotNull();
+        
+        cacheService.getDashboard(CLIENT_ID, historyDays, granularity);
+        verify(dashboardService, times(2)).getDashboard(CLIENT_ID, historyDays, granularity);
+        // The fresh build was cached
+        cacheService.getDashboard(CLIENT_ID, historyDays, granularity);
+        verify(dashboardService, times(2)).getDashboard(CLIENT_ID, historyDays, granularity);
+    }
+    
+    private static DashboardResponse dashboard(boolean degraded) {
+        AccountDTO account = new AccountDTO(ACCOUNT_ID, "WB0000000010", CLIENT_ID, "CHECKING",
+                new BigDecimal("250.00"), "ACTIVE", null, null);
+        DashboardResponse response = new DashboardResponse();
+        response.setAccounts(List.of(account));
+        response.setRecentTransactions(List.of());
+        response.setTotalBalance(account.getBalance());
+        response.setLastUpdated(LocalDateTime.of(2026, 10, 18, 9, 30));
+        response.setDegraded(degraded);
+        return response;
+    }
+}
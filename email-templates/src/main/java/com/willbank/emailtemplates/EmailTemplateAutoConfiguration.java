@@ -0,0 +1,20 @@
+package com.willbank.emailtemplates;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+@AutoConfiguration
+@EnableConfigurationProperties(EmailTemplateProperties.class)
+public class EmailTemplateAutoConfiguration {
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public EmailTemplateRenderer emailTemplateRenderer(EmailTemplateProperties properties,
+                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        return new EmailTemplateRenderer(properties, meterRegistry.getIfAvailable());
+    }
+}
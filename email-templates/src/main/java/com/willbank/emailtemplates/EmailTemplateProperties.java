@@ -0,0 +1,17 @@
+package com.willbank.emailtemplates;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.email-templates")
+public class EmailTemplateProperties {
+    
+    // Classpath folder of the templates; every *.html in it is compiled at startup
+    private String location = "templates/email/";
+    
+    private int initialBufferSize = 8 * 1024;
+    
+    // Render buffers that grew past this size are not kept for reuse
+    private int maxBufferSize = 64 * 1024;
+}
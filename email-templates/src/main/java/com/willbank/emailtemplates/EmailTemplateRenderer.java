@@ -0,0 +1,105 @@
+package com.willbank.emailtemplates;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Rendu des emails HTML à partir des templates partagés.
+ * Tous les templates sont parsés au démarrage et gardés en cache (le texte statique,
+ * CSS compris, est recopié tel quel à chaque rendu) ; les expressions SpEL sont compilées
+ * en bytecode. Chaque thread rend dans un buffer réutilisé au lieu d'allouer un
+ * nouveau StringBuilder à chaque email.
+ */
+@Slf4j
+public class EmailTemplateRenderer implements InitializingBean {
+    
+    private static final String SUFFIX = ".html";
+    
+    private final EmailTemplateProperties properties;
+    private final SpringTemplateEngine templateEngine;
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<StringWriter> buffers;
+    
+    public EmailTemplateRenderer(EmailTemplateProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buffers = ThreadLocal.withInitial(() -> new StringWriter(properties.getInitialBufferSize()));
+        
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix(properties.getLocation());
+        resolver.setSuffix(SUFFIX);
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null);  // Parsed once, kept for the life of the application
+        
+        this.templateEngine = new SpringTemplateEngine();
+        this.templateEngine.setTemplateResolver(resolver);
+        this.templateEngine.setEnableSpringELCompiler(true);
+    }
+    
+    /**
+     * Compile tous les templates au démarrage : le premier email n'a pas à payer le parsing,
+     * et un template qui ne se parse pas fait échouer le démarrage.
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:" + properties.getLocation() + "*" + SUFFIX);
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String template = filename.substring(0, filename.length() - SUFFIX.length());
+            try {
+                // Rendering with no variables parses the template into the cache
+                templateEngine.process(template, new Context(), Writer.nullWriter());
+            } catch (TemplateInputException e) {
+                // The template itself is broken: fail the startup rather than the first email
+                throw new IllegalStateException("Email template " + template + " cannot be parsed: " + e.getMessage(), e);
+            } catch (TemplateProcessingException e) {
+                // Parsed and cached; only expressions over the (empty) variables failed
+                log.debug("Template {} compiled, warm-up render failed: {}", template, e.getMessage());
+            }
+        }
+        log.info("Compiled {} email templates from {}", resources.length, properties.getLocation());
+    }
+    
+    public String render(String template, Map<String, Object> variables) {
+        Timer.Sample sample = meterRegistry != null ? Timer.start(meterRegistry) : null;
+        
+        Context context = new Context();
+        context.setVariables(variables);
+        
+        StringWriter buffer = buffers.get();
+        buffer.getBuffer().setLength(0);
+        try {
+            templateEngine.process(template, context, buffer);
+            return buffer.toString();
+        } finally {
+            if (buffer.getBuffer().capacity() > properties.getMaxBufferSize()) {
+                buffers.remove();
+            }
+            if (sample != null) {
+                sample.stop(meterRegistry.timer("email.template.render", "template", template));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.willbank.emailtemplates;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendu de l'email de transaction (celui de buildTransactionEmailTemplate) : renderer
+ * précompilé contre un moteur Thymeleaf sans cache, qui reparse le template à chaque email.
+ * <p>
+ * Not part of the test run: launch {@link #main} from the IDE, or
+ * {@code java -cp <test classpath> com.willbank.emailtemplates.EmailTemplateRendererBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateRendererBenchmark {
+    
+    private EmailTemplateRenderer renderer;
+    private TemplateEngine uncachedEngine;
+    private Map<String, Object> variables;
+    
+    @Setup
+    public void setUp() throws Exception {
+        renderer = new EmailTemplateRenderer(new EmailTemplateProperties(), null);
+        renderer.afterPropertiesSet();
+        
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix(new EmailTemplateProperties().getLocation());
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(false);
+        uncachedEngine = new TemplateEngine();
+        uncachedEngine.setTemplateResolver(resolver);
+        
+        variables = EmailTemplateRendererTest.transactionVariables("Amina", "TX-42");
+    }
+    
+    @Benchmark
+    public String precompiled() {
+        return renderer.render("transaction-email", variables);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String precompiledConcurrent() {
+        return renderer.render("transaction-email", variables);
+    }
+    
+    @Benchmark
+    public String parsedOnEveryRender() {
+        Context context = new Context();
+        context.setVariables(variables);
+        return uncachedEngine.process("transaction-email", context);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailTemplateRendererBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,125 @@
+package com.willbank.emailtemplates;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailTemplateRendererTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private EmailTemplateRenderer renderer;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        renderer = new EmailTemplateRenderer(new EmailTemplateProperties(), meterRegistry);
+        renderer.afterPropertiesSet();
+    }
+    
+    @Test
+    void rendersTransactionEmail() {
+        String html = renderer.render("transaction-email", transactionVariables("Amina", "TX-42"));
+        
+        assertThat(html)
+                .contains("Amina")
+                .contains("TX-42")
+                .contains("MAD")
+                .contains("op-deposit")
+                .contains("18/10/2026 à 09:30")
+                // Static CSS from the layout is copied as is
+                .contains("<style");
+        assertThat(meterRegistry.timer("email.template.render", "template", "transaction-email").count()).isEqualTo(1);
+    }
+    
+    @Test
+    void missingOptionalValueRendersAsEmptyField() {
+        String html = renderer.render("transaction-email", transactionVariables("Amina", null));
+        
+        assertThat(html).contains("Amina");
+    }
+    
+    @Test
+    void concurrentRendersDoNotShareTheirBuffers() throws Exception {
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                String name = "Client" + t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        String reference = name + "-" + i;
+                        String html = renderer.render("transaction-email", transactionVariables(name, reference));
+                        assertThat(html).contains(name).contains(reference);
+                        // One whole document: nothing from another thread's render interleaved
+                        assertThat(html.split("<html", -1)).hasSize(2);
+                        assertThat(html.strip()).endsWith("</html>");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void oversizedBufferIsNotKeptForReuse() {
+        EmailTemplateProperties properties = new EmailTemplateProperties();
+        properties.setInitialBufferSize(16);
+        properties.setMaxBufferSize(32);
+        EmailTemplateRenderer smallBuffers = new EmailTemplateRenderer(properties, null);
+        
+        String first = smallBuffers.render("transaction-email", transactionVariables("Amina", "TX-1"));
+        String second = smallBuffers.render("transaction-email", transactionVariables("Yassine", "TX-2"));
+        
+        assertThat(first).contains("TX-1").doesNotContain("TX-2");
+        assertThat(second).contains("TX-2").doesNotContain("TX-1");
+    }
+    
+    @Test
+    void unparseableTemplateFailsStartup() {
+        EmailTemplateProperties properties = new EmailTemplateProperties();
+        properties.setLocation("templates/broken/");
+        EmailTemplateRenderer broken = new EmailTemplateRenderer(properties, meterRegistry);
+        
+        assertThatThrownBy(broken::afterPropertiesSet)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("broken-email");
+    }
+    
+    static Map<String, Object> transactionVariables(String firstName, String reference) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("appName", "WillBank");
+        variables.put("firstName", firstName);
+        variables.put("operationIcon", "💰");
+        variables.put("operationClass", "op-deposit");
+        variables.put("operationText", "Dépôt");
+        variables.put("amount", new BigDecimal("1250.50"));
+        variables.put("accountNumber", "WB0000000042");
+        variables.put("transactionReference", reference);
+        variables.put("newBalance", new BigDecimal("8410.00"));
+        variables.put("transactionDate", LocalDateTime.of(2026, 10, 18, 9, 30));
+        return variables;
+    }
+}
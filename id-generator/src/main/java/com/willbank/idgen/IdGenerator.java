@@ -0,0 +1,13 @@
+package com.willbank.idgen;
+
+/**
+ * Générateur d'identifiants uniques sans accès base de données
+ */
+public interface IdGenerator {
+    
+    /**
+     * Returns a positive, time-ordered id, unique across all instances
+     * configured with distinct node ids.
+     */
+    long nextId();
+}
@@ -0,0 +1,27 @@
+package com.willbank.idgen;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Le node id n'est jamais déduit de l'hôte : deux instances qui tomberaient sur le même
+ * node id généreraient les mêmes identifiants. Sans app.id-generator.node-id, le
+ * démarrage échoue.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(IdGeneratorProperties.class)
+public class IdGeneratorAutoConfiguration {
+    
+    @Bean
+    @ConditionalOnMissingBean(IdGenerator.class)
+    public SnowflakeIdGenerator idGenerator(IdGeneratorProperties properties) {
+        if (properties.getNodeId() == null) {
+            throw new IllegalStateException(
+                "app.id-generator.node-id is not set: give each running instance a distinct node id (0-"
+                    + SnowflakeIdGenerator.MAX_NODE_ID + "), e.g. through ID_GENERATOR_NODE_ID");
+        }
+        return new SnowflakeIdGenerator(properties.getNodeId());
+    }
+}
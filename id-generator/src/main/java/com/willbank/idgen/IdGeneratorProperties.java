@@ -0,0 +1,12 @@
+package com.willbank.idgen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.id-generator")
+public class IdGeneratorProperties {
+    
+    // Required, unique per running instance of a service (0-1023)
+    private Long nodeId;
+}
@@ -0,0 +1,50 @@
+package com.willbank.idgen;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Identifiants de type Snowflake : 41 bits de timestamp (ms), 10 bits de node id, 12 bits de séquence.
+ * Monotones par instance, uniques entre instances tant que les node ids diffèrent.
+ */
+@Slf4j
+public class SnowflakeIdGenerator implements IdGenerator {
+    
+    // 2025-01-01T00:00:00Z
+    private static final long EPOCH = 1735689600000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    private final long nodeId;
+    private long lastTimestamp = -1L;
+    private long sequence = 0L;
+    
+    public SnowflakeIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.id-generator.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        log.info("Id generator initialized with node id {}", nodeId);
+    }
+    
+    @Override
+    public synchronized long nextId() {
+        // Never go back in time, even if the system clock does
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // Sequence exhausted for this millisecond: borrow the next one instead of spinning
+                timestamp = lastTimestamp + 1;
+            }
+        } else {
+            sequence = 0L;
+        }
+        lastTimestamp = timestamp;
+        
+        return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS))
+                | (nodeId << SEQUENCE_BITS)
+                | sequence;
+    }
+}
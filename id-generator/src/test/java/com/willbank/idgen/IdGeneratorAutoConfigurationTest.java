@@ -0,0 +1,35 @@
+package com.willbank.idgen;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdGeneratorAutoConfigurationTest {
+    
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(IdGeneratorAutoConfiguration.class));
+    
+    @Test
+    void startupFailsWithoutNodeId() {
+        contextRunner.run(context -> assertThat(context).hasFailed()
+                .getFailure().hasRootCauseInstanceOf(IllegalStateException.class));
+    }
+    
+    @Test
+    void startupFailsWithAnEmptyNodeId() {
+        // What ${ID_GENERATOR_NODE_ID:} resolves to when the variable is not set
+        contextRunner.withPropertyValues("app.id-generator.node-id=")
+                .run(context -> assertThat(context).hasFailed());
+    }
+    
+    @Test
+    void generatorUsesTheConfiguredNodeId() {
+        contextRunner.withPropertyValues("app.id-generator.node-id=42")
+                .run(context -> {
+                    long id = context.getBean(IdGenerator.class).nextId();
+                    assertThat((id >> 12) & SnowflakeIdGenerator.MAX_NODE_ID).isEqualTo(42);
+                });
+    }
+}
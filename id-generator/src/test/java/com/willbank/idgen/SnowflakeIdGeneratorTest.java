@@ -0,0 +1,83 @@
+package com.willbank.idgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+    
+    private static final int THREADS = 64;
+    private static final int IDS_PER_THREAD = 20_000;
+    
+    @Test
+    void idsAreUniqueAndIncreasingAcrossConcurrentCallers() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long previous = Long.MIN_VALUE;
+                    boolean increasing = true;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = generator.nextId();
+                        increasing &= id > previous;
+                        previous = id;
+                        ids.add(id);
+                    }
+                    return increasing;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        // More ids than one millisecond's sequence can hold: the borrowed milliseconds never collide
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+    }
+    
+    @Test
+    void nodeIdIsEncodedSoNodesNeverCollide() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 10_000; i++) {
+            long a = first.nextId();
+            long b = second.nextId();
+            assertThat((a >> 12) & SnowflakeIdGenerator.MAX_NODE_ID).isEqualTo(1);
+            assertThat((b >> 12) & SnowflakeIdGenerator.MAX_NODE_ID).isEqualTo(SnowflakeIdGenerator.MAX_NODE_ID);
+            ids.add(a);
+            ids.add(b);
+        }
+        assertThat(ids).hasSize(20_000);
+    }
+    
+    @Test
+    void idsArePositive() {
+        assertThat(new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID).nextId()).isPositive();
+    }
+    
+    @Test
+    void rejectsOutOfRangeNodeIds() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
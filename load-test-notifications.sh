@@ -0,0 +1,62 @@
+#!/bin/bash
+
+# Test de charge du consommateur de notification-service.
+# Publie N AccountCreditedEvent sur l'exchange willbank.events via l'API HTTP de
+# management RabbitMQ, puis mesure le débit de consommation (messages/seconde)
+# à partir de la métrique notifications.events.consumed exposée par l'actuator.
+#
+# Usage: ./load-test-notifications.sh [messages] [parallel-publishers]
+# Le débit de publication HTTP peut plafonner le résultat : augmenter le
+# parallélisme si la file willbank.notifications.account-credited reste vide pendant le test.
+
+MESSAGES=${1:-10000}
+PARALLEL=${2:-16}
+RABBIT_API=${RABBIT_API:-http://localhost:15672/api}
+RABBIT_USER=${RABBIT_USER:-guest}
+RABBIT_PASS=${RABBIT_PASS:-guest}
+NOTIFICATION_URL=${NOTIFICATION_URL:-http://localhost:8084}
+METRIC="$NOTIFICATION_URL/actuator/metrics/notifications.events.consumed?tag=type:AccountCreditedEvent"
+
+consumed() {
+    curl -s "$METRIC" | grep -o '"value":[0-9.E]*' | head -1 | cut -d: -f2 | awk '{printf "%d", $1}'
+}
+
+publish() {
+    local i=$1
+    curl -s -o /dev/null -u "$RABBIT_USER:$RABBIT_PASS" \
+        -H "Content-Type: application/json" \
+        -X POST "$RABBIT_API/exchanges/%2F/willbank.events/publish" \
+        -d "{\"properties\":{\"content_type\":\"application/json\",\"headers\":{\"__TypeId__\":\"com.willbank.account.event.AccountCreditedEvent\"}},\"routing_key\":\"willbank.events.account.credited\",\"payload\":\"{\\\"accountId\\\":$((i % 1000 + 1)),\\\"amount\\\":10.00,\\\"transactionReference\\\":\\\"LOAD-$i\\\"}\",\"payload_encoding\":\"string\"}"
+}
+export -f publish
+export RABBIT_API RABBIT_USER RABBIT_PASS
+
+echo "========================================"
+echo "Test de charge notification-service"
+echo "========================================"
+
+START_COUNT=$(consumed)
+START_COUNT=${START_COUNT:-0}
+TARGET=$((START_COUNT + MESSAGES))
+
+echo "Publication de $MESSAGES événements ($PARALLEL publishers)..."
+START=$(date +%s.%N)
+seq 1 "$MESSAGES" | xargs -P "$PARALLEL" -I{} bash -c 'publish {}'
+PUBLISHED=$(date +%s.%N)
+echo "Publiés en $(echo "$PUBLISHED - $START" | bc) s"
+
+echo "Attente de la consommation..."
+while true; do
+    COUNT=$(consumed)
+    COUNT=${COUNT:-0}
+    if [ "$COUNT" -ge "$TARGET" ]; then
+        break
+    fi
+    sleep 0.2
+done
+END=$(date +%s.%N)
+
+ELAPSED=$(echo "$END - $START" | bc)
+echo ""
+echo "Consommés : $MESSAGES messages en $ELAPSED s"
+echo "Débit     : $(echo "scale=1; $MESSAGES / $ELAPSED" | bc) messages/seconde"
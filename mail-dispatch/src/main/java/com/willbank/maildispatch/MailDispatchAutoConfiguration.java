@@ -0,0 +1,53 @@
+package com.willbank.maildispatch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.util.Properties;
+
+/**
+ * Remplace le JavaMailSender de Spring Boot (une connexion SMTP par envoi) par
+ * {@link PooledMailSender}, configuré avec les mêmes propriétés spring.mail.*.
+ */
+@AutoConfiguration(before = MailSenderAutoConfiguration.class)
+@ConditionalOnClass(MimeMessage.class)
+@ConditionalOnProperty(prefix = "spring.mail", name = "host")
+@EnableConfigurationProperties({MailProperties.class, MailDispatchProperties.class})
+public class MailDispatchAutoConfiguration {
+    
+    @Bean
+    public PooledMailSender mailSender(MailProperties mailProperties, MailDispatchProperties properties) {
+        PooledMailSender sender = new PooledMailSender(properties);
+        sender.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            sender.setPort(mailProperties.getPort());
+        }
+        sender.setUsername(mailProperties.getUsername());
+        sender.setPassword(mailProperties.getPassword());
+        sender.setProtocol(mailProperties.getProtocol());
+        if (mailProperties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+        }
+        if (!mailProperties.getProperties().isEmpty()) {
+            Properties javaMailProperties = new Properties();
+            javaMailProperties.putAll(mailProperties.getProperties());
+            sender.setJavaMailProperties(javaMailProperties);
+        }
+        return sender;
+    }
+    
+    @Bean
+    public MailDispatcher mailDispatcher(PooledMailSender mailSender, MailDispatchProperties properties,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        return new MailDispatcher(mailSender, properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,37 @@
+package com.willbank.maildispatch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.mail-dispatch")
+public class MailDispatchProperties {
+    
+    // Authenticated SMTP connections kept open, one dispatcher thread each
+    private int poolSize = 2;
+    
+    // Messages sent back to back on one connection
+    private int batchSize = 20;
+    
+    private int queueCapacity = 1000;
+    
+    // How long a caller waits for room in a full queue before the send is rejected
+    private Duration submitTimeout = Duration.ofSeconds(5);
+    
+    // Connections idle for longer are reopened: providers drop them on their side
+    private Duration maxIdle = Duration.ofSeconds(30);
+    
+    // Messages per second for any SMTP host not listed in rateLimits, 0 = unlimited
+    private double defaultRateLimit = 10;
+    
+    // Messages per second per SMTP host (e.g. "[smtp.gmail.com]": 10)
+    private Map<String, Double> rateLimits = new HashMap<>();
+    
+    public double rateLimitFor(String host) {
+        return host != null ? rateLimits.getOrDefault(host, defaultRateLimit) : defaultRateLimit;
+    }
+}
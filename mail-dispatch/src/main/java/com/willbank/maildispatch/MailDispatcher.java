@@ -0,0 +1,164 @@
+package com.willbank.maildispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File d'envoi des emails : les messages soumis par tous les threads sont regroupés
+ * par lots de batch-size et chaque lot part sur une seule connexion du pool.
+ * La file est bornée : quand elle est pleine, l'appelant attend puis est refusé.
+ */
+@Slf4j
+public class MailDispatcher implements DisposableBean {
+    
+    private final PooledMailSender mailSender;
+    private final MailDispatchProperties properties;
+    private final BlockingQueue<PendingMail> queue;
+    private final ExecutorService workers;
+    private volatile boolean running = true;
+    
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    
+    public MailDispatcher(PooledMailSender mailSender, MailDispatchProperties properties, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getPoolSize(),
+                runnable -> new Thread(runnable, "mail-dispatch-" + threadCount.incrementAndGet()));
+        for (int i = 0; i < properties.getPoolSize(); i++) {
+            workers.execute(this::drain);
+        }
+        
+        this.sentCounter = Counter.builder("mail.dispatch.sent")
+                .description("Emails accepted by the SMTP server")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.dispatch.failed")
+                .description("Emails that could not be sent")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("mail.dispatch.batch")
+                .description("Time to send one batch on one SMTP connection")
+                .register(meterRegistry);
+        Gauge.builder("mail.dispatch.queued", queue, BlockingQueue::size)
+                .description("Emails waiting for an SMTP connection")
+                .register(meterRegistry);
+    }
+    
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            if (!running || !queue.offer(new PendingMail(message, result),
+                    properties.getSubmitTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                result.completeExceptionally(new RejectedExecutionException("Mail dispatch queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+    
+    /**
+     * Envoie le message avec le prochain lot et attend le résultat.
+     */
+    public void send(MimeMessage message) throws MailException {
+        try {
+            submit(message).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof MailException mailException) {
+                throw mailException;
+            }
+            throw new MailSendException("Failed to send email", e.getCause());
+        }
+    }
+    
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+    
+    private void drain() {
+        List<PendingMail> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMail first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                batchTimer.record(() -> sendBatch(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Mail dispatch worker error: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void sendBatch(List<PendingMail> batch) {
+        MimeMessage[] messages = batch.stream().map(PendingMail::message).toArray(MimeMessage[]::new);
+        try {
+            mailSender.send(messages);
+            batch.forEach(pending -> pending.result().complete(null));
+            sentCounter.increment(batch.size());
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (PendingMail pending : batch) {
+                // No per-message failures means the whole batch failed (e.g. no connection)
+                Exception failure = failedMessages.isEmpty() ? e : failedMessages.get(pending.message());
+                if (failure != null) {
+                    pending.result().completeExceptionally(failure);
+                    failedCounter.increment();
+                } else {
+                    pending.result().complete(null);
+                    sentCounter.increment();
+                }
+            }
+            log.warn("{} of {} emails failed in batch: {}", failedMessages.isEmpty() ? batch.size() : failedMessages.size(),
+                batch.size(), e.getMessage());
+        } catch (Exception e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            failedCounter.increment(batch.size());
+            log.warn("Email batch of {} failed: {}", batch.size(), e.getMessage());
+        }
+    }
+    
+    @Override
+    public void destroy() throws InterruptedException {
+        // Queued emails are still sent before the workers stop
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+    
+    private record PendingMail(MimeMessage message, CompletableFuture<Void> result) {
+    }
+}
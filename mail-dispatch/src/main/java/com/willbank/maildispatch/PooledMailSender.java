@@ -0,0 +1,171 @@
+package com.willbank.maildispatch;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * JavaMailSender qui garde ses connexions SMTP ouvertes et authentifiées au lieu d'en
+ * ouvrir une (TCP + STARTTLS + AUTH) à chaque envoi. Un appel à send(MimeMessage...)
+ * emprunte une connexion du pool et y envoie tous ses messages à la suite.
+ */
+@Slf4j
+public class PooledMailSender extends JavaMailSenderImpl implements DisposableBean {
+    
+    private final MailDispatchProperties properties;
+    private final Semaphore permits;
+    private final BlockingQueue<PooledTransport> idleTransports;
+    private SmtpRateLimiter rateLimiter;
+    
+    public PooledMailSender(MailDispatchProperties properties) {
+        this.properties = properties;
+        this.permits = new Semaphore(properties.getPoolSize());
+        this.idleTransports = new ArrayBlockingQueue<>(properties.getPoolSize());
+    }
+    
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport transport = borrow();
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                MimeMessage mimeMessage = mimeMessages[i];
+                Object original = originalMessages != null ? originalMessages[i] : mimeMessage;
+                try {
+                    if (transport == null) {
+                        transport = new PooledTransport(connectTransport());
+                    }
+                    send(transport, mimeMessage);
+                } catch (Exception e) {
+                    failedMessages.put(original, e);
+                    if (transport != null && !transport.transport().isConnected()) {
+                        // Broken connection: the next message of the batch gets a new one
+                        close(transport);
+                        transport = null;
+                    }
+                }
+            }
+        } finally {
+            release(transport);
+        }
+        
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+    
+    private void send(PooledTransport transport, MimeMessage mimeMessage) throws MessagingException, InterruptedException {
+        // Same preparation as JavaMailSenderImpl
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            mimeMessage.setHeader("Message-ID", messageId);
+        }
+        Address[] addresses = mimeMessage.getAllRecipients();
+        
+        rateLimiter().acquire();
+        transport.transport().sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+        transport.touch();
+    }
+    
+    /**
+     * Une connexion du pool, rouverte si elle est restée inactive trop longtemps.
+     */
+    private PooledTransport borrow() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+        }
+        PooledTransport transport = idleTransports.poll();
+        if (transport != null && transport.idleMillis() > properties.getMaxIdle().toMillis()) {
+            close(transport);
+            transport = null;
+        }
+        if (transport == null) {
+            try {
+                transport = new PooledTransport(connectTransport());
+            } catch (AuthenticationFailedException e) {
+                permits.release();
+                throw new MailAuthenticationException(e);
+            } catch (MessagingException e) {
+                permits.release();
+                throw new MailSendException("Mail server connection failed", e);
+            }
+        }
+        return transport;
+    }
+    
+    private void release(@Nullable PooledTransport transport) {
+        if (transport != null && !idleTransports.offer(transport)) {
+            close(transport);
+        }
+        permits.release();
+    }
+    
+    // The host is only known once the mail properties have been applied
+    private synchronized SmtpRateLimiter rateLimiter() {
+        if (rateLimiter == null) {
+            rateLimiter = new SmtpRateLimiter(properties.rateLimitFor(getHost()));
+        }
+        return rateLimiter;
+    }
+    
+    private void close(PooledTransport transport) {
+        try {
+            transport.transport().close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close SMTP transport: {}", e.getMessage());
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        PooledTransport transport;
+        while ((transport = idleTransports.poll()) != null) {
+            close(transport);
+        }
+    }
+    
+    private static final class PooledTransport {
+        
+        private final Transport transport;
+        private long lastUsed = System.currentTimeMillis();
+        
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+        
+        Transport transport() {
+            return transport;
+        }
+        
+        void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+        
+        long idleMillis() {
+            return System.currentTimeMillis() - lastUsed;
+        }
+    }
+}
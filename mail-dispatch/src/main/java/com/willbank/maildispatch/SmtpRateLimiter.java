@@ -0,0 +1,34 @@
+package com.willbank.maildispatch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite le débit vers un fournisseur SMTP : les envois sont espacés régulièrement
+ * (un créneau toutes les 1/permitsPerSecond secondes), partagés entre toutes les connexions.
+ */
+public class SmtpRateLimiter {
+    
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+    
+    public SmtpRateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+    }
+    
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+    
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long slot = Math.max(nextFreeNanos, now);
+        nextFreeNanos = slot + intervalNanos;
+        return slot - now;
+    }
+}
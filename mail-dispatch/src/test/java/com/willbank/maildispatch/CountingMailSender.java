@@ -0,0 +1,47 @@
+package com.willbank.maildispatch;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PooledMailSender pointed at a local test SMTP server, counting the SMTP connections it opens.
+ */
+class CountingMailSender extends PooledMailSender {
+    
+    static final String USER = "bank";
+    static final String PASSWORD = "secret";
+    static final String FROM = "bank@willbank.test";
+    
+    private final AtomicInteger connections = new AtomicInteger();
+    
+    CountingMailSender(MailDispatchProperties properties, int port) {
+        super(properties);
+        setHost("localhost");
+        setPort(port);
+        setUsername(USER);
+        setPassword(PASSWORD);
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.put("mail.smtp.auth", "true");
+        setJavaMailProperties(javaMailProperties);
+    }
+    
+    static MailDispatchProperties unlimited(int poolSize) {
+        MailDispatchProperties properties = new MailDispatchProperties();
+        properties.setPoolSize(poolSize);
+        properties.setDefaultRateLimit(0);
+        return properties;
+    }
+    
+    @Override
+    protected Transport connectTransport() throws MessagingException {
+        connections.incrementAndGet();
+        return super.connectTransport();
+    }
+    
+    int connections() {
+        return connections.get();
+    }
+}
@@ -0,0 +1,100 @@
+package com.willbank.maildispatch;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit d'envoi vers un serveur SMTP local (GreenMail), 16 threads appelants :
+ * MailDispatcher (lots sur un pool de connexions authentifiées) contre un
+ * JavaMailSenderImpl classique qui ouvre une connexion (TCP + AUTH) par email.
+ * <p>
+ * Not part of the test run: launch {@link #main} from the IDE, or
+ * {@code java -cp <test classpath> com.willbank.maildispatch.MailDispatchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class MailDispatchBenchmark {
+    
+    private GreenMail greenMail;
+    private CountingMailSender pooledSender;
+    private MailDispatcher dispatcher;
+    private JavaMailSenderImpl plainSender;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP).withConfiguration(GreenMailConfiguration.aConfig()
+                .withUser(CountingMailSender.FROM, CountingMailSender.USER, CountingMailSender.PASSWORD));
+        greenMail.start();
+        int port = greenMail.getSmtp().getPort();
+        
+        MailDispatchProperties properties = CountingMailSender.unlimited(4);
+        properties.setQueueCapacity(10_000);
+        pooledSender = new CountingMailSender(properties, port);
+        dispatcher = new MailDispatcher(pooledSender, properties, new SimpleMeterRegistry());
+        
+        plainSender = new JavaMailSenderImpl();
+        plainSender.setHost("localhost");
+        plainSender.setPort(port);
+        plainSender.setUsername(CountingMailSender.USER);
+        plainSender.setPassword(CountingMailSender.PASSWORD);
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.put("mail.smtp.auth", "true");
+        plainSender.setJavaMailProperties(javaMailProperties);
+    }
+    
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        // Received messages are kept in memory by GreenMail
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        dispatcher.destroy();
+        pooledSender.destroy();
+        greenMail.stop();
+    }
+    
+    @Benchmark
+    public void pooledDispatcher() throws Exception {
+        dispatcher.send(PooledMailSenderTest.message(pooledSender, "Pooled"));
+    }
+    
+    @Benchmark
+    public void connectionPerMessage() throws Exception {
+        plainSender.send(PooledMailSenderTest.message(pooledSender, "Plain"));
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MailDispatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,194 @@
+package com.willbank.maildispatch;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MailDispatcherTest {
+    
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig()
+                    .withUser(CountingMailSender.FROM, CountingMailSender.USER, CountingMailSender.PASSWORD));
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @Test
+    void submissionsFromManyThreadsGoOutInBatchesOnThePool() throws Exception {
+        MailDispatchProperties properties = CountingMailSender.unlimited(2);
+        properties.setBatchSize(20);
+        CountingMailSender sender = new CountingMailSender(properties, greenMail.getSmtp().getPort());
+        MailDispatcher dispatcher = new MailDispatcher(sender, properties, meterRegistry);
+        
+        int threads = 64;
+        int perThread = 10;
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        CompletableFuture<Void> result = dispatcher.submit(
+                                PooledMailSenderTest.message(sender, "Thread " + thread + " #" + i));
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        
+        int total = threads * perThread;
+        assertThat(greenMail.getReceivedMessages()).hasSize(total);
+        assertThat(meterRegistry.counter("mail.dispatch.sent").count()).isEqualTo(total);
+        assertThat(sender.connections()).isLessThanOrEqualTo(2);
+        // Messages queued while a batch was on the wire left together
+        assertThat(meterRegistry.timer("mail.dispatch.batch").count()).isLessThan(total);
+        dispatcher.destroy();
+        sender.destroy();
+    }
+    
+    @Test
+    void fullQueueRejectsAfterTheSubmitTimeout() throws Exception {
+        MailDispatchProperties properties = CountingMailSender.unlimited(1);
+        properties.setQueueCapacity(1);
+        properties.setSubmitTimeout(Duration.ofMillis(50));
+        BlockingSender sender = new BlockingSender(properties);
+        MailDispatcher dispatcher = new MailDispatcher(sender, properties, meterRegistry);
+        
+        CompletableFuture<Void> first = dispatcher.submit(sender.createMimeMessage());
+        assertThat(sender.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> queued = dispatcher.submit(sender.createMimeMessage());
+        CompletableFuture<Void> rejected = dispatcher.submit(sender.createMimeMessage());
+        
+        assertThatThrownBy(rejected::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        
+        sender.release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        dispatcher.destroy();
+    }
+    
+    @Test
+    void onlyTheFailedMessagesOfABatchFail() throws Exception {
+        MailDispatchProperties properties = CountingMailSender.unlimited(1);
+        FailingSubjectSender sender = new FailingSubjectSender(properties, "fail");
+        MailDispatcher dispatcher = new MailDispatcher(sender, properties, meterRegistry);
+        
+        MimeMessage ok = sender.createMimeMessage();
+        ok.setSubject("ok");
+        MimeMessage ko = sender.createMimeMessage();
+        ko.setSubject("fail");
+        CompletableFuture<Void> sent = dispatcher.submit(ok);
+        CompletableFuture<Void> failed = dispatcher.submit(ko);
+        
+        sent.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(meterRegistry.counter("mail.dispatch.failed").count()).isEqualTo(1);
+        dispatcher.destroy();
+    }
+    
+    @Test
+    void shutdownSendsWhatIsAlreadyQueued() throws Exception {
+        MailDispatchProperties properties = CountingMailSender.unlimited(2);
+        CountingMailSender sender = new CountingMailSender(properties, greenMail.getSmtp().getPort());
+        MailDispatcher dispatcher = new MailDispatcher(sender, properties, meterRegistry);
+        
+        for (int i = 0; i < 30; i++) {
+            dispatcher.submit(PooledMailSenderTest.message(sender, "Queued " + i));
+        }
+        dispatcher.destroy();
+        
+        assertThat(greenMail.getReceivedMessages()).hasSize(30);
+        assertThat(dispatcher.submit(sender.createMimeMessage())).isCompletedExceptionally();
+        sender.destroy();
+    }
+    
+    /**
+     * Holds the first batch on the wire until released.
+     */
+    private static final class BlockingSender extends PooledMailSender {
+        
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        
+        BlockingSender(MailDispatchProperties properties) {
+            super(properties);
+        }
+        
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Rejects the messages with a given subject, the way PooledMailSender reports per-message failures.
+     */
+    private static final class FailingSubjectSender extends PooledMailSender {
+        
+        private final String failingSubject;
+        
+        FailingSubjectSender(MailDispatchProperties properties, String failingSubject) {
+            super(properties);
+            this.failingSubject = failingSubject;
+        }
+        
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+            for (MimeMessage message : mimeMessages) {
+                try {
+                    if (failingSubject.equals(message.getSubject())) {
+                        failedMessages.put(message, new MessagingException("550 rejected"));
+                    }
+                } catch (MessagingException e) {
+                    failedMessages.put(message, e);
+                }
+            }
+            if (!failedMessages.isEmpty()) {
+                throw new MailSendException(failedMessages);
+            }
+        }
+    }
+}
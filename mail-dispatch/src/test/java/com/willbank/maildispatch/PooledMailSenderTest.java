@@ -0,0 +1,132 @@
+package com.willbank.maildispatch;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PooledMailSenderTest {
+    
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig()
+                    .withUser(CountingMailSender.FROM, CountingMailSender.USER, CountingMailSender.PASSWORD));
+    
+    @Test
+    void batchIsSentOnASingleConnection() throws Exception {
+        CountingMailSender sender = newSender(CountingMailSender.unlimited(2));
+        
+        MimeMessage[] batch = new MimeMessage[50];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = message(sender, "Batch " + i);
+        }
+        sender.send(batch);
+        
+        assertThat(greenMail.getReceivedMessages()).hasSize(50);
+        assertThat(sender.connections()).isEqualTo(1);
+        sender.destroy();
+    }
+    
+    @Test
+    void sequentialSendsReuseTheIdleConnection() throws Exception {
+        CountingMailSender sender = newSender(CountingMailSender.unlimited(2));
+        
+        for (int i = 0; i < 5; i++) {
+            sender.send(message(sender, "Single " + i));
+        }
+        
+        assertThat(greenMail.getReceivedMessages()).hasSize(5);
+        assertThat(sender.connections()).isEqualTo(1);
+        sender.destroy();
+    }
+    
+    @Test
+    void connectionIdleForTooLongIsReopened() throws Exception {
+        MailDispatchProperties properties = CountingMailSender.unlimited(1);
+        properties.setMaxIdle(Duration.ofMillis(1));
+        CountingMailSender sender = newSender(properties);
+        
+        sender.send(message(sender, "First"));
+        Thread.sleep(20);
+        sender.send(message(sender, "Second"));
+        
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(sender.connections()).isEqualTo(2);
+        sender.destroy();
+    }
+    
+    @Test
+    void concurrentSendersNeverOpenMoreThanPoolSizeConnections() throws Exception {
+        CountingMailSender sender = newSender(CountingMailSender.unlimited(2));
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10; i++) {
+                        sender.send(message(sender, "Thread " + thread + " #" + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(greenMail.getReceivedMessages()).hasSize(threads * 10);
+        assertThat(sender.connections()).isLessThanOrEqualTo(2);
+        sender.destroy();
+    }
+    
+    @Test
+    void failedAuthenticationReleasesItsPoolSlot() throws Exception {
+        CountingMailSender sender = newSender(CountingMailSender.unlimited(1));
+        sender.setPassword("wrong");
+        
+        assertThatThrownBy(() -> sender.send(message(sender, "Rejected")))
+                .isInstanceOf(MailAuthenticationException.class);
+        
+        // With a pool of one, a leaked permit would block this send forever
+        sender.setPassword(CountingMailSender.PASSWORD);
+        sender.send(message(sender, "Accepted"));
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        sender.destroy();
+    }
+    
+    private CountingMailSender newSender(MailDispatchProperties properties) {
+        return new CountingMailSender(properties, greenMail.getSmtp().getPort());
+    }
+    
+    static MimeMessage message(PooledMailSender sender, String subject) throws Exception {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(CountingMailSender.FROM);
+        helper.setTo("client@willbank.test");
+        helper.setSubject(subject);
+        helper.setText("<p>" + subject + "</p>", true);
+        return message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.willbank.maildispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmtpRateLimiterTest {
+    
+    @Test
+    void spacesPermitsEvenly() throws Exception {
+        SmtpRateLimiter limiter = new SmtpRateLimiter(50);
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < 11; i++) {
+            limiter.acquire();
+        }
+        
+        // The first permit is immediate, the 10 next are 20 ms apart
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(190);
+    }
+    
+    @Test
+    void zeroMeansUnlimited() throws Exception {
+        SmtpRateLimiter limiter = new SmtpRateLimiter(0);
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            limiter.acquire();
+        }
+        
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+    }
+}
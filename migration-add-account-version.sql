@@ -0,0 +1,11 @@
+-- Migration script to add the optimistic-locking version column to accounts
+-- Execute this script after the initial database setup
+
+USE account_db;
+
+-- Add version column if it doesn't exist (existing rows start at 0)
+ALTER TABLE accounts
+ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0
+AFTER updated_at;
+
+SELECT 'Migration completed: version column added to accounts successfully!' AS Status;
@@ -0,0 +1,48 @@
+-- Migration script to create and backfill the per-account daily aggregates
+-- Execute this script after the initial database setup
+
+USE transaction_db;
+
+CREATE TABLE IF NOT EXISTS daily_account_aggregates (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    activity_date DATE NOT NULL,
+    flow_type VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(19,2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_aggregate_account_day_flow UNIQUE (account_id, activity_date, flow_type)
+);
+
+CREATE TABLE IF NOT EXISTS aggregated_transactions (
+    transaction_id BIGINT NOT NULL PRIMARY KEY,
+    aggregated_at DATETIME(6) NOT NULL
+);
+
+-- Mark existing completed transactions first so the listener ignores any redelivery
+INSERT IGNORE INTO aggregated_transactions (transaction_id, aggregated_at)
+SELECT t.id, NOW(6)
+FROM transactions t
+WHERE t.status = 'COMPLETED';
+
+-- Backfill: deposits, withdrawals and outgoing transfers on the source account,
+-- incoming transfers on the destination account
+INSERT INTO daily_account_aggregates (account_id, activity_date, flow_type, total_amount, transaction_count, updated_at)
+SELECT flows.account_id, flows.activity_date, flows.flow_type, SUM(flows.amount), COUNT(*), NOW(6)
+FROM (
+    SELECT t.source_account_id AS account_id, DATE(t.created_at) AS activity_date,
+           CASE t.type WHEN 'TRANSFER' THEN 'TRANSFER_OUT' ELSE t.type END AS flow_type,
+           t.amount
+    FROM transactions t
+    WHERE t.status = 'COMPLETED'
+    UNION ALL
+    SELECT t.destination_account_id, DATE(t.created_at), 'TRANSFER_IN', t.amount
+    FROM transactions t
+    WHERE t.status = 'COMPLETED' AND t.type = 'TRANSFER' AND t.destination_account_id IS NOT NULL
+) flows
+GROUP BY flows.account_id, flows.activity_date, flows.flow_type
+ON DUPLICATE KEY UPDATE total_amount = VALUES(total_amount),
+                        transaction_count = VALUES(transaction_count),
+                        updated_at = VALUES(updated_at);
+
+SELECT 'Migration completed: daily_account_aggregates backfilled successfully!' AS Status;
@@ -0,0 +1,33 @@
+-- Migration script to turn the balance journal into a double-entry journal
+-- Execute this script after migration-add-ledger.sql
+
+USE account_db;
+
+ALTER TABLE ledger_entry ADD COLUMN journal_id BIGINT NULL AFTER id;
+
+-- Existing entries: one journal each...
+UPDATE ledger_entry SET journal_id = id WHERE journal_id IS NULL;
+
+-- ...except the legs of a batch posting that already balance, which share one journal
+UPDATE ledger_entry e
+JOIN (
+    SELECT reference, MIN(id) AS journal_id
+    FROM ledger_entry
+    WHERE reference IS NOT NULL AND reference <> 'OPENING'
+    GROUP BY reference
+    HAVING SUM(amount) = 0
+) balanced ON e.reference = balanced.reference
+SET e.journal_id = balanced.journal_id;
+
+-- Every journal that does not net to zero is balanced against the cash account (-1)
+INSERT INTO ledger_entry (journal_id, account_id, amount, reference, created_at)
+SELECT journal_id, -1, -SUM(amount), MIN(reference), MIN(created_at)
+FROM ledger_entry
+WHERE account_id <> -1
+GROUP BY journal_id
+HAVING SUM(amount) <> 0;
+
+ALTER TABLE ledger_entry MODIFY journal_id BIGINT NOT NULL;
+CREATE INDEX idx_ledger_journal ON ledger_entry (journal_id);
+
+SELECT 'Migration completed: ledger_entry is now a balanced double-entry journal!' AS Status;
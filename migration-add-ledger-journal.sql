@@ -0,0 +1,21 @@
+-- Migration script to make batch postings idempotent on their reference
+-- Execute this script after migration-add-double-entry-ledger.sql
+
+USE account_db;
+
+CREATE TABLE IF NOT EXISTS ledger_journal (
+    id BIGINT NOT NULL PRIMARY KEY,
+    reference VARCHAR(255) NULL,
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_ledger_journal_reference UNIQUE (reference)
+);
+
+-- Existing journals keep their reference: a late retry of an old transaction is not applied again
+INSERT IGNORE INTO ledger_journal (id, reference, created_at)
+SELECT journal_id,
+       CASE WHEN MIN(reference) = 'OPENING' THEN NULL ELSE MIN(reference) END,
+       MIN(created_at)
+FROM ledger_entry
+GROUP BY journal_id;
+
+SELECT 'Migration completed: postings are now idempotent on their reference!' AS Status;
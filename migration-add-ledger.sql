@@ -0,0 +1,35 @@
+-- Migration script to create the balance journal and snapshot tables
+-- Execute this script after the initial database setup
+
+USE account_db;
+
+CREATE TABLE IF NOT EXISTS ledger_entry (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    amount DECIMAL(19,2) NOT NULL,
+    reference VARCHAR(255) NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_ledger_account_created (account_id, created_at),
+    INDEX idx_ledger_account_id (account_id, id)
+);
+
+CREATE TABLE IF NOT EXISTS balance_snapshot (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    balance DECIMAL(19,2) NOT NULL,
+    last_entry_id BIGINT NOT NULL,
+    snapshot_at DATETIME(6) NOT NULL,
+    INDEX idx_snapshot_account_at (account_id, snapshot_at),
+    INDEX idx_snapshot_account_entry (account_id, last_entry_id)
+);
+
+-- Seed one opening entry per existing account so the journal matches current balances.
+-- Dated now: the history before the migration is unknown, and dating the current balance
+-- at account creation would report it for every earlier date
+INSERT INTO ledger_entry (account_id, amount, reference, created_at)
+SELECT a.id, a.balance, 'OPENING', NOW(6)
+FROM accounts a
+WHERE a.balance <> 0
+  AND NOT EXISTS (SELECT 1 FROM ledger_entry e WHERE e.account_id = a.id);
+
+SELECT 'Migration completed: ledger_entry and balance_snapshot tables created successfully!' AS Status;
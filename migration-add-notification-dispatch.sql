@@ -0,0 +1,18 @@
+-- Migration script to add the dispatch pipeline columns to the notifications table
+-- Execute this script after the initial database setup
+
+USE notification_db;
+
+ALTER TABLE notifications
+    ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS next_attempt_at DATETIME(6) NULL,
+    ADD COLUMN IF NOT EXISTS last_error VARCHAR(500) NULL;
+
+-- Hibernate created status as a MySQL ENUM without the new PROCESSING value
+ALTER TABLE notifications MODIFY COLUMN status VARCHAR(20) NOT NULL;
+
+UPDATE notifications SET next_attempt_at = created_at WHERE status = 'PENDING' AND next_attempt_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_notification_dispatch ON notifications(status, type, next_attempt_at);
+
+SELECT 'Migration completed: notification dispatch columns added successfully!' AS Status;
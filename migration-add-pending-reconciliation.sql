@@ -0,0 +1,9 @@
+-- Migration script to add the index used by the reconciliation of PENDING transactions
+-- Execute this script after migration-add-transaction-indexes.sql
+
+USE transaction_db;
+
+-- TransactionReconciler reads the oldest PENDING rows: a range scan instead of a full table scan
+CREATE INDEX IF NOT EXISTS idx_tx_status_created ON transactions(status, created_at);
+
+SELECT 'Migration completed: pending transaction reconciliation index added successfully!' AS Status;
@@ -0,0 +1,10 @@
+-- Migration script to add the index used by the global transaction history
+-- Execute this script after migration-add-transaction-indexes.sql
+
+USE transaction_db;
+
+-- findPage (keyset pages) and streamAll (NDJSON export) read the whole table in
+-- (created_at DESC, id DESC) order: a backward index scan instead of a filesort
+CREATE INDEX IF NOT EXISTS idx_tx_created_id ON transactions(created_at, id);
+
+SELECT 'Migration completed: transaction history index added successfully!' AS Status;
@@ -0,0 +1,11 @@
+-- Migration script to add account history indexes to the transactions table
+-- Execute this script after the initial database setup
+
+USE transaction_db;
+
+-- (account, created_at) indexes serve the per-account history queries:
+-- each branch of the UNION ALL is an index range scan already ordered by date
+CREATE INDEX IF NOT EXISTS idx_tx_source_created ON transactions(source_account_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_tx_destination_created ON transactions(destination_account_id, created_at);
+
+SELECT 'Migration completed: account history indexes added successfully!' AS Status;
@@ -1,28 +1,96 @@
 package com.willbank.notification.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Topologie RabbitMQ de notification-service :
+ * <ul>
+ *   <li>une file durable par type d'événement, liée à willbank.events sur sa routing key ;</li>
+ *   <li>un message rejeté part dans l'exchange de dead-letter avec la routing key
+ *       {@code <file>.retry}, vers la file de retry du même type, qui le renvoie dans la file
+ *       d'origine après retry.delay-ms (TTL) ;</li>
+ *   <li>après max-attempts, le listener le dépose dans la file parking-lot, rejouable par l'API admin.</li>
+ * </ul>
+ */
 @Configuration
 public class RabbitMQConfig {
     
     @Value("${rabbitmq.exchange.name}")
     private String exchangeName;
     
-    @Value("${rabbitmq.queue.name}")
-    private String queueName;
+    @Value("${rabbitmq.exchange.dead-letter}")
+    private String deadLetterExchangeName;
+    
+    @Value("${rabbitmq.exchange.parking-lot}")
+    private String parkingLotExchangeName;
+    
+    @Value("${rabbitmq.queue.transaction-created}")
+    private String transactionCreatedQueue;
+    
+    @Value("${rabbitmq.queue.account-credited}")
+    private String accountCreditedQueue;
+    
+    @Value("${rabbitmq.queue.account-debited}")
+    private String accountDebitedQueue;
+    
+    @Value("${rabbitmq.queue.client-updated}")
+    private String clientUpdatedQueue;
+    
+    @Value("${rabbitmq.queue.parking-lot}")
+    private String parkingLotQueue;
+    
+    @Value("${rabbitmq.routing.transaction-created}")
+    private String transactionCreatedRoutingKey;
+    
+    @Value("${rabbitmq.routing.account-credited}")
+    private String accountCreditedRoutingKey;
+    
+    @Value("${rabbitmq.routing.account-debited}")
+    private String accountDebitedRoutingKey;
+    
+    @Value("${rabbitmq.routing.client-updated}")
+    private String clientUpdatedRoutingKey;
+    
+    @Value("${app.notifications.retry.delay-ms:10000}")
+    private long retryDelayMs;
+    
+    // 0 = one consumer per available core
+    @Value("${app.notifications.listener.concurrency:0}")
+    private int concurrency;
+    
+    @Value("${app.notifications.listener.max-concurrency:0}")
+    private int maxConcurrency;
     
-    @Value("${rabbitmq.routing.pattern}")
-    private String routingPattern;
+    @Value("${app.notifications.listener.prefetch:250}")
+    private int prefetch;
+    
+    @Value("${app.notifications.listener.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${app.notifications.listener.receive-timeout-ms:100}")
+    private long receiveTimeoutMs;
     
     @Bean
     public TopicExchange topicExchange() {
@@ -30,13 +98,55 @@ public class RabbitMQConfig {
     }
     
     @Bean
-    public Queue queue() {
-        return new Queue(queueName, true);
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(deadLetterExchangeName);
+    }
+    
+    @Bean
+    public FanoutExchange parkingLotExchange() {
+        return new FanoutExchange(parkingLotExchangeName);
+    }
+    
+    @Bean
+    public Queue parkingLotQueue() {
+        return QueueBuilder.durable(parkingLotQueue).build();
+    }
+    
+    @Bean
+    public Binding parkingLotBinding(Queue parkingLotQueue, FanoutExchange parkingLotExchange) {
+        return BindingBuilder.bind(parkingLotQueue).to(parkingLotExchange);
     }
     
     @Bean
-    public Binding binding(Queue queue, TopicExchange topicExchange) {
-        return BindingBuilder.bind(queue).to(topicExchange).with(routingPattern);
+    public Declarables eventQueues(TopicExchange topicExchange, DirectExchange deadLetterExchange) {
+        Map<String, String> queuesByRoutingKey = Map.of(
+            transactionCreatedRoutingKey, transactionCreatedQueue,
+            accountCreditedRoutingKey, accountCreditedQueue,
+            accountDebitedRoutingKey, accountDebitedQueue,
+            clientUpdatedRoutingKey, clientUpdatedQueue
+        );
+        
+        List<Declarable> declarables = new ArrayList<>();
+        queuesByRoutingKey.forEach((routingKey, queueName) -> {
+            // Rejected messages are re-keyed to this type's retry queue: a fixed key, since after
+            // one retry (or a replay) the message no longer carries the original event routing key
+            String retryQueueName = queueName + ".retry";
+            Queue queue = QueueBuilder.durable(queueName)
+                    .deadLetterExchange(deadLetterExchangeName)
+                    .deadLetterRoutingKey(retryQueueName)
+                    .build();
+            // Expired retries go straight back to the work queue through the default exchange
+            Queue retryQueue = QueueBuilder.durable(retryQueueName)
+                    .ttl((int) retryDelayMs)
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(queueName)
+                    .build();
+            declarables.add(queue);
+            declarables.add(retryQueue);
+            declarables.add(BindingBuilder.bind(queue).to(topicExchange).with(routingKey));
+            declarables.add(BindingBuilder.bind(retryQueue).to(deadLetterExchange).with(retryQueueName));
+        });
+        return new Declarables(declarables);
     }
     
     @Bean
@@ -50,4 +160,30 @@ public class RabbitMQConfig {
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
         return rabbitTemplate;
     }
+    
+    /**
+     * Containers du listener des notifications : plusieurs consommateurs concurrents
+     * et livraison par lots (un lot = au plus batch-size messages ou receive-timeout).
+     * L'acquittement est manuel, message par message : un message en échec est rejeté
+     * vers sa file de retry sans jamais être remis en tête de file.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory notificationListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        
+        int consumers = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        factory.setConcurrentConsumers(consumers);
+        factory.setMaxConcurrentConsumers(Math.max(consumers, maxConcurrency));
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
 }
@@ -0,0 +1,34 @@
+package com.willbank.notification.controller;
+
+import com.willbank.notification.dto.ParkingLotReplayResult;
+import com.willbank.notification.service.ParkingLotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications/admin/parking-lot")
+@RequiredArgsConstructor
+@Tag(name = "Notification Administration", description = "APIs for inspecting and replaying parked events")
+public class ParkingLotController {
+    
+    private final ParkingLotService parkingLotService;
+    
+    @GetMapping
+    @Operation(summary = "Count parked events", description = "Returns the number of events waiting in the parking lot")
+    public ResponseEntity<Map<String, Long>> countParked() {
+        return ResponseEntity.ok(Map.of("parked", parkingLotService.count()));
+    }
+    
+    @PostMapping("/replay")
+    @Operation(summary = "Replay parked events", description = "Sends parked events back to their original queue, optionally only those of one queue")
+    public ResponseEntity<ParkingLotReplayResult> replay(
+            @RequestParam(value = "limit", defaultValue = "1000") int limit,
+            @RequestParam(value = "queue", required = false) String queue) {
+        return ResponseEntity.ok(parkingLotService.replay(limit, queue));
+    }
+}
@@ -0,0 +1,14 @@
+package com.willbank.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingLotReplayResult {
+    private int replayed;
+    private int skipped;    // Left in the parking lot (other queue, no original queue, or original queue deleted)
+    private long remaining;
+}
@@ -8,7 +8,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notification_dispatch", columnList = "status, type, next_attempt_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,12 +43,25 @@ public class Notification {
     @Column
     private LocalDateTime sentAt;
     
+    @Column(nullable = false)
+    private int attempts;
+    
+    // PENDING: earliest next try; PROCESSING: end of the worker's lease
+    @Column
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(length = 500)
+    private String lastError;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         if (status == null) {
             status = NotificationStatus.PENDING;
         }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
     }
     
     public enum NotificationType {
@@ -54,6 +69,6 @@ public class Notification {
     }
     
     public enum NotificationStatus {
-        PENDING, SENT, FAILED
+        PENDING, PROCESSING, SENT, FAILED
     }
 }
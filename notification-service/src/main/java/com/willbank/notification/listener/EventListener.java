@@ -1,146 +1,291 @@
 package com.willbank.notification.listener;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
 import com.willbank.notification.entity.Notification;
 import com.willbank.notification.event.AccountCreditedEvent;
 import com.willbank.notification.event.AccountDebitedEvent;
 import com.willbank.notification.event.ClientUpdatedEvent;
 import com.willbank.notification.event.TransactionCreatedEvent;
 import com.willbank.notification.service.NotificationService;
-import lombok.RequiredArgsConstructor;
+import com.willbank.notification.service.ParkingLotService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consommateur des files d'événements (une par type). Chaque message est routé vers
+ * son handler d'après le header __TypeId__ (nom simple de la classe de l'événement,
+ * quel que soit le package du service émetteur) ; les notifications d'un lot de
+ * messages sont enregistrées dans une seule transaction.
+ * Les acquittements sont individuels : un message en échec est rejeté vers sa file de
+ * retry, puis parqué après max-attempts ; un message illisible est parqué directement.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class EventListener {
     
+    private static final String TYPE_ID_HEADER = "__TypeId__";
+    
     private final NotificationService notificationService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ParkingLotService parkingLotService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, EventHandler<?>> handlers;
+    private final Counter retriedCounter;
+    
+    @Value("${app.notifications.retry.max-attempts:5}")
+    private int maxAttempts;
+    
+    public EventListener(NotificationService notificationService,
+                         ParkingLotService parkingLotService,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.parkingLotService = parkingLotService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.handlers = Map.of(
+            "TransactionCreatedEvent", new EventHandler<>(TransactionCreatedEvent.class, this::handleTransactionCreatedEvent),
+            "AccountCreditedEvent", new EventHandler<>(AccountCreditedEvent.class, this::handleAccountCreditedEvent),
+            "AccountDebitedEvent", new EventHandler<>(AccountDebitedEvent.class, this::handleAccountDebitedEvent),
+            "ClientUpdatedEvent", new EventHandler<>(ClientUpdatedEvent.class, this::handleClientUpdatedEvent)
+        );
+        this.retriedCounter = Counter.builder("notifications.events.retried")
+                .description("Events rejected to their retry queue")
+                .register(meterRegistry);
+    }
     
-    @RabbitListener(queues = "${rabbitmq.queue.name}")
-    public void handleTransactionCreatedEvent(TransactionCreatedEvent event) {
+    @RabbitListener(
+        queues = {
+            "${rabbitmq.queue.transaction-created}",
+            "${rabbitmq.queue.account-credited}",
+            "${rabbitmq.queue.account-debited}",
+            "${rabbitmq.queue.client-updated}"
+        },
+        containerFactory = "notificationListenerContainerFactory"
+    )
+    public void onMessages(List<Message> messages, Channel channel) throws IOException {
+        List<RoutedEvent> routed = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                routed.add(new RoutedEvent(message, route(message)));
+            } catch (Exception e) {
+                // Retrying cannot fix an unknown type or an unreadable payload
+                log.error("Unprocessable event: {}", e.getMessage());
+                park(channel, message, e.getMessage());
+            }
+        }
+        if (routed.isEmpty()) {
+            return;
+        }
+        
+        List<Notification> notifications = routed.stream().flatMap(event -> event.notifications().stream()).toList();
         try {
-            log.info("Received TransactionCreatedEvent: {}", event);
-            
-            String message = String.format(
-                "Transaction %s created: %s of %.2f on account %d",
-                event.getTransactionReference(),
-                event.getType(),
-                event.getAmount(),
-                event.getSourceAccountId()
-            );
-            
-            String eventData = objectMapper.writeValueAsString(event);
-            
-            notificationService.createNotification(
-                Notification.NotificationType.EMAIL,
-                "account-" + event.getSourceAccountId() + "@willbank.com",
-                message,
-                eventData
-            );
-            
-            notificationService.createNotification(
-                Notification.NotificationType.PUSH,
-                "device-token-" + event.getSourceAccountId(),
-                message,
-                eventData
-            );
-            
+            if (!notifications.isEmpty()) {
+                notificationService.createNotifications(notifications);
+            }
         } catch (Exception e) {
-            log.error("Error handling TransactionCreatedEvent: {}", e.getMessage(), e);
+            // Isolate the failing events: the others of the batch are saved one by one
+            log.warn("Batch of {} events failed, saving them one by one: {}", routed.size(), e.getMessage());
+            notifications.forEach(notification -> notification.setId(null));  // Ids from the rolled back inserts
+            routed.forEach(event -> saveOne(channel, event.message(), event.notifications()));
+            return;
+        }
+        for (RoutedEvent event : routed) {
+            ack(channel, event.message());
         }
+        log.debug("Consumed {} events, created {} notifications", messages.size(), notifications.size());
     }
     
-    @RabbitListener(queues = "${rabbitmq.queue.name}")
-    public void handleAccountCreditedEvent(AccountCreditedEvent event) {
+    private void saveOne(Channel channel, Message message, List<Notification> notifications) {
         try {
-            log.info("Received AccountCreditedEvent: {}", event);
-            
-            String message = String.format(
-                "Your account %d has been credited with %.2f. Transaction: %s",
-                event.getAccountId(),
-                event.getAmount(),
-                event.getTransactionReference()
-            );
-            
-            String eventData = objectMapper.writeValueAsString(event);
-            
-            notificationService.createNotification(
-                Notification.NotificationType.EMAIL,
-                "account-" + event.getAccountId() + "@willbank.com",
-                message,
-                eventData
-            );
-            
-            notificationService.createNotification(
-                Notification.NotificationType.PUSH,
-                "device-token-" + event.getAccountId(),
-                message,
-                eventData
-            );
-            
-        } catch (Exception e) {
-            log.error("Error handling AccountCreditedEvent: {}", e.getMessage(), e);
+            try {
+                if (!notifications.isEmpty()) {
+                    notificationService.createNotifications(notifications);
+                }
+                ack(channel, message);
+            } catch (Exception e) {
+                retryOrPark(channel, message, e);
+            }
+        } catch (IOException e) {
+            log.error("Could not settle message {}: {}", message.getMessageProperties().getDeliveryTag(), e.getMessage());
         }
     }
     
-    @RabbitListener(queues = "${rabbitmq.queue.name}")
-    public void handleAccountDebitedEvent(AccountDebitedEvent event) {
-        try {
-            log.info("Received AccountDebitedEvent: {}", event);
-            
-            String message = String.format(
-                "Your account %d has been debited with %.2f. Transaction: %s",
-                event.getAccountId(),
-                event.getAmount(),
-                event.getTransactionReference()
-            );
-            
-            String eventData = objectMapper.writeValueAsString(event);
-            
-            notificationService.createNotification(
-                Notification.NotificationType.EMAIL,
-                "account-" + event.getAccountId() + "@willbank.com",
-                message,
-                eventData
-            );
-            
-            notificationService.createNotification(
-                Notification.NotificationType.PUSH,
-                "device-token-" + event.getAccountId(),
-                message,
-                eventData
-            );
-            
-        } catch (Exception e) {
-            log.error("Error handling AccountDebitedEvent: {}", e.getMessage(), e);
+    private void retryOrPark(Channel channel, Message message, Exception cause) throws IOException {
+        long attempts = previousAttempts(message) + 1;
+        if (attempts >= maxAttempts) {
+            park(channel, message, "Failed after " + attempts + " attempts: " + cause.getMessage());
+        } else {
+            // Dead-lettered to the retry queue, redelivered after its TTL
+            channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, false);
+            retriedCounter.increment();
+            log.warn("Event from {} failed (attempt {}/{}), retrying later: {}",
+                message.getMessageProperties().getConsumerQueue(), attempts, maxAttempts, cause.getMessage());
         }
     }
     
-    @RabbitListener(queues = "${rabbitmq.queue.name}")
-    public void handleClientUpdatedEvent(ClientUpdatedEvent event) {
+    /**
+     * Parks the message then acks it. If it cannot be parked (broker unavailable), the
+     * message is requeued so that its delivery tag is settled either way.
+     */
+    private void park(Channel channel, Message message, String reason) throws IOException {
         try {
-            log.info("Received ClientUpdatedEvent: {}", event);
-            
-            String message = String.format(
-                "Your profile has been updated. Update type: %s",
-                event.getUpdateType()
-            );
-            
-            String eventData = objectMapper.writeValueAsString(event);
-            
-            notificationService.createNotification(
-                Notification.NotificationType.EMAIL,
-                event.getEmail(),
-                message,
-                eventData
-            );
-            
+            parkingLotService.park(message, reason);
         } catch (Exception e) {
-            log.error("Error handling ClientUpdatedEvent: {}", e.getMessage(), e);
+            log.error("Could not park message from {}, requeueing it: {}",
+                message.getMessageProperties().getConsumerQueue(), e.getMessage());
+            channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, true);
+            return;
+        }
+        ack(channel, message);
+    }
+    
+    /**
+     * Number of times the broker dead-lettered this message out of its current queue.
+     */
+    private long previousAttempts(Message message) {
+        List<Map<String, ?>> deaths = message.getMessageProperties().getXDeathHeader();
+        if (deaths == null) {
+            return 0;
+        }
+        String queue = message.getMessageProperties().getConsumerQueue();
+        return deaths.stream()
+                .filter(death -> queue.equals(String.valueOf(death.get("queue"))) && "rejected".equals(String.valueOf(death.get("reason"))))
+                .mapToLong(death -> death.get("count") instanceof Number count ? count.longValue() : 0)
+                .sum();
+    }
+    
+    private List<Notification> route(Message message) throws IOException {
+        Object typeId = message.getMessageProperties().getHeaders().get(TYPE_ID_HEADER);
+        String eventType = typeId != null ? simpleName(typeId.toString()) : null;
+        EventHandler<?> handler = eventType != null ? handlers.get(eventType) : null;
+        if (handler == null) {
+            throw new IllegalArgumentException("Unknown event type " + typeId
+                + " (routing key " + message.getMessageProperties().getReceivedRoutingKey() + ")");
+        }
+        
+        List<Notification> notifications = handler.handle(objectMapper, message.getBody());
+        meterRegistry.counter("notifications.events.consumed", "type", eventType).increment();
+        return notifications;
+    }
+    
+    private static void ack(Channel channel, Message message) throws IOException {
+        channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+    }
+    
+    private List<Notification> handleTransactionCreatedEvent(TransactionCreatedEvent event, String eventData) {
+        log.info("Received TransactionCreatedEvent: {}", event);
+        
+        String message = String.format(
+            "Transaction %s created: %s of %.2f on account %d",
+            event.getTransactionReference(),
+            event.getType(),
+            event.getAmount(),
+            event.getSourceAccountId()
+        );
+        
+        return List.of(
+            notification(Notification.NotificationType.EMAIL,
+                "account-" + event.getSourceAccountId() + "@willbank.com", message, eventData),
+            notification(Notification.NotificationType.PUSH,
+                "device-token-" + event.getSourceAccountId(), message, eventData)
+        );
+    }
+    
+    private List<Notification> handleAccountCreditedEvent(AccountCreditedEvent event, String eventData) {
+        log.info("Received AccountCreditedEvent: {}", event);
+        
+        String message = String.format(
+            "Your account %d has been credited with %.2f. Transaction: %s",
+            event.getAccountId(),
+            event.getAmount(),
+            event.getTransactionReference()
+        );
+        
+        return List.of(
+            notification(Notification.NotificationType.EMAIL,
+                "account-" + event.getAccountId() + "@willbank.com", message, eventData),
+            notification(Notification.NotificationType.PUSH,
+                "device-token-" + event.getAccountId(), message, eventData)
+        );
+    }
+    
+    private List<Notification> handleAccountDebitedEvent(AccountDebitedEvent event, String eventData) {
+        log.info("Received AccountDebitedEvent: {}", event);
+        
+        String message = String.format(
+            "Your account %d has been debited with %.2f. Transaction: %s",
+            event.getAccountId(),
+            event.getAmount(),
+            event.getTransactionReference()
+        );
+        
+        return List.of(
+            notification(Notification.NotificationType.EMAIL,
+                "account-" + event.getAccountId() + "@willbank.com", message, eventData),
+            notification(Notification.NotificationType.PUSH,
+                "device-token-" + event.getAccountId(), message, eventData)
+        );
+    }
+    
+    private List<Notification> handleClientUpdatedEvent(ClientUpdatedEvent event, String eventData) {
+        log.info("Received ClientUpdatedEvent: {}", event);
+        
+        // A deleted client has no email left to write to
+        if (event.getEmail() == null) {
+            return List.of();
+        }
+        
+        String message = String.format(
+            "Your profile has been updated. Update type: %s",
+            event.getUpdateType()
+        );
+        
+        return List.of(
+            notification(Notification.NotificationType.EMAIL, event.getEmail(), message, eventData)
+        );
+    }
+    
+    private Notification notification(Notification.NotificationType type, String recipient, String message, String eventData) {
+        Notification notification = new Notification();
+        notification.setType(type);
+        notification.setRecipient(recipient);
+        notification.setMessage(message);
+        notification.setEventData(eventData);
+        notification.setStatus(Notification.NotificationStatus.PENDING);
+        return notification;
+    }
+    
+    private static String simpleName(String typeId) {
+        return typeId.substring(typeId.lastIndexOf('.') + 1);
+    }
+    
+    private record RoutedEvent(Message message, List<Notification> notifications) {
+    }
+    
+    @FunctionalInterface
+    private interface Handler<E> {
+        List<Notification> handle(E event, String eventData);
+    }
+    
+    private record EventHandler<E>(Class<E> eventClass, Handler<E> handler) {
+        
+        List<Notification> handle(ObjectMapper objectMapper, byte[] body) throws IOException {
+            E event = objectMapper.readValue(body, eventClass);
+            // The raw JSON is kept as the notification's event data
+            return handler.handle(event, new String(body, StandardCharsets.UTF_8));
         }
     }
 }
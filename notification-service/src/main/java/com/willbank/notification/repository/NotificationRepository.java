@@ -1,13 +1,87 @@
 package com.willbank.notification.repository;
 
 import com.willbank.notification.entity.Notification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByRecipientOrderByCreatedAtDesc(String recipient);
     List<Notification> findByStatusOrderByCreatedAtDesc(Notification.NotificationStatus status);
+    
+    /**
+     * Claims due notifications of one channel. SKIP LOCKED (lock timeout -2) lets
+     * several dispatcher instances drain the same channel without blocking each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM Notification n WHERE n.status = :status AND n.type = :type "
+            + "AND (n.nextAttemptAt IS NULL OR n.nextAttemptAt <= :now) ORDER BY n.id")
+    List<Notification> findDueForUpdate(@Param("status") Notification.NotificationStatus status,
+                                        @Param("type") Notification.NotificationType type,
+                                        @Param("now") LocalDateTime now,
+                                        Pageable pageable);
+    
+    long countByStatusAndType(Notification.NotificationStatus status, Notification.NotificationType type);
+    
+    // Guarded by the lease taken at claim time: once it has expired and been released or
+    // claimed again, the row belongs to another attempt and is left untouched (returns 0)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.sentAt = :sentAt, n.attempts = :attempts "
+            + "WHERE n.id = :id AND n.status = :processing AND n.nextAttemptAt = :leaseExpiry")
+    int markSent(@Param("id") Long id,
+                 @Param("status") Notification.NotificationStatus status,
+                 @Param("sentAt") LocalDateTime sentAt,
+                 @Param("attempts") int attempts,
+                 @Param("processing") Notification.NotificationStatus processing,
+                 @Param("leaseExpiry") LocalDateTime leaseExpiry);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.attempts = :attempts, "
+            + "n.nextAttemptAt = :nextAttemptAt, n.lastError = :lastError "
+            + "WHERE n.id = :id AND n.status = :processing AND n.nextAttemptAt = :leaseExpiry")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") Notification.NotificationStatus status,
+                          @Param("attempts") int attempts,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("lastError") String lastError,
+                          @Param("processing") Notification.NotificationStatus processing,
+                          @Param("leaseExpiry") LocalDateTime leaseExpiry);
+    
+    // Rows whose worker died mid-send go back to PENDING once their lease has expired;
+    // the lost send counts as an attempt, so a send that always crashes ends FAILED
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :pending, n.attempts = n.attempts + 1, n.lastError = :lastError " +
+           "WHERE n.status = :processing AND n.nextAttemptAt < :now AND n.attempts < :lastAttempt")
+    int releaseExpiredLeases(@Param("pending") Notification.NotificationStatus pending,
+                             @Param("processing") Notification.NotificationStatus processing,
+                             @Param("now") LocalDateTime now,
+                             @Param("lastAttempt") int lastAttempt,
+                             @Param("lastError") String lastError);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :failed, n.attempts = n.attempts + 1, n.nextAttemptAt = NULL, " +
+           "n.lastError = :lastError " +
+           "WHERE n.status = :processing AND n.nextAttemptAt < :now AND n.attempts >= :lastAttempt")
+    int failExpiredLeases(@Param("failed") Notification.NotificationStatus failed,
+                          @Param("processing") Notification.NotificationStatus processing,
+                          @Param("now") LocalDateTime now,
+                          @Param("lastAttempt") int lastAttempt,
+                          @Param("lastError") String lastError);
 }
@@ -1,17 +1,22 @@
 package com.willbank.notification.service;
 
+import com.willbank.maildispatch.MailDispatcher;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
     
-    private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
     
     public void sendEmail(String to, String subject, String body) {
         try {
@@ -24,19 +29,23 @@ public class EmailService {
             log.info("Body: {}", body);
             log.info("====================");
             
-            // Send actual email
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            message.setFrom("willbank.notifications@gmail.com");
-            mailSender.send(message);
+            // Send actual email, batched with the other workers' emails on a pooled connection
+            MimeMessage message = mailDispatcher.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+            helper.setTo(to);
+            helper.setSubject(subject);
+            helper.setText(body);
+            helper.setFrom("willbank.notifications@gmail.com");
+            mailDispatcher.send(message);
             
             log.info("Email sent successfully to: {}", to);
+        } catch (MessagingException e) {
+            log.error("Failed to prepare email: {}", e.getMessage());
+            throw new MailPreparationException(e);
         } catch (Exception e) {
             log.error("Failed to send email: {}", e.getMessage());
-            // Don't throw exception to avoid breaking the notification flow
-            log.warn("Email sending failed, but notification will be marked as sent for demo purposes");
+            // Rethrown so that NotificationDispatcher schedules a retry
+            throw e;
         }
     }
 }
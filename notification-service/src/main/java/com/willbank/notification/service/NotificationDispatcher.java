@@ -0,0 +1,300 @@
+package com.willbank.notification.service;
+
+import com.willbank.notification.entity.Notification;
+import com.willbank.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envoi des notifications PENDING, découplé de leur création.
+ * Chaque canal (EMAIL, PUSH, SMS, IN_APP) a son propre pool de workers : un SMTP lent
+ * ne retarde pas les push. Les lignes sont réclamées par lots (SKIP LOCKED, avec un bail),
+ * les échecs sont retentés avec un backoff exponentiel puis passent FAILED après max-attempts.
+ */
+@Service
+@Slf4j
+public class NotificationDispatcher {
+    
+    private final NotificationRepository notificationRepository;
+    private final EmailService emailService;
+    private final PushNotificationService pushNotificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Notification.NotificationType, Channel> channels =
+            new EnumMap<>(Notification.NotificationType.class);
+    
+    @Value("${app.notifications.dispatch.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${app.notifications.dispatch.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${app.notifications.dispatch.backoff.initial-ms:1000}")
+    private long initialBackoffMs;
+    
+    @Value("${app.notifications.dispatch.backoff.multiplier:2.0}")
+    private double backoffMultiplier;
+    
+    @Value("${app.notifications.dispatch.backoff.max-ms:300000}")
+    private long maxBackoffMs;
+    
+    @Value("${app.notifications.dispatch.lease-seconds:120}")
+    private long leaseSeconds;
+    
+    public NotificationDispatcher(NotificationRepository notificationRepository,
+                                  EmailService emailService,
+                                  PushNotificationService pushNotificationService,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  Environment environment) {
+        this.notificationRepository = notificationRepository;
+        this.emailService = emailService;
+        this.pushNotificationService = pushNotificationService;
+        this.transactionTemplate = transactionTemplate;
+        
+        for (Notification.NotificationType type : Notification.NotificationType.values()) {
+            int workers = environment.getProperty(
+                    "app.notifications.dispatch.workers." + type.name().toLowerCase(Locale.ROOT), Integer.class, 2);
+            channels.put(type, new Channel(type, workers, meterRegistry));
+        }
+    }
+    
+    /**
+     * Starts a drain of every channel that is not already draining.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.dispatch.poll-interval-ms:500}")
+    public void dispatch() {
+        channels.values().forEach(channel -> {
+            if (channel.draining.compareAndSet(false, true)) {
+                try {
+                    channel.poller.execute(() -> drain(channel));
+                } catch (RuntimeException e) {
+                    channel.draining.set(false);
+                    throw e;
+                }
+            }
+        });
+    }
+    
+    /**
+     * An expired lease means the worker crashed or hung mid-send: that counts as a failed
+     * attempt, and the notification is set FAILED once it reaches max-attempts.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.dispatch.lease-check-interval-ms:60000}")
+    public void releaseExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        String error = "Dispatch lease expired after " + leaseSeconds + "s";
+        int[] counts = transactionTemplate.execute(status -> new int[] {
+            notificationRepository.failExpiredLeases(Notification.NotificationStatus.FAILED,
+                    Notification.NotificationStatus.PROCESSING, now, maxAttempts - 1, error),
+            notificationRepository.releaseExpiredLeases(Notification.NotificationStatus.PENDING,
+                    Notification.NotificationStatus.PROCESSING, now, maxAttempts - 1, error)
+        });
+        if (counts[0] > 0) {
+            log.error("{} notifications failed: dispatch lease expired on their last attempt", counts[0]);
+        }
+        if (counts[1] > 0) {
+            log.warn("Released {} notifications whose dispatch lease expired", counts[1]);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(channel -> {
+            channel.poller.shutdown();
+            channel.workers.shutdown();
+        });
+    }
+    
+    private void drain(Channel channel) {
+        try {
+            List<Notification> claimed;
+            do {
+                claimed = claim(channel.type);
+                CompletableFuture<?>[] deliveries = claimed.stream()
+                        .map(notification -> CompletableFuture.runAsync(
+                                () -> deliver(channel, notification), channel.workers))
+                        .toArray(CompletableFuture[]::new);
+                CompletableFuture.allOf(deliveries).join();
+            } while (claimed.size() == batchSize);
+        } catch (Exception e) {
+            log.warn("Dispatch of {} notifications failed: {}", channel.type, e.getMessage());
+        } finally {
+            refreshBacklog(channel);
+            channel.draining.set(false);
+        }
+    }
+    
+    /**
+     * Takes a lease on a batch of due notifications: they are PROCESSING until the
+     * lease expires, so another instance never sends them twice meanwhile.
+     */
+    private List<Notification> claim(Notification.NotificationType type) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Notification> due = notificationRepository.findDueForUpdate(
+                    Notification.NotificationStatus.PENDING, type, now, PageRequest.of(0, batchSize));
+            due.forEach(notification -> {
+                notification.setStatus(Notification.NotificationStatus.PROCESSING);
+                // Microsecond precision, as stored: the outcome of the send is matched against it by equality
+                notification.setNextAttemptAt(now.plusSeconds(leaseSeconds).truncatedTo(ChronoUnit.MICROS));
+            });
+            return due;
+        });
+    }
+    
+    private void deliver(Channel channel, Notification notification) {
+        int attempt = notification.getAttempts() + 1;
+        LocalDateTime leaseExpiry = notification.getNextAttemptAt();
+        try {
+            channel.latency.record(() -> send(notification));
+            int updated = notificationRepository.markSent(notification.getId(), Notification.NotificationStatus.SENT,
+                    LocalDateTime.now(), attempt, Notification.NotificationStatus.PROCESSING, leaseExpiry);
+            if (updated == 0) {
+                leaseLost(notification, "sent");
+                return;
+            }
+            channel.sent.increment();
+            log.info("Notification {} sent to: {}", notification.getId(), notification.getRecipient());
+        } catch (Exception e) {
+            String error = truncate(e.getMessage());
+            if (attempt >= maxAttempts) {
+                int updated = notificationRepository.markAttemptFailed(notification.getId(),
+                        Notification.NotificationStatus.FAILED, attempt, null, error,
+                        Notification.NotificationStatus.PROCESSING, leaseExpiry);
+                if (updated == 0) {
+                    leaseLost(notification, "failed");
+                    return;
+                }
+                channel.failed.increment();
+                log.error("Notification {} failed after {} attempts: {}", notification.getId(), attempt, error);
+            } else {
+                LocalDateTime nextAttemptAt = LocalDateTime.now().plusNanos(backoffMs(attempt) * 1_000_000);
+                int updated = notificationRepository.markAttemptFailed(notification.getId(),
+                        Notification.NotificationStatus.PENDING, attempt, nextAttemptAt, error,
+                        Notification.NotificationStatus.PROCESSING, leaseExpiry);
+                if (updated == 0) {
+                    leaseLost(notification, "failed");
+                    return;
+                }
+                channel.retried.increment();
+                log.warn("Notification {} failed (attempt {}), retrying at {}: {}",
+                        notification.getId(), attempt, nextAttemptAt, error);
+            }
+        }
+    }
+    
+    /**
+     * The send outlived its lease: the row was released (and maybe claimed again) meanwhile,
+     * so its outcome belongs to that later attempt and is not overwritten.
+     */
+    private void leaseLost(Notification notification, String outcome) {
+        log.warn("Notification {} {} after its dispatch lease expired, outcome left to the later attempt",
+                notification.getId(), outcome);
+    }
+    
+    private void send(Notification notification) {
+        switch (notification.getType()) {
+            case EMAIL:
+                emailService.sendEmail(notification.getRecipient(), "WillBank Notification", notification.getMessage());
+                break;
+            case PUSH:
+                pushNotificationService.sendPushNotification(notification.getRecipient(), notification.getMessage());
+                break;
+            case SMS:
+                log.info("SMS notification would be sent to: {}", notification.getRecipient());
+                break;
+            case IN_APP:
+                log.info("In-app notification created for: {}", notification.getRecipient());
+                break;
+        }
+    }
+    
+    private long backoffMs(int attempt) {
+        double delay = initialBackoffMs * Math.pow(backoffMultiplier, attempt - 1);
+        return (long) Math.min(delay, maxBackoffMs);
+    }
+    
+    private void refreshBacklog(Channel channel) {
+        try {
+            channel.backlog.set(notificationRepository.countByStatusAndType(
+                    Notification.NotificationStatus.PENDING, channel.type));
+        } catch (Exception e) {
+            log.debug("Could not refresh {} backlog metric: {}", channel.type, e.getMessage());
+        }
+    }
+    
+    private static String truncate(String message) {
+        return message != null && message.length() > 500 ? message.substring(0, 500) : message;
+    }
+    
+    private static final class Channel {
+        
+        private final Notification.NotificationType type;
+        private final ThreadPoolTaskExecutor poller;
+        private final ThreadPoolTaskExecutor workers;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong backlog = new AtomicLong();
+        private final Counter sent;
+        private final Counter retried;
+        private final Counter failed;
+        private final Timer latency;
+        
+        Channel(Notification.NotificationType type, int workerCount, MeterRegistry meterRegistry) {
+            this.type = type;
+            String channelName = type.name().toLowerCase(Locale.ROOT);
+            this.poller = executor("notify-" + channelName + "-poller-", 1);
+            this.workers = executor("notify-" + channelName + "-", workerCount);
+            
+            this.sent = Counter.builder("notifications.dispatch.sent")
+                    .description("Notifications delivered")
+                    .tag("channel", type.name())
+                    .register(meterRegistry);
+            this.retried = Counter.builder("notifications.dispatch.retried")
+                    .description("Failed attempts scheduled for a retry")
+                    .tag("channel", type.name())
+                    .register(meterRegistry);
+            this.failed = Counter.builder("notifications.dispatch.failed")
+                    .description("Notifications given up after max-attempts")
+                    .tag("channel", type.name())
+                    .register(meterRegistry);
+            this.latency = Timer.builder("notifications.dispatch.latency")
+                    .description("Time to hand one notification to its provider")
+                    .tag("channel", type.name())
+                    .register(meterRegistry);
+            Gauge.builder("notifications.backlog", backlog, AtomicLong::get)
+                    .description("Notifications waiting to be sent")
+                    .tag("channel", type.name())
+                    .register(meterRegistry);
+        }
+        
+        private static ThreadPoolTaskExecutor executor(String threadNamePrefix, int threads) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(threads);
+            executor.setMaxPoolSize(threads);
+            executor.setThreadNamePrefix(threadNamePrefix);
+            executor.initialize();
+            return executor;
+        }
+    }
+}
@@ -7,7 +7,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -16,8 +15,6 @@ import java.util.List;
 public class NotificationService {
     
     private final NotificationRepository notificationRepository;
-    private final EmailService emailService;
-    private final PushNotificationService pushNotificationService;
     
     @Transactional
     public Notification createNotification(Notification.NotificationType type, String recipient, String message, String eventData) {
@@ -30,42 +27,17 @@ public class NotificationService {
         notification.setEventData(eventData);
         notification.setStatus(Notification.NotificationStatus.PENDING);
         
-        Notification saved = notificationRepository.save(notification);
-        
-        // Send notification asynchronously
-        sendNotification(saved);
-        
-        return saved;
+        // Sent later by NotificationDispatcher: the caller (often the RabbitMQ listener) never waits on SMTP/FCM
+        return notificationRepository.save(notification);
     }
     
-    private void sendNotification(Notification notification) {
-        try {
-            switch (notification.getType()) {
-                case EMAIL:
-                    emailService.sendEmail(notification.getRecipient(), "WillBank Notification", notification.getMessage());
-                    break;
-                case PUSH:
-                    pushNotificationService.sendPushNotification(notification.getRecipient(), notification.getMessage());
-                    break;
-                case SMS:
-                    log.info("SMS notification would be sent to: {}", notification.getRecipient());
-                    break;
-                case IN_APP:
-                    log.info("In-app notification created for: {}", notification.getRecipient());
-                    break;
-            }
-            
-            notification.setStatus(Notification.NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-            notificationRepository.save(notification);
-            
-            log.info("Notification sent successfully to: {}", notification.getRecipient());
-            
-        } catch (Exception e) {
-            log.error("Failed to send notification: {}", e.getMessage());
-            notification.setStatus(Notification.NotificationStatus.FAILED);
-            notificationRepository.save(notification);
-        }
+    /**
+     * Saves the PENDING notifications of a whole batch of events in one transaction.
+     */
+    @Transactional
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        log.info("Creating {} notifications", notifications.size());
+        return notificationRepository.saveAll(notifications);
     }
     
     public List<Notification> getNotificationsByRecipient(String recipient) {
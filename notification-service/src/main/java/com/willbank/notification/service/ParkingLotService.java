@@ -0,0 +1,139 @@
+package com.willbank.notification.service;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.ReturnListener;
+import com.willbank.notification.dto.ParkingLotReplayResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * File parking-lot des événements qui ont épuisé leurs tentatives (ou qui ne pourront
+ * jamais être traités). Les messages y restent jusqu'à un rejeu explicite, qui les
+ * renvoie dans leur file d'origine avec un compteur de tentatives remis à zéro.
+ */
+@Service
+@Slf4j
+public class ParkingLotService {
+    
+    public static final String ORIGINAL_QUEUE_HEADER = "x-original-queue";
+    public static final String PARKED_REASON_HEADER = "x-parked-reason";
+    public static final String PARKED_AT_HEADER = "x-parked-at";
+    private static final String DEATH_HEADER = "x-death";
+    
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${rabbitmq.exchange.parking-lot}")
+    private String parkingLotExchange;
+    
+    @Value("${rabbitmq.queue.parking-lot}")
+    private String parkingLotQueue;
+    
+    @Value("${app.parking-lot.replay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+    
+    public ParkingLotService(RabbitTemplate rabbitTemplate, AmqpAdmin amqpAdmin, MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.amqpAdmin = amqpAdmin;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public void park(Message message, String reason) {
+        MessageProperties properties = message.getMessageProperties();
+        String originalQueue = properties.getConsumerQueue();
+        properties.setHeader(ORIGINAL_QUEUE_HEADER, originalQueue);
+        properties.setHeader(PARKED_REASON_HEADER, reason != null && reason.length() > 500 ? reason.substring(0, 500) : reason);
+        properties.setHeader(PARKED_AT_HEADER, Instant.now().toString());
+        
+        rabbitTemplate.send(parkingLotExchange, "", message);
+        meterRegistry.counter("notifications.events.parked", "queue", String.valueOf(originalQueue)).increment();
+        log.warn("Parked message from {} (routing key {}): {}", originalQueue, properties.getReceivedRoutingKey(), reason);
+    }
+    
+    public long count() {
+        QueueInformation info = amqpAdmin.getQueueInfo(parkingLotQueue);
+        return info != null ? info.getMessageCount() : 0;
+    }
+    
+    /**
+     * Rejoue au plus {@code limit} messages parqués, éventuellement limités à une file d'origine.
+     * Chaque message n'est acquitté qu'une fois sa republication confirmée par le broker
+     * (publisher confirm) et routée vers sa file (mandatory) : si la file d'origine n'existe
+     * plus, il reste parqué. Ceux qui ne sont pas rejoués sont rendus à la file parking-lot
+     * à la fin du lot.
+     */
+    public ParkingLotReplayResult replay(int limit, String queue) {
+        int[] counts = rabbitTemplate.execute(channel -> {
+            int replayed = 0;
+            List<Long> skippedTags = new ArrayList<>();
+            // basic.return of an unroutable mandatory publish arrives before its confirm
+            AtomicBoolean returned = new AtomicBoolean();
+            ReturnListener returnListener = (replyCode, replyText, exchange, routingKey, props, body) -> returned.set(true);
+            channel.confirmSelect();
+            channel.addReturnListener(returnListener);
+            try {
+                while (replayed < limit) {
+                    GetResponse response = channel.basicGet(parkingLotQueue, false);
+                    if (response == null) {
+                        break;
+                    }
+                    long deliveryTag = response.getEnvelope().getDeliveryTag();
+                    AMQP.BasicProperties properties = response.getProps();
+                    Map<String, Object> headers = properties.getHeaders() != null
+                            ? new HashMap<>(properties.getHeaders()) : new HashMap<>();
+                    Object originalQueue = headers.get(ORIGINAL_QUEUE_HEADER);
+                    if (originalQueue == null || (queue != null && !queue.equals(originalQueue.toString()))) {
+                        skippedTags.add(deliveryTag);
+                        continue;
+                    }
+                    
+                    // A fresh start: the retry count is read from x-death
+                    headers.remove(DEATH_HEADER);
+                    headers.remove(ORIGINAL_QUEUE_HEADER);
+                    headers.remove(PARKED_REASON_HEADER);
+                    headers.remove(PARKED_AT_HEADER);
+                    returned.set(false);
+                    channel.basicPublish("", originalQueue.toString(), true,
+                            properties.builder().headers(headers).build(), response.getBody());
+                    // Closes the channel if the broker nacks or does not confirm in time: the
+                    // message is then redelivered to the parking lot, never lost
+                    channel.waitForConfirmsOrDie(confirmTimeoutMs);
+                    if (returned.get()) {
+                        log.warn("Original queue {} no longer exists, message left in the parking lot", originalQueue);
+                        skippedTags.add(deliveryTag);
+                        continue;
+                    }
+                    channel.basicAck(deliveryTag, false);
+                    replayed++;
+                }
+            } finally {
+                if (channel.isOpen()) {
+                    channel.removeReturnListener(returnListener);
+                    for (Long deliveryTag : skippedTags) {
+                        channel.basicNack(deliveryTag, false, true);
+                    }
+                }
+            }
+            return new int[] {replayed, skippedTags.size()};
+        });
+        
+        log.info("Replayed {} parked messages ({} skipped)", counts[0], counts[1]);
+        return new ParkingLotReplayResult(counts[0], counts[1], count());
+    }
+}
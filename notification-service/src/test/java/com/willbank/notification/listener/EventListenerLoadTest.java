@@ -0,0 +1,99 @@
+package com.willbank.notification.listener;
+
+import com.willbank.notification.event.AccountCreditedEvent;
+import com.willbank.notification.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Charge de bout en bout sur un vrai broker : N AccountCreditedEvent publiés d'un coup,
+ * consommés par lots par plusieurs consommateurs concurrents. Chaque événement doit
+ * produire exactement ses deux notifications, et la file doit être vidée.
+ * Même scénario que load-test-notifications.sh, sans environnement à démarrer.
+ */
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "spring.jpa.show-sql=false",
+    "app.notifications.listener.concurrency=4",
+    "app.notifications.listener.max-concurrency=4",
+    // Notifications stay PENDING: only the consumer side is measured
+    "app.notifications.dispatch.poll-interval-ms=3600000",
+    "spring.mail.host=localhost",
+    "spring.mail.port=1"
+})
+@Testcontainers
+@Slf4j
+class EventListenerLoadTest {
+    
+    private static final int EVENTS = 5000;
+    
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+    
+    @Container
+    @ServiceConnection
+    static RabbitMQContainer rabbit = new RabbitMQContainer("rabbitmq:3.13-management");
+    
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+    
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+    
+    @Autowired
+    private NotificationRepository notificationRepository;
+    
+    @Value("${rabbitmq.exchange.name}")
+    private String exchange;
+    
+    @Value("${rabbitmq.routing.account-credited}")
+    private String routingKey;
+    
+    @Value("${rabbitmq.queue.account-credited}")
+    private String queue;
+    
+    @Test
+    void everyEventOfABurstYieldsItsNotificationsExactlyOnce() throws Exception {
+        long before = notificationRepository.count();
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            rabbitTemplate.convertAndSend(exchange, routingKey, new AccountCreditedEvent(
+                    (long) (i % 1000 + 1), new BigDecimal("10.00"), "LOAD-" + i, LocalDateTime.now()));
+        }
+        
+        long expected = before + 2L * EVENTS;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (notificationRepository.count() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Consumed {} events in {} ms ({} events/s)", EVENTS, elapsedMs, EVENTS * 1000L / Math.max(1, elapsedMs));
+        
+        assertThat(notificationRepository.count()).isEqualTo(expected);
+        // No late duplicate from a redelivery
+        Thread.sleep(1000);
+        assertThat(notificationRepository.count()).isEqualTo(expected);
+        QueueInformation info = amqpAdmin.getQueueInfo(queue);
+        assertThat(info).isNotNull();
+        assertThat(info.getMessageCount()).isZero();
+    }
+}
@@ -0,0 +1,170 @@
+package com.willbank.notification.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import com.willbank.notification.entity.Notification;
+import com.willbank.notification.service.NotificationService;
+import com.willbank.notification.service.ParkingLotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventListenerTest {
+    
+    private static final String CREDITED_QUEUE = "willbank.notifications.account-credited";
+    
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final ParkingLotService parkingLotService = mock(ParkingLotService.class);
+    private final Channel channel = mock(Channel.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EventListener listener;
+    
+    @BeforeEach
+    void setUp() {
+        listener = new EventListener(notificationService, parkingLotService,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        ReflectionTestUtils.setField(listener, "maxAttempts", 5);
+    }
+    
+    @Test
+    void batchIsSavedInOneCallAndEveryMessageAcked() throws Exception {
+        List<Message> batch = List.of(
+                credited(1, "TX-1"),
+                event(2, "com.willbank.account.event.AccountDebitedEvent",
+                        "{\"accountId\":7,\"amount\":20.00,\"transactionReference\":\"TX-2\"}"),
+                event(3, "com.willbank.transaction.event.TransactionCreatedEvent",
+                        "{\"transactionId\":3,\"transactionReference\":\"TX-3\",\"type\":\"TRANSFER\","
+                                + "\"sourceAccountId\":7,\"amount\":5.00,\"createdAt\":\"2026-10-18T09:30:00\"}"));
+        
+        listener.onMessages(batch, channel);
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(notificationService, times(1)).createNotifications(saved.capture());
+        // An email and a push per event
+        assertThat(saved.getValue()).hasSize(6)
+                .allMatch(notification -> notification.getStatus() == Notification.NotificationStatus.PENDING);
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicAck(3, false);
+        assertThat(meterRegistry.counter("notifications.events.consumed", "type", "AccountCreditedEvent").count())
+                .isEqualTo(1);
+    }
+    
+    @Test
+    void unknownTypeIsParkedWithoutHoldingBackTheBatch() throws Exception {
+        Message unknown = event(1, "com.willbank.other.SomethingHappened", "{}");
+        Message valid = credited(2, "TX-2");
+        
+        listener.onMessages(List.of(unknown, valid), channel);
+        
+        verify(parkingLotService).park(eq(unknown), contains("Unknown event type"));
+        verify(channel).basicAck(1, false);
+        verify(notificationService).createNotifications(argThat(list -> list.size() == 2));
+        verify(channel).basicAck(2, false);
+    }
+    
+    @Test
+    void unreadablePayloadIsParked() throws Exception {
+        Message unreadable = event(1, "AccountCreditedEvent", "{not json");
+        
+        listener.onMessages(List.of(unreadable), channel);
+        
+        verify(parkingLotService).park(eq(unreadable), anyString());
+        verify(channel).basicAck(1, false);
+        verify(notificationService, never()).createNotifications(anyList());
+    }
+    
+    @Test
+    void failingEventIsRetriedAloneWhileTheRestOfTheBatchIsSaved() throws Exception {
+        Message good = credited(1, "TX-GOOD");
+        Message bad = credited(2, "TX-BAD");
+        when(notificationService.createNotifications(anyList())).thenAnswer(invocation -> {
+            List<Notification> notifications = invocation.getArgument(0);
+            if (notifications.stream().anyMatch(notification -> notification.getMessage().contains("TX-BAD"))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return notifications;
+        });
+        
+        listener.onMessages(List.of(good, bad), channel);
+        
+        verify(channel).basicAck(1, false);
+        // Rejected without requeue: dead-lettered to the retry queue
+        verify(channel).basicNack(2, false, false);
+        verify(parkingLotService, never()).park(any(), anyString());
+        assertThat(meterRegistry.counter("notifications.events.retried").count()).isEqualTo(1);
+    }
+    
+    @Test
+    void eventIsParkedOnItsLastAttempt() throws Exception {
+        Message bad = credited(1, "TX-BAD");
+        bad.getMessageProperties().setHeader("x-death", List.of(
+                Map.of("queue", CREDITED_QUEUE, "reason", "rejected", "count", 4L),
+                Map.of("queue", CREDITED_QUEUE + ".retry", "reason", "expired", "count", 4L)));
+        when(notificationService.createNotifications(anyList())).thenThrow(new IllegalStateException("still failing"));
+        
+        listener.onMessages(List.of(bad), channel);
+        
+        verify(parkingLotService).park(eq(bad), contains("Failed after 5 attempts"));
+        verify(channel).basicAck(1, false);
+        verify(channel, never()).basicNack(1, false, false);
+    }
+    
+    @Test
+    void messageThatCannotBeParkedIsRequeued() throws Exception {
+        Message unknown = event(1, "com.willbank.other.SomethingHappened", "{}");
+        doThrow(new IllegalStateException("broker down")).when(parkingLotService).park(any(), anyString());
+        
+        listener.onMessages(List.of(unknown), channel);
+        
+        verify(channel).basicNack(1, false, true);
+        verify(channel, never()).basicAck(1, false);
+    }
+    
+    @Test
+    void deletedClientUpdateIsAckedWithoutNotification() throws Exception {
+        Message deleted = event(1, "com.willbank.client.event.ClientUpdatedEvent",
+                "{\"clientId\":9,\"email\":null,\"updateType\":\"DELETED\"}");
+        
+        listener.onMessages(List.of(deleted), channel);
+        
+        verify(notificationService, never()).createNotifications(anyList());
+        verify(channel).basicAck(1, false);
+    }
+    
+    private static Message credited(long deliveryTag, String reference) {
+        return event(deliveryTag, "com.willbank.account.event.AccountCreditedEvent",
+                "{\"accountId\":7,\"amount\":10.00,\"transactionReference\":\"" + reference + "\"}");
+    }
+    
+    private static Message event(long deliveryTag, String typeId, String json) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setConsumerQueue(CREDITED_QUEUE);
+        properties.setHeader("__TypeId__", typeId);
+        return new Message(json.getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -0,0 +1,232 @@
+package com.willbank.notification.service;
+
+import com.willbank.notification.entity.Notification;
+import com.willbank.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Envoi des notifications sur une vraie base : deux instances du dispatcher qui drainent
+ * la même file n'envoient jamais deux fois la même notification (SKIP LOCKED + bail), et
+ * un envoi qui survit à son bail n'écrase pas l'issue de la tentative suivante.
+ */
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "spring.jpa.show-sql=false",
+    // Only the drains started by the tests run
+    "app.notifications.dispatch.poll-interval-ms=3600000",
+    "app.notifications.dispatch.lease-check-interval-ms=3600000",
+    "app.notifications.dispatch.lease-seconds=1",
+    "app.notifications.dispatch.max-attempts=3",
+    "app.notifications.dispatch.backoff.initial-ms=60000",
+    "spring.mail.host=localhost",
+    "spring.mail.port=1"
+})
+@Testcontainers
+class NotificationDispatcherTest {
+    
+    private static final int NOTIFICATIONS = 500;
+    
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+    
+    @Container
+    @ServiceConnection
+    static RabbitMQContainer rabbit = new RabbitMQContainer("rabbitmq:3.13-management");
+    
+    @MockBean
+    private EmailService emailService;
+    
+    @MockBean
+    private PushNotificationService pushNotificationService;
+    
+    @Autowired
+    private NotificationDispatcher dispatcher;
+    
+    @Autowired
+    private NotificationRepository notificationRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private Environment environment;
+    
+    @BeforeEach
+    void setUp() {
+        notificationRepository.deleteAll();
+    }
+    
+    @Test
+    void twoInstancesDrainingTheSameChannelSendEachNotificationOnce() throws Exception {
+        Map<String, AtomicInteger> sends = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            sends.computeIfAbsent(invocation.getArgument(0), recipient -> new AtomicInteger()).incrementAndGet();
+            return null;
+        }).when(emailService).sendEmail(anyString(), anyString(), anyString());
+        
+        List<Notification> notifications = new ArrayList<>(NOTIFICATIONS);
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            notifications.add(email("client" + i + "@willbank.test"));
+        }
+        notificationRepository.saveAll(notifications);
+        
+        NotificationDispatcher otherInstance = secondInstance();
+        try {
+            awaitUntil(() -> {
+                dispatcher.dispatch();
+                otherInstance.dispatch();
+                return sentCount() == NOTIFICATIONS;
+            });
+        } finally {
+            otherInstance.shutdown();
+        }
+        
+        assertThat(sends).hasSize(NOTIFICATIONS);
+        assertThat(sends.values()).allSatisfy(count -> assertThat(count).hasValue(1));
+        assertThat(notificationRepository.findAll()).allSatisfy(notification -> {
+            assertThat(notification.getStatus()).isEqualTo(Notification.NotificationStatus.SENT);
+            assertThat(notification.getAttempts()).isEqualTo(1);
+        });
+    }
+    
+    @Test
+    void sendThatOutlivesItsLeaseLeavesTheOutcomeToTheNextAttempt() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(30, TimeUnit.SECONDS);
+            return null;
+        }).when(emailService).sendEmail(eq("slow@willbank.test"), anyString(), anyString());
+        Notification notification = notificationRepository.save(email("slow@willbank.test"));
+        
+        dispatcher.dispatch();
+        assertThat(sending.await(30, TimeUnit.SECONDS)).isTrue();
+        // Let the 1s lease expire mid-send, then hand the row back as the lease check would
+        Thread.sleep(1500);
+        dispatcher.releaseExpiredLeases();
+        Notification released = notificationRepository.findById(notification.getId()).orElseThrow();
+        assertThat(released.getStatus()).isEqualTo(Notification.NotificationStatus.PENDING);
+        assertThat(released.getAttempts()).isEqualTo(1);
+        
+        // The late outcome must not mark the released row SENT
+        release.countDown();
+        Thread.sleep(500);
+        Notification afterLateOutcome = notificationRepository.findById(notification.getId()).orElseThrow();
+        assertThat(afterLateOutcome.getStatus()).isEqualTo(Notification.NotificationStatus.PENDING);
+        assertThat(afterLateOutcome.getSentAt()).isNull();
+        
+        awaitUntil(() -> {
+            dispatcher.dispatch();
+            return sentCount() == 1;
+        });
+        Notification sent = notificationRepository.findById(notification.getId()).orElseThrow();
+        assertThat(sent.getAttempts()).isEqualTo(2);
+        verify(emailService, times(2)).sendEmail(eq("slow@willbank.test"), anyString(), anyString());
+    }
+    
+    @Test
+    void failedSendBacksOff() throws Exception {
+        doThrow(new IllegalStateException("SMTP down"))
+                .when(emailService).sendEmail(anyString(), anyString(), anyString());
+        Notification notification = notificationRepository.save(email("down@willbank.test"));
+        
+        awaitUntil(() -> {
+            dispatcher.dispatch();
+            return notificationRepository.findById(notification.getId()).orElseThrow().getAttempts() == 1;
+        });
+        
+        Notification retried = notificationRepository.findById(notification.getId()).orElseThrow();
+        assertThat(retried.getStatus()).isEqualTo(Notification.NotificationStatus.PENDING);
+        assertThat(retried.getLastError()).isEqualTo("SMTP down");
+        assertThat(retried.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(30));
+    }
+    
+    @Test
+    void leaseExpiredOnTheLastAttemptFailsTheNotification() {
+        Notification lastAttempt = email("crash@willbank.test");
+        lastAttempt.setStatus(Notification.NotificationStatus.PROCESSING);
+        lastAttempt.setAttempts(2);
+        lastAttempt.setNextAttemptAt(LocalDateTime.now().minusSeconds(5));
+        Notification earlierAttempt = email("crash-once@willbank.test");
+        earlierAttempt.setStatus(Notification.NotificationStatus.PROCESSING);
+        earlierAttempt.setAttempts(0);
+        earlierAttempt.setNextAttemptAt(LocalDateTime.now().minusSeconds(5));
+        notificationRepository.saveAll(List.of(lastAttempt, earlierAttempt));
+        
+        dispatcher.releaseExpiredLeases();
+        
+        Notification failed = notificationRepository.findById(lastAttempt.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(Notification.NotificationStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(3);
+        assertThat(failed.getNextAttemptAt()).isNull();
+        Notification released = notificationRepository.findById(earlierAttempt.getId()).orElseThrow();
+        assertThat(released.getStatus()).isEqualTo(Notification.NotificationStatus.PENDING);
+        assertThat(released.getAttempts()).isEqualTo(1);
+    }
+    
+    private NotificationDispatcher secondInstance() {
+        NotificationDispatcher instance = new NotificationDispatcher(notificationRepository, emailService,
+                pushNotificationService, transactionTemplate, new SimpleMeterRegistry(), environment);
+        ReflectionTestUtils.setField(instance, "batchSize", 50);
+        ReflectionTestUtils.setField(instance, "maxAttempts", 3);
+        ReflectionTestUtils.setField(instance, "initialBackoffMs", 60000L);
+        ReflectionTestUtils.setField(instance, "backoffMultiplier", 2.0);
+        ReflectionTestUtils.setField(instance, "maxBackoffMs", 300000L);
+        ReflectionTestUtils.setField(instance, "leaseSeconds", 1L);
+        return instance;
+    }
+    
+    private long sentCount() {
+        return notificationRepository.countByStatusAndType(
+                Notification.NotificationStatus.SENT, Notification.NotificationType.EMAIL);
+    }
+    
+    private static Notification email(String recipient) {
+        Notification notification = new Notification();
+        notification.setType(Notification.NotificationType.EMAIL);
+        notification.setRecipient(recipient);
+        notification.setMessage("Votre compte a été crédité");
+        return notification;
+    }
+    
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 60s").isLessThan(deadline);
+            Thread.sleep(100);
+        }
+    }
+}
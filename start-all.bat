@@ -15,12 +15,12 @@ timeout /t 15
 
 echo.
 echo [3/7] Demarrage Account Service...
-start "Account Service" cmd /k "cd account-service && mvn spring-boot:run"
+start "Account Service" cmd /k "cd account-service && set ID_GENERATOR_NODE_ID=1&& mvn spring-boot:run"
 timeout /t 15
 
 echo.
 echo [4/7] Demarrage Transaction Service...
-start "Transaction Service" cmd /k "cd transaction-service && mvn spring-boot:run"
+start "Transaction Service" cmd /k "cd transaction-service && set ID_GENERATOR_NODE_ID=1&& mvn spring-boot:run"
 timeout /t 15
 
 echo.
@@ -21,12 +21,12 @@ sleep 15
 
 echo ""
 echo "[4/7] Démarrage Account Service..."
-cd ../account-service && mvn spring-boot:run &
+cd ../account-service && ID_GENERATOR_NODE_ID=1 mvn spring-boot:run &
 sleep 15
 
 echo ""
 echo "[5/7] Démarrage Transaction Service..."
-cd ../transaction-service && mvn spring-boot:run &
+cd ../transaction-service && ID_GENERATOR_NODE_ID=1 mvn spring-boot:run &
 sleep 15
 
 echo ""
@@ -1,13 +1,17 @@
 package com.willbank.transaction.client;
 
+import com.willbank.transaction.dto.AccountBalanceDTO;
 import com.willbank.transaction.dto.AccountDTO;
+import com.willbank.transaction.dto.PostingRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @FeignClient(name = "account-service")
 public interface AccountClient {
@@ -18,6 +22,9 @@ public interface AccountClient {
     @PostMapping("/api/accounts/{id}/debit")
     void debit(@PathVariable("id") Long accountId, @RequestParam("amount") BigDecimal amount);
     
+    @PostMapping("/api/accounts/postings")
+    List<AccountBalanceDTO> applyPostings(@RequestBody PostingRequest request);
+    
     @GetMapping("/api/accounts/{id}")
     AccountDTO getAccountById(@PathVariable("id") Long accountId);
 }
@@ -0,0 +1,37 @@
+package com.willbank.transaction.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool borné pour les traitements post-commit (enrichissement, emails, notifications)
+ * Quand la file est pleine, le thread appelant exécute la tâche (backpressure)
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+    
+    @Value("${app.post-commit.pool-size:8}")
+    private int poolSize;
+    
+    @Value("${app.post-commit.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Bean(name = "postCommitExecutor")
+    public ThreadPoolTaskExecutor postCommitExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("post-commit-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -39,13 +39,16 @@ public class CorsConfig {
             "Accept",
             "Origin",
             "Access-Control-Request-Method",
-            "Access-Control-Request-Headers"
+            "Access-Control-Request-Headers",
+            "Idempotency-Key"
         ));
         
         // Headers exposés au client
         configuration.setExposedHeaders(Arrays.asList(
             "Access-Control-Allow-Origin",
-            "Access-Control-Allow-Credentials"
+            "Access-Control-Allow-Credentials",
+            "Idempotent-Replayed",
+            "X-Next-Cursor"
         ));
         
         // Autoriser les credentials (cookies, authorization headers)
@@ -1,5 +1,10 @@
 package com.willbank.transaction.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -15,11 +20,59 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.exchange.name}")
     private String exchangeName;
     
+    @Value("${rabbitmq.queue.aggregates}")
+    private String aggregatesQueueName;
+    
+    @Value("${rabbitmq.queue.aggregates-dlq}")
+    private String aggregatesDeadLetterQueueName;
+    
+    @Value("${rabbitmq.routing.transaction-created}")
+    private String transactionCreatedRoutingKey;
+    
+    @Value("${rabbitmq.routing.transaction-aggregated}")
+    private String transactionAggregatedRoutingKey;
+    
     @Bean
     public TopicExchange topicExchange() {
         return new TopicExchange(exchangeName);
     }
     
+    /**
+     * Events that still fail after the listener retries (or cannot be read) are
+     * dead-lettered to the DLQ instead of being redelivered forever.
+     */
+    @Bean
+    public Queue aggregatesQueue() {
+        return QueueBuilder.durable(aggregatesQueueName)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(aggregatesDeadLetterQueueName)
+                .build();
+    }
+    
+    @Bean
+    public Queue aggregatesDeadLetterQueue() {
+        return QueueBuilder.durable(aggregatesDeadLetterQueueName).build();
+    }
+    
+    @Bean
+    public Binding aggregatesBinding(Queue aggregatesQueue, TopicExchange topicExchange) {
+        return BindingBuilder.bind(aggregatesQueue).to(topicExchange).with(transactionCreatedRoutingKey);
+    }
+    
+    /**
+     * File propre à chaque instance : toutes invalident leur cache local des flux nets,
+     * pas seulement celle qui a consommé l'événement sur la file partagée des agrégats.
+     */
+    @Bean
+    public Queue netFlowInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+    
+    @Bean
+    public Binding netFlowInvalidationBinding(Queue netFlowInvalidationQueue, TopicExchange topicExchange) {
+        return BindingBuilder.bind(netFlowInvalidationQueue).to(topicExchange).with(transactionAggregatedRoutingKey);
+    }
+    
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -1,11 +1,20 @@
 package com.willbank.transaction.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willbank.transaction.dto.AccountTransactionsQuery;
+import com.willbank.transaction.dto.DailyAggregateDTO;
+import com.willbank.transaction.dto.DailyNetFlowsDTO;
 import com.willbank.transaction.dto.TransactionDTO;
+import com.willbank.transaction.dto.TransactionPage;
+import com.willbank.transaction.service.AggregateService;
+import com.willbank.transaction.service.IdempotencyService;
+import com.willbank.transaction.service.NetFlowService;
 import com.willbank.transaction.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -14,8 +23,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -24,17 +38,39 @@ import java.util.List;
 @Tag(name = "Transaction Management", description = "APIs for managing bank transactions")
 public class TransactionController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final AggregateService aggregateService;
+    private final NetFlowService netFlowService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
     @Operation(summary = "Create a new transaction", description = "Creates a new transaction (deposit, withdrawal, or transfer)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Transaction created successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid input or insufficient balance")
+        @ApiResponse(responseCode = "400", description = "Invalid input or insufficient balance"),
+        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key reused with a different request, or postings rejected by account-service (transaction saved as FAILED)"),
+        @ApiResponse(responseCode = "502", description = "account-service did not confirm the postings (transaction left PENDING, reconciled later)")
     })
-    public ResponseEntity<TransactionDTO> createTransaction(@Valid @RequestBody TransactionDTO transactionDTO) {
-        TransactionDTO created = transactionService.createTransaction(transactionDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    public ResponseEntity<TransactionDTO> createTransaction(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @Valid @RequestBody TransactionDTO transactionDTO) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            TransactionDTO created = transactionService.createTransaction(transactionDTO);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        }
+        
+        String scope = userId != null && !userId.isBlank() ? "user-" + userId : "account-" + transactionDTO.getSourceAccountId();
+        IdempotencyService.IdempotentResult result = idempotencyService.execute(
+                scope, idempotencyKey, transactionDTO, () -> transactionService.createTransaction(transactionDTO));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(result.transaction());
     }
     
     @GetMapping("/{id}")
@@ -56,12 +92,57 @@ public class TransactionController {
     }
     
     @GetMapping("/account/{accountId}")
-    @Operation(summary = "Get transactions by account ID", description = "Retrieves all transactions for a specific account")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByAccountId(@PathVariable("accountId") Long accountId) {
-        List<TransactionDTO> transactions = transactionService.getTransactionsByAccountId(accountId);
+    @Operation(summary = "Get transactions by account ID", description = "Retrieves transactions for a specific account, newest first. "
+            + "With limit, returns one keyset page and the cursor of the next one in the X-Next-Cursor header")
+    public ResponseEntity<List<TransactionDTO>> getTransactionsByAccountId(
+            @PathVariable("accountId") Long accountId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (limit == null) {
+            List<TransactionDTO> transactions = transactionService.getTransactionsByAccountId(accountId);
+            return ResponseEntity.ok(transactions);
+        }
+        return toPageResponse(transactionService.getTransactionsByAccountId(accountId, limit, cursor));
+    }
+    
+    @GetMapping(value = "/account/{accountId}/stream", produces = NDJSON)
+    @Operation(summary = "Stream transactions by account ID", description = "Streams the full history of an account as newline-delimited JSON")
+    public void streamTransactionsByAccountId(@PathVariable("accountId") Long accountId,
+                                              HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        transactionService.streamTransactionsByAccountId(accountId, transaction -> writeLine(out, transaction));
+        out.flush();
+    }
+    
+    @PostMapping("/accounts/batch")
+    @Operation(summary = "Get transactions of several accounts", description = "Retrieves the latest transactions of each given account, "
+            + "optionally within a date window, in a single query. At most 100 account IDs per request. Result is keyed by account ID")
+    public ResponseEntity<Map<Long, List<TransactionDTO>>> getTransactionsByAccountIds(
+            @Valid @RequestBody AccountTransactionsQuery query) {
+        Map<Long, List<TransactionDTO>> transactions = transactionService.getTransactionsByAccountIds(query);
         return ResponseEntity.ok(transactions);
     }
     
+    @GetMapping("/aggregates")
+    @Operation(summary = "Get daily aggregates", description = "Retrieves per-account, per-day, per-flow sums and counts of transactions")
+    public ResponseEntity<List<DailyAggregateDTO>> getDailyAggregates(
+            @RequestParam("accountIds") List<Long> accountIds,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<DailyAggregateDTO> aggregates = aggregateService.getDailyAggregates(accountIds, from, to);
+        return ResponseEntity.ok(aggregates);
+    }
+    
+    @GetMapping("/net-flows")
+    @Operation(summary = "Get daily net flows", description = "Retrieves the signed net flow of each day of the last N days, per account")
+    public ResponseEntity<List<DailyNetFlowsDTO>> getDailyNetFlows(
+            @RequestParam("accountIds") List<Long> accountIds,
+            @RequestParam(value = "days", defaultValue = "7") int days) {
+        List<DailyNetFlowsDTO> netFlows = netFlowService.getDailyNetFlows(accountIds, days);
+        return ResponseEntity.ok(netFlows);
+    }
+    
     @GetMapping("/account/{accountId}/range")
     @Operation(summary = "Get transactions by date range", description = "Retrieves transactions for an account within a date range")
     public ResponseEntity<List<TransactionDTO>> getTransactionsByDateRange(
@@ -73,9 +154,41 @@ public class TransactionController {
     }
     
     @GetMapping
-    @Operation(summary = "Get all transactions", description = "Retrieves all transactions in the system")
-    public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
-        List<TransactionDTO> transactions = transactionService.getAllTransactions();
-        return ResponseEntity.ok(transactions);
+    @Operation(summary = "Get all transactions", description = "Retrieves all transactions in the system, newest first. "
+            + "With limit, returns one keyset page and the cursor of the next one in the X-Next-Cursor header")
+    public ResponseEntity<List<TransactionDTO>> getAllTransactions(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (limit == null) {
+            List<TransactionDTO> transactions = transactionService.getAllTransactions();
+            return ResponseEntity.ok(transactions);
+        }
+        return toPageResponse(transactionService.getAllTransactions(limit, cursor));
+    }
+    
+    @GetMapping(value = "/stream", produces = NDJSON)
+    @Operation(summary = "Stream all transactions", description = "Streams all transactions as newline-delimited JSON")
+    public void streamAllTransactions(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        transactionService.streamAllTransactions(transaction -> writeLine(out, transaction));
+        out.flush();
+    }
+    
+    private ResponseEntity<List<TransactionDTO>> toPageResponse(TransactionPage page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getItems());
+    }
+    
+    private void writeLine(OutputStream out, TransactionDTO transaction) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(transaction));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,30 @@
+package com.willbank.transaction.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountTransactionsQuery {
+    
+    // Each account adds two index range scans to the statement
+    public static final int MAX_ACCOUNT_IDS = 100;
+    
+    @NotEmpty(message = "At least one account ID is required")
+    @Size(max = MAX_ACCOUNT_IDS, message = "At most " + MAX_ACCOUNT_IDS + " account IDs per request")
+    private List<Long> accountIds;
+    
+    @Positive(message = "Limit per account must be positive")
+    private Integer limitPerAccount;
+    
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
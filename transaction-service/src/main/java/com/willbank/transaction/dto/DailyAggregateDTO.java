@@ -0,0 +1,20 @@
+package com.willbank.transaction.dto;
+
+import com.willbank.transaction.entity.DailyAccountAggregate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyAggregateDTO {
+    private Long accountId;
+    private LocalDate activityDate;
+    private DailyAccountAggregate.FlowType flowType;
+    private BigDecimal totalAmount;
+    private long transactionCount;
+}
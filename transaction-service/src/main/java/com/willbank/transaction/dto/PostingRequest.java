@@ -0,0 +1,15 @@
+package com.willbank.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingRequest {
+    private String reference;
+    private List<PostingDTO> postings;
+}
@@ -0,0 +1,15 @@
+package com.willbank.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+    private List<TransactionDTO> items;
+    private String nextCursor;  // null when there are no more rows
+}
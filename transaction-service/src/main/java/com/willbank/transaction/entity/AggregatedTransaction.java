@@ -0,0 +1,26 @@
+package com.willbank.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactions déjà prises en compte dans les agrégats : rend le traitement
+ * des événements idempotent malgré la livraison at-least-once.
+ */
+@Entity
+@Table(name = "aggregated_transactions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregatedTransaction {
+    
+    @Id
+    private Long transactionId;
+    
+    @Column(nullable = false)
+    private LocalDateTime aggregatedAt;
+}
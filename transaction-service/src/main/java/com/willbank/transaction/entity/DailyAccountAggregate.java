@@ -0,0 +1,51 @@
+package com.willbank.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Somme et nombre de mouvements par compte, par jour et par type de flux,
+ * maintenus incrémentalement à partir des TransactionCreatedEvent.
+ */
+@Entity
+@Table(name = "daily_account_aggregates", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_aggregate_account_day_flow", columnNames = {"account_id", "activity_date", "flow_type"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyAccountAggregate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long accountId;
+    
+    @Column(nullable = false)
+    private LocalDate activityDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private FlowType flowType;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+    
+    @Column(nullable = false)
+    private long transactionCount;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public enum FlowType {
+        DEPOSIT, WITHDRAWAL, TRANSFER_OUT, TRANSFER_IN
+    }
+}
@@ -0,0 +1,69 @@
+package com.willbank.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement à publier sur RabbitMQ, écrit dans la même transaction que la donnée métier.
+ * Le relais le publie ensuite de manière asynchrone (at-least-once).
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_id", columnList = "status, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String eventType;
+    
+    @Column(nullable = false)
+    private String routingKey;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(length = 500)
+    private String lastError;
+    
+    // Backoff after a failed publish: the relay skips the event until then
+    @Column
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime publishedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = OutboxStatus.PENDING;
+        }
+    }
+    
+    public enum OutboxStatus {
+        PENDING, PUBLISHED,
+        // Gave up after app.outbox.relay.max-attempts; needs a manual look
+        FAILED
+    }
+}
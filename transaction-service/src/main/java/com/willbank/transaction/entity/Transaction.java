@@ -9,7 +9,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_tx_source_created", columnList = "source_account_id, created_at"),
+    @Index(name = "idx_tx_destination_created", columnList = "destination_account_id, created_at"),
+    @Index(name = "idx_tx_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_tx_created_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
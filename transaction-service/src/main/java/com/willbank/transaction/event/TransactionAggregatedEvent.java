@@ -0,0 +1,22 @@
+package com.willbank.transaction.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publié une fois les agrégats journaliers d'une transaction committés : chaque instance
+ * invalide alors son cache des flux nets, et les lecteurs de ces agrégats (dashboard)
+ * peuvent recalculer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionAggregatedEvent {
+    private String transactionReference;
+    private Long sourceAccountId;
+    private Long destinationAccountId;
+    private LocalDateTime aggregatedAt;
+}
@@ -0,0 +1,17 @@
+package com.willbank.transaction.event;
+
+import com.willbank.transaction.dto.TransactionDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Événement applicatif interne (non publié sur RabbitMQ) : la transaction
+ * vient d'être enregistrée et sera traitée après le commit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionCommittedEvent {
+    private TransactionDTO transaction;
+}
@@ -0,0 +1,19 @@
+package com.willbank.transaction.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * account-service a refusé les mouvements de la transaction (4xx : enregistrée FAILED) ou
+ * ne les a pas confirmés (502 : laissée PENDING, reprise par TransactionReconciler).
+ */
+@Getter
+public class TransactionFailedException extends RuntimeException {
+    
+    private final HttpStatus status;
+    
+    public TransactionFailedException(String message, HttpStatus status, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+    }
+}
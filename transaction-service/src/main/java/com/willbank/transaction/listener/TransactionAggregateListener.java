@@ -0,0 +1,63 @@
+package com.willbank.transaction.listener;
+
+import com.willbank.transaction.event.TransactionAggregatedEvent;
+import com.willbank.transaction.event.TransactionCreatedEvent;
+import com.willbank.transaction.service.AggregateService;
+import com.willbank.transaction.service.NetFlowService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionAggregateListener {
+    
+    private final AggregateService aggregateService;
+    private final NetFlowService netFlowService;
+    private final RabbitTemplate rabbitTemplate;
+    
+    @Value("${rabbitmq.exchange.name}")
+    private String exchangeName;
+    
+    @Value("${rabbitmq.routing.transaction-aggregated}")
+    private String transactionAggregatedRoutingKey;
+    
+    @RabbitListener(queues = "${rabbitmq.queue.aggregates}")
+    public void handleTransactionCreatedEvent(TransactionCreatedEvent event) {
+        log.debug("Aggregating TransactionCreatedEvent: {}", event.getTransactionReference());
+        aggregateService.apply(event);
+        
+        // Aggregates are committed at this point: every instance invalidates its net flows on this event
+        publishAggregated(event);
+    }
+    
+    @RabbitListener(queues = "#{netFlowInvalidationQueue.name}")
+    public void handleTransactionAggregatedEvent(TransactionAggregatedEvent event) {
+        log.debug("Invalidating net flows for {}", event.getTransactionReference());
+        netFlowService.invalidate(event.getSourceAccountId());
+        netFlowService.invalidate(event.getDestinationAccountId());
+    }
+    
+    /**
+     * Best effort: a failure here must not redeliver the event, which would aggregate it twice.
+     * Cached net flows then stay stale until their TTL.
+     */
+    private void publishAggregated(TransactionCreatedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(exchangeName, transactionAggregatedRoutingKey, new TransactionAggregatedEvent(
+                event.getTransactionReference(),
+                event.getSourceAccountId(),
+                event.getDestinationAccountId(),
+                LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            log.warn("Could not publish TransactionAggregatedEvent for {}: {}", event.getTransactionReference(), e.getMessage());
+        }
+    }
+}
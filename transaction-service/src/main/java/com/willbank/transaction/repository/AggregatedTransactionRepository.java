@@ -0,0 +1,20 @@
+package com.willbank.transaction.repository;
+
+import com.willbank.transaction.entity.AggregatedTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface AggregatedTransactionRepository extends JpaRepository<AggregatedTransaction, Long> {
+    
+    // Returns 1 the first time a transaction is seen, 0 for a redelivery
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO aggregated_transactions (transaction_id, aggregated_at) VALUES (:transactionId, :now)",
+           nativeQuery = true)
+    int markAggregated(@Param("transactionId") Long transactionId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,35 @@
+package com.willbank.transaction.repository;
+
+import com.willbank.transaction.entity.DailyAccountAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyAccountAggregateRepository extends JpaRepository<DailyAccountAggregate, Long> {
+    
+    List<DailyAccountAggregate> findByAccountIdInAndActivityDateBetweenOrderByActivityDate(
+            Collection<Long> accountIds, LocalDate from, LocalDate to);
+    
+    // Atomic increment: concurrent consumers never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO daily_account_aggregates "
+            + "(account_id, activity_date, flow_type, total_amount, transaction_count, updated_at) "
+            + "VALUES (:accountId, :activityDate, :flowType, :amount, 1, :now) "
+            + "ON DUPLICATE KEY UPDATE total_amount = total_amount + VALUES(total_amount), "
+            + "transaction_count = transaction_count + 1, updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int increment(@Param("accountId") Long accountId,
+                  @Param("activityDate") LocalDate activityDate,
+                  @Param("flowType") String flowType,
+                  @Param("amount") BigDecimal amount,
+                  @Param("now") LocalDateTime now);
+}
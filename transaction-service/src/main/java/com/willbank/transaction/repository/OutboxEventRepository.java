@@ -0,0 +1,43 @@
+package com.willbank.transaction.repository;
+
+import com.willbank.transaction.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Claims the oldest pending events that are not waiting for a retry backoff.
+     * SKIP LOCKED (lock timeout -2) lets several relay instances drain the outbox
+     * concurrently without blocking each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxEvent o WHERE o.status = :status " +
+           "AND (o.nextAttemptAt IS NULL OR o.nextAttemptAt <= :now) ORDER BY o.id")
+    List<OutboxEvent> findBatchForUpdate(@Param("status") OutboxEvent.OutboxStatus status,
+                                         @Param("now") LocalDateTime now,
+                                         Pageable pageable);
+    
+    long countByStatus(OutboxEvent.OutboxStatus status);
+    
+    Optional<OutboxEvent> findFirstByStatusOrderByIdAsc(OutboxEvent.OutboxStatus status);
+    
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.status = :status AND o.publishedAt < :before")
+    int deleteByStatusAndPublishedAtBefore(@Param("status") OutboxEvent.OutboxStatus status,
+                                           @Param("before") LocalDateTime before);
+}
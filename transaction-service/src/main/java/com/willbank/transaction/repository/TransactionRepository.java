@@ -1,25 +1,95 @@
 package com.willbank.transaction.repository;
 
 import com.willbank.transaction.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     Optional<Transaction> findByTransactionReference(String transactionReference);
+    
+    List<Transaction> findByStatusAndCreatedAtBeforeOrderByCreatedAtAsc(Transaction.TransactionStatus status,
+                                                                       LocalDateTime createdAt, Pageable pageable);
+    
+    // Conditional transition: concurrent completions of the same PENDING row cannot both win
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :to WHERE t.id = :id AND t.status = :from")
+    int updateStatus(@Param("id") Long id,
+                     @Param("from") Transaction.TransactionStatus from,
+                     @Param("to") Transaction.TransactionStatus to);
     List<Transaction> findBySourceAccountIdOrderByCreatedAtDesc(Long sourceAccountId);
     List<Transaction> findByDestinationAccountIdOrderByCreatedAtDesc(Long destinationAccountId);
     
-    @Query("SELECT t FROM Transaction t WHERE (t.sourceAccountId = :accountId OR t.destinationAccountId = :accountId) ORDER BY t.createdAt DESC")
-    List<Transaction> findByAccountId(Long accountId);
+    /*
+     * Account history queries are written as a UNION ALL of two index range scans
+     * (idx_tx_source_created, idx_tx_destination_created) instead of an OR predicate,
+     * which MySQL would otherwise execute as a full scan plus filesort. The second
+     * branch skips self-transfers already returned by the first one.
+     */
+    @Query(value = "SELECT u.* FROM ("
+            + "(SELECT * FROM transactions WHERE source_account_id = :accountId) "
+            + "UNION ALL "
+            + "(SELECT * FROM transactions WHERE destination_account_id = :accountId AND source_account_id <> :accountId)"
+            + ") u ORDER BY u.created_at DESC, u.id DESC",
+           nativeQuery = true)
+    List<Transaction> findByAccountId(@Param("accountId") Long accountId);
     
     @Query("SELECT t FROM Transaction t WHERE t.sourceAccountId = :accountId AND t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
     List<Transaction> findBySourceAccountIdAndDateRange(Long accountId, LocalDateTime startDate, LocalDateTime endDate);
     
     boolean existsByTransactionReference(String transactionReference);
+    
+    @Query(value = "SELECT u.* FROM ("
+            + "(SELECT * FROM transactions WHERE source_account_id = :accountId "
+            + "AND (created_at < :createdAt OR (created_at = :createdAt AND id < :id)) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit) "
+            + "UNION ALL "
+            + "(SELECT * FROM transactions WHERE destination_account_id = :accountId AND source_account_id <> :accountId "
+            + "AND (created_at < :createdAt OR (created_at = :createdAt AND id < :id)) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit)"
+            + ") u ORDER BY u.created_at DESC, u.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Transaction> findPageByAccountId(@Param("accountId") Long accountId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          @Param("limit") int limit);
+    
+    @Query("SELECT t FROM Transaction t WHERE t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findPage(@Param("createdAt") LocalDateTime createdAt,
+                               @Param("id") Long id,
+                               Pageable pageable);
+    
+    // Integer.MIN_VALUE fetch size makes MySQL Connector/J stream rows instead of buffering the result set
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT u.* FROM ("
+            + "(SELECT * FROM transactions WHERE source_account_id = :accountId) "
+            + "UNION ALL "
+            + "(SELECT * FROM transactions WHERE destination_account_id = :accountId AND source_account_id <> :accountId)"
+            + ") u ORDER BY u.created_at DESC, u.id DESC",
+           nativeQuery = true)
+    Stream<Transaction> streamByAccountId(@Param("accountId") Long accountId);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    // Read backwards along idx_tx_created_id: rows stream as they are found, no filesort first
+    @Query("SELECT t FROM Transaction t ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<Transaction> streamAll();
 }
@@ -0,0 +1,20 @@
+package com.willbank.transaction.repository;
+
+import com.willbank.transaction.entity.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Requêtes dont le SQL dépend des paramètres et ne peut pas s'écrire en {@code @Query}.
+ */
+public interface TransactionRepositoryCustom {
+    
+    /**
+     * Latest {@code limit} transactions of each account (as source or destination) within
+     * [from, to], newest first. A row shared by two requested accounts is returned once.
+     */
+    List<Transaction> findLatestByAccountIds(Collection<Long> accountIds, LocalDateTime from,
+                                             LocalDateTime to, int limit);
+}
@@ -0,0 +1,66 @@
+package com.willbank.transaction.repository;
+
+import com.willbank.transaction.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Same shape as findPageByAccountId, once per account: two index range scans
+ * (idx_tx_source_created, idx_tx_destination_created) each stopped after :limit rows,
+ * joined by UNION ALL. MySQL reads at most 2 x limit index entries per account instead
+ * of ranking every row of the date window.
+ */
+class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Transaction> findLatestByAccountIds(Collection<Long> accountIds, LocalDateTime from,
+                                                    LocalDateTime to, int limit) {
+        if (accountIds.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder("SELECT u.* FROM (");
+        for (int i = 0; i < accountIds.size(); i++) {
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("(SELECT * FROM transactions WHERE source_account_id = :a").append(i)
+                    .append(" AND created_at BETWEEN :from AND :to ORDER BY created_at DESC, id DESC LIMIT :limit)")
+                    .append(" UNION ALL ")
+                    .append("(SELECT * FROM transactions WHERE destination_account_id = :a").append(i)
+                    .append(" AND source_account_id <> :a").append(i)
+                    .append(" AND created_at BETWEEN :from AND :to ORDER BY created_at DESC, id DESC LIMIT :limit)");
+        }
+        sql.append(") u ORDER BY u.created_at DESC, u.id DESC");
+        
+        Query query = entityManager.createNativeQuery(sql.toString(), Transaction.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("limit", limit);
+        int i = 0;
+        for (Long accountId : accountIds) {
+            query.setParameter("a" + i++, accountId);
+        }
+        
+        // A transfer between two requested accounts comes from both of their branches
+        Set<Long> seen = new HashSet<>();
+        List<Transaction> latest = new ArrayList<>();
+        for (Transaction transaction : (List<Transaction>) query.getResultList()) {
+            if (seen.add(transaction.getId())) {
+                latest.add(transaction);
+            }
+        }
+        return latest;
+    }
+}
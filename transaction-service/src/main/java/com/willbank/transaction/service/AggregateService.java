@@ -0,0 +1,72 @@
+package com.willbank.transaction.service;
+
+import com.willbank.transaction.dto.DailyAggregateDTO;
+import com.willbank.transaction.entity.DailyAccountAggregate;
+import com.willbank.transaction.event.TransactionCreatedEvent;
+import com.willbank.transaction.repository.AggregatedTransactionRepository;
+import com.willbank.transaction.repository.DailyAccountAggregateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AggregateService {
+    
+    private final DailyAccountAggregateRepository aggregateRepository;
+    private final AggregatedTransactionRepository aggregatedTransactionRepository;
+    
+    /**
+     * Folds one transaction into the daily aggregates of the accounts it touches.
+     * Redelivered events are detected and ignored.
+     */
+    @Transactional
+    public void apply(TransactionCreatedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        if (aggregatedTransactionRepository.markAggregated(event.getTransactionId(), now) == 0) {
+            log.debug("Transaction {} already aggregated, skipping", event.getTransactionId());
+            return;
+        }
+        
+        LocalDate day = (event.getCreatedAt() != null ? event.getCreatedAt() : now).toLocalDate();
+        switch (event.getType()) {
+            case DEPOSIT:
+                increment(event.getSourceAccountId(), day, DailyAccountAggregate.FlowType.DEPOSIT, event, now);
+                break;
+            case WITHDRAWAL:
+                increment(event.getSourceAccountId(), day, DailyAccountAggregate.FlowType.WITHDRAWAL, event, now);
+                break;
+            case TRANSFER:
+                increment(event.getSourceAccountId(), day, DailyAccountAggregate.FlowType.TRANSFER_OUT, event, now);
+                if (event.getDestinationAccountId() != null) {
+                    increment(event.getDestinationAccountId(), day, DailyAccountAggregate.FlowType.TRANSFER_IN, event, now);
+                }
+                break;
+        }
+    }
+    
+    public List<DailyAggregateDTO> getDailyAggregates(List<Long> accountIds, LocalDate from, LocalDate to) {
+        log.info("Fetching daily aggregates for {} accounts between {} and {}", accountIds.size(), from, to);
+        return aggregateRepository.findByAccountIdInAndActivityDateBetweenOrderByActivityDate(accountIds, from, to).stream()
+                .map(aggregate -> new DailyAggregateDTO(
+                    aggregate.getAccountId(),
+                    aggregate.getActivityDate(),
+                    aggregate.getFlowType(),
+                    aggregate.getTotalAmount(),
+                    aggregate.getTransactionCount()
+                ))
+                .collect(Collectors.toList());
+    }
+    
+    private void increment(Long accountId, LocalDate day, DailyAccountAggregate.FlowType flowType,
+                           TransactionCreatedEvent event, LocalDateTime now) {
+        aggregateRepository.increment(accountId, day, flowType.name(), event.getAmount(), now);
+    }
+}
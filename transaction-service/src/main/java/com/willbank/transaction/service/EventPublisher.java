@@ -1,24 +1,29 @@
 package com.willbank.transaction.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willbank.transaction.entity.OutboxEvent;
 import com.willbank.transaction.event.AccountCreditedEvent;
 import com.willbank.transaction.event.AccountDebitedEvent;
 import com.willbank.transaction.event.ClientUpdatedEvent;
 import com.willbank.transaction.event.TransactionCreatedEvent;
+import com.willbank.transaction.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Enregistre les événements dans la table outbox, dans la transaction de l'appelant.
+ * La publication effective sur RabbitMQ est faite par {@link OutboxRelay}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EventPublisher {
     
-    private final RabbitTemplate rabbitTemplate;
-    
-    @Value("${rabbitmq.exchange.name}")
-    private String exchangeName;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
     
     @Value("${rabbitmq.routing.transaction-created}")
     private String transactionCreatedRoutingKey;
@@ -33,38 +38,35 @@ public class EventPublisher {
     private String clientUpdatedRoutingKey;
     
     public void publishTransactionCreated(TransactionCreatedEvent event) {
-        try {
-            log.info("Publishing TransactionCreatedEvent: {}", event);
-            rabbitTemplate.convertAndSend(exchangeName, transactionCreatedRoutingKey, event);
-        } catch (Exception e) {
-            log.warn("Failed to publish TransactionCreatedEvent, RabbitMQ may not be available: {}", e.getMessage());
-        }
+        enqueue(transactionCreatedRoutingKey, event);
     }
     
     public void publishAccountCredited(AccountCreditedEvent event) {
-        try {
-            log.info("Publishing AccountCreditedEvent: {}", event);
-            rabbitTemplate.convertAndSend(exchangeName, accountCreditedRoutingKey, event);
-        } catch (Exception e) {
-            log.warn("Failed to publish AccountCreditedEvent, RabbitMQ may not be available: {}", e.getMessage());
-        }
+        enqueue(accountCreditedRoutingKey, event);
     }
     
     public void publishAccountDebited(AccountDebitedEvent event) {
-        try {
-            log.info("Publishing AccountDebitedEvent: {}", event);
-            rabbitTemplate.convertAndSend(exchangeName, accountDebitedRoutingKey, event);
-        } catch (Exception e) {
-            log.warn("Failed to publish AccountDebitedEvent, RabbitMQ may not be available: {}", e.getMessage());
-        }
+        enqueue(accountDebitedRoutingKey, event);
     }
     
     public void publishClientUpdated(ClientUpdatedEvent event) {
+        enqueue(clientUpdatedRoutingKey, event);
+    }
+    
+    private void enqueue(String routingKey, Object event) {
+        log.info("Queuing {} in outbox: {}", event.getClass().getSimpleName(), event);
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventType(event.getClass().getName());
+        outboxEvent.setRoutingKey(routingKey);
+        outboxEvent.setPayload(toJson(event));
+        outboxEventRepository.save(outboxEvent);
+    }
+    
+    private String toJson(Object event) {
         try {
-            log.info("Publishing ClientUpdatedEvent: {}", event);
-            rabbitTemplate.convertAndSend(exchangeName, clientUpdatedRoutingKey, event);
-        } catch (Exception e) {
-            log.warn("Failed to publish ClientUpdatedEvent, RabbitMQ may not be available: {}", e.getMessage());
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize event " + event.getClass().getSimpleName(), e);
         }
     }
 }
@@ -0,0 +1,105 @@
+package com.willbank.transaction.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.willbank.transaction.dto.TransactionDTO;
+import com.willbank.transaction.exception.IdempotencyKeyConflictException;
+import com.willbank.transaction.exception.IdempotentRequestInProgressException;
+import com.willbank.transaction.exception.TransactionFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Déduplication des POST /api/transactions rejoués avec le même Idempotency-Key.
+ * Store mémoire borné avec TTL, clé = appelant + clé : aucun aller-retour base de données.
+ * Les doublons concurrents attendent le résultat de la première exécution.
+ * <p>
+ * Seuls les refus métier d'account-service (4xx, aucun mouvement appliqué) libèrent la clé.
+ * Un échec ambigu (502, timeout, erreur locale après les postings) reste en mémoire et est
+ * rejoué tel quel : renvoyer la même clé ne ré-exécute jamais une transaction dont l'issue
+ * est inconnue.
+ * <p>
+ * Limite : le store est local à l'instance. Derrière plusieurs instances de
+ * transaction-service, un rejeu routé vers une autre instance n'est pas dédupliqué ; il faut
+ * alors l'affinité de session sur l'appelant ou un store partagé (Redis, table unique).
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    
+    private final Cache<String, IdempotentRequest> requests;
+    
+    @Value("${app.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+    
+    public IdempotencyService(@Value("${app.idempotency.max-size:100000}") long maxSize,
+                              @Value("${app.idempotency.ttl-minutes:1440}") long ttlMinutes) {
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+    
+    public IdempotentResult execute(String scope, String idempotencyKey, TransactionDTO request,
+                                    Supplier<TransactionDTO> action) {
+        String key = scope + ":" + idempotencyKey;
+        IdempotentRequest fresh = new IdempotentRequest(request, new CompletableFuture<>());
+        IdempotentRequest existing = requests.asMap().putIfAbsent(key, fresh);
+        
+        if (existing == null) {
+            try {
+                TransactionDTO result = action.get();
+                fresh.result().complete(result);
+                return new IdempotentResult(result, false);
+            } catch (RuntimeException e) {
+                if (isRejection(e)) {
+                    // Nothing was applied: the client may retry with the same key
+                    requests.asMap().remove(key, fresh);
+                }
+                fresh.result().completeExceptionally(e);
+                throw e;
+            }
+        }
+        
+        if (!existing.request().equals(request)) {
+            throw new IdempotencyKeyConflictException(
+                "Idempotency-Key " + idempotencyKey + " was already used with a different request");
+        }
+        
+        log.info("Replaying transaction for Idempotency-Key {}", idempotencyKey);
+        return new IdempotentResult(await(existing.result()), true);
+    }
+    
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof TransactionFailedException failed && failed.getStatus().is4xxClientError();
+    }
+    
+    private TransactionDTO await(CompletableFuture<TransactionDTO> result) {
+        try {
+            return result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotentRequestInProgressException(
+                "The original request with this Idempotency-Key is still in progress, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private record IdempotentRequest(TransactionDTO request, CompletableFuture<TransactionDTO> result) {}
+    
+    public record IdempotentResult(TransactionDTO transaction, boolean replayed) {}
+}
@@ -0,0 +1,140 @@
+package com.willbank.transaction.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.willbank.transaction.dto.DailyNetFlowsDTO;
+import com.willbank.transaction.entity.DailyAccountAggregate;
+import com.willbank.transaction.repository.DailyAccountAggregateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deltas journaliers par compte, calculés à partir des agrégats journaliers et
+ * gardés en cache sur toute la fenêtre maximale : une fenêtre plus courte n'est
+ * qu'une tranche du même tableau. Le cache d'un compte est invalidé à chaque
+ * nouvelle transaction qui le concerne ; un calcul commencé avant l'invalidation
+ * n'est pas remis en cache.
+ */
+@Service
+@Slf4j
+public class NetFlowService {
+    
+    private final DailyAccountAggregateRepository aggregateRepository;
+    private final Cache<Long, AccountNetFlows> netFlows;
+    // accountId -> sequence number of its last invalidation, kept longer than any load
+    private final Cache<Long, Long> invalidations;
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final int maxDays;
+    
+    public NetFlowService(DailyAccountAggregateRepository aggregateRepository,
+                          @Value("${app.balance-history.max-days:365}") int maxDays,
+                          @Value("${app.balance-history.cache.max-size:10000}") long cacheMaxSize,
+                          @Value("${app.balance-history.cache.ttl-seconds:300}") long cacheTtlSeconds) {
+        this.aggregateRepository = aggregateRepository;
+        this.maxDays = maxDays;
+        this.netFlows = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+        this.invalidations = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+    
+    public List<DailyNetFlowsDTO> getDailyNetFlows(List<Long> accountIds, int days) {
+        int window = Math.max(1, Math.min(days, maxDays));
+        LocalDate today = LocalDate.now();
+        
+        Map<Long, AccountNetFlows> resolved = new HashMap<>();
+        Set<Long> misses = new LinkedHashSet<>();
+        for (Long accountId : accountIds) {
+            AccountNetFlows cached = netFlows.getIfPresent(accountId);
+            // An entry built yesterday no longer ends today: rebuild it
+            if (cached != null && cached.to().equals(today)) {
+                resolved.put(accountId, cached);
+            } else {
+                misses.add(accountId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            long loadStart = invalidationSequence.get();
+            Map<Long, AccountNetFlows> loaded = load(misses, today);
+            // Same-key computes are atomic: an invalidation is either seen here or runs after the put
+            loaded.forEach((accountId, flows) -> netFlows.asMap().compute(accountId,
+                    (id, current) -> invalidatedSince(id, loadStart) ? current : flows));
+            resolved.putAll(loaded);
+        }
+        
+        LocalDate from = today.minusDays(window - 1);
+        List<DailyNetFlowsDTO> result = new ArrayList<>(resolved.size());
+        for (Long accountId : new LinkedHashSet<>(accountIds)) {
+            BigDecimal[] deltas = resolved.get(accountId).deltas();
+            List<BigDecimal> slice = Arrays.asList(Arrays.copyOfRange(deltas, deltas.length - window, deltas.length));
+            result.add(new DailyNetFlowsDTO(accountId, from, today, slice));
+        }
+        return result;
+    }
+    
+    public void invalidate(Long accountId) {
+        if (accountId != null) {
+            netFlows.asMap().compute(accountId, (id, current) -> {
+                invalidations.put(id, invalidationSequence.incrementAndGet());
+                return null;
+            });
+        }
+    }
+    
+    private boolean invalidatedSince(Long accountId, long sequence) {
+        Long invalidatedAt = invalidations.getIfPresent(accountId);
+        return invalidatedAt != null && invalidatedAt > sequence;
+    }
+    
+    private Map<Long, AccountNetFlows> load(Set<Long> accountIds, LocalDate today) {
+        LocalDate from = today.minusDays(maxDays - 1);
+        log.debug("Building {} days of net flows for {} accounts", maxDays, accountIds.size());
+        
+        Map<Long, AccountNetFlows> loaded = new HashMap<>();
+        for (Long accountId : accountIds) {
+            BigDecimal[] deltas = new BigDecimal[maxDays];
+            Arrays.fill(deltas, BigDecimal.ZERO);
+            loaded.put(accountId, new AccountNetFlows(today, deltas));
+        }
+        
+        // One pass over O(accounts x days x flow types) pre-aggregated rows
+        for (DailyAccountAggregate aggregate : aggregateRepository
+                .findByAccountIdInAndActivityDateBetweenOrderByActivityDate(accountIds, from, today)) {
+            BigDecimal[] deltas = loaded.get(aggregate.getAccountId()).deltas();
+            int day = (int) ChronoUnit.DAYS.between(from, aggregate.getActivityDate());
+            deltas[day] = deltas[day].add(signed(aggregate));
+        }
+        return loaded;
+    }
+    
+    private BigDecimal signed(DailyAccountAggregate aggregate) {
+        switch (aggregate.getFlowType()) {
+            case DEPOSIT:
+            case TRANSFER_IN:
+                return aggregate.getTotalAmount();
+            default:
+                return aggregate.getTotalAmount().negate();
+        }
+    }
+    
+    private record AccountNetFlows(LocalDate to, BigDecimal[] deltas) {
+    }
+}
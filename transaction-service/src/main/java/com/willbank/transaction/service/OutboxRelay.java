@@ -0,0 +1,204 @@
+package com.willbank.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willbank.transaction.entity.OutboxEvent;
+import com.willbank.transaction.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relais de la table outbox vers RabbitMQ : publie les événements PENDING par lots,
+ * attend les publisher confirms et ne marque PUBLISHED que les messages acquittés
+ * par le broker (livraison at-least-once).
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    
+    @Value("${rabbitmq.exchange.name}")
+    private String exchangeName;
+    
+    @Value("${app.outbox.relay.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${app.outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+    
+    @Value("${app.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${app.outbox.relay.backoff-ms:1000}")
+    private long backoffMs;
+    
+    @Value("${app.outbox.relay.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+    
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+    
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Outbox events confirmed by the broker")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failed")
+                .description("Outbox publish attempts that were not confirmed")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to publish and confirm one outbox batch")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", pendingCount, AtomicLong::get)
+                .description("Outbox events waiting to be published")
+                .register(meterRegistry);
+        Gauge.builder("outbox.failed", failedCount, AtomicLong::get)
+                .description("Outbox events given up after max-attempts")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest pending outbox event")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:1000}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                Integer result = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+                published = result != null ? result : 0;
+            } while (published == batchSize);
+        } catch (Exception e) {
+            log.warn("Outbox relay failed, RabbitMQ may not be available: {}", e.getMessage());
+        } finally {
+            refreshBacklogMetrics();
+        }
+    }
+    
+    @Scheduled(cron = "${app.outbox.purge-cron:0 0 3 * * *}")
+    public void purgePublished() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteByStatusAndPublishedAtBefore(OutboxEvent.OutboxStatus.PUBLISHED, before));
+        log.info("Purged {} published outbox events older than {}", deleted, before);
+    }
+    
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findBatchForUpdate(
+                OutboxEvent.OutboxStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        // Send the whole batch first, then wait for the confirms against a single deadline:
+        // the row locks are held at most confirm-timeout-ms, whatever the batch size
+        List<CorrelationData> confirmations = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            CorrelationData correlationData = new CorrelationData(String.valueOf(event.getId()));
+            try {
+                Object payload = objectMapper.readValue(event.getPayload(), Class.forName(event.getEventType()));
+                rabbitTemplate.convertAndSend(exchangeName, event.getRoutingKey(), payload, correlationData);
+                confirmations.add(correlationData);
+            } catch (Exception e) {
+                confirmations.add(null);
+                markFailed(event, e.getMessage());
+            }
+        }
+        
+        int published = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            CorrelationData correlationData = confirmations.get(i);
+            if (correlationData == null) {
+                continue;
+            }
+            try {
+                long remainingNanos = Math.max(0, deadline - System.nanoTime());
+                CorrelationData.Confirm confirm = correlationData.getFuture().get(remainingNanos, TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    event.setStatus(OutboxEvent.OutboxStatus.PUBLISHED);
+                    event.setPublishedAt(now);
+                    published++;
+                } else {
+                    markFailed(event, confirm.getReason());
+                }
+            } catch (Exception e) {
+                markFailed(event, "No publisher confirm: " + e.getMessage());
+            }
+        }
+        
+        publishedCounter.increment(published);
+        log.debug("Outbox relay published {}/{} events", published, batch.size());
+        return published;
+    }
+    
+    /**
+     * Exponential backoff between attempts; after max-attempts the event is set FAILED
+     * and no longer takes a slot in the relay batches.
+     */
+    private void markFailed(OutboxEvent event, String reason) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(reason != null && reason.length() > 500 ? reason.substring(0, 500) : reason);
+        failedCounter.increment();
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxEvent.OutboxStatus.FAILED);
+            event.setNextAttemptAt(null);
+            log.error("Giving up on outbox event {} after {} attempts: {}", event.getId(), attempts, reason);
+            return;
+        }
+        long delayMs = Math.min(maxBackoffMs, backoffMs << Math.min(attempts - 1, 20));
+        event.setNextAttemptAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delayMs)));
+        log.warn("Failed to publish outbox event {} (attempt {}/{}), next try in {} ms: {}",
+                event.getId(), attempts, maxAttempts, delayMs, reason);
+    }
+    
+    private void refreshBacklogMetrics() {
+        try {
+            pendingCount.set(outboxEventRepository.countByStatus(OutboxEvent.OutboxStatus.PENDING));
+            failedCount.set(outboxEventRepository.countByStatus(OutboxEvent.OutboxStatus.FAILED));
+            lagSeconds.set(outboxEventRepository.findFirstByStatusOrderByIdAsc(OutboxEvent.OutboxStatus.PENDING)
+                    .map(event -> Duration.between(event.getCreatedAt(), LocalDateTime.now()).getSeconds())
+                    .orElse(0L));
+        } catch (Exception e) {
+            log.debug("Could not refresh outbox metrics: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.willbank.transaction.service;
+
+import com.willbank.transaction.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position opaque dans l'historique trié par (createdAt DESC, id DESC).
+ * La page suivante commence strictement après ce couple.
+ */
+record TransactionCursor(LocalDateTime createdAt, Long id) {
+    
+    // Sentinel placed after every row, used for the first page
+    static final TransactionCursor START = new TransactionCursor(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+    
+    String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static TransactionCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new TransactionCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.willbank.transaction.service;
+
+import com.willbank.clientcache.ClientProfileCache;
+import com.willbank.transaction.client.AccountClient;
+import com.willbank.transaction.client.NotificationClient;
+import com.willbank.transaction.client.NotificationRequest;
+import com.willbank.transaction.dto.AccountDTO;
+import com.willbank.transaction.dto.ClientDTO;
+import com.willbank.transaction.dto.TransactionDTO;
+import com.willbank.transaction.entity.Transaction;
+import com.willbank.transaction.event.TransactionCommittedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+
+/**
+ * Effets de bord d'une transaction (récupération compte/client, email, notifications IN_APP)
+ * exécutés après le commit sur le pool post-commit : la réponse HTTP n'attend plus ces appels.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionNotificationService {
+    
+    private final AccountClient accountClient;
+    private final ClientProfileCache<ClientDTO> clientProfileCache;
+    private final EmailService emailService;
+    private final NotificationClient notificationClient;
+    
+    @Async("postCommitExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransactionCommitted(TransactionCommittedEvent event) {
+        TransactionDTO savedTransaction = event.getTransaction();
+        
+        // Get account and client information
+        AccountDTO account = null;
+        ClientDTO client = null;
+        AccountDTO destinationAccount = null;
+        ClientDTO destinationClient = null;
+        
+        try {
+            account = accountClient.getAccountById(savedTransaction.getSourceAccountId());
+            client = clientProfileCache.get(account.getClientId());
+            
+            // Get destination client for transfers
+            if (savedTransaction.getType() == Transaction.TransactionType.TRANSFER && 
+                savedTransaction.getDestinationAccountId() != null) {
+                destinationAccount = accountClient.getAccountById(savedTransaction.getDestinationAccountId());
+                destinationClient = clientProfileCache.get(destinationAccount.getClientId());
+            }
+        } catch (Exception e) {
+            log.error("Failed to fetch account/client information: {}", e.getMessage());
+        }
+        
+        // Send email notification to the client
+        if (client != null && account != null) {
+            try {
+                emailService.sendTransactionNotificationEmail(
+                    client.getEmail(),
+                    client.getFirstName(),
+                    savedTransaction.getType().toString(),
+                    savedTransaction.getAmount(),
+                    account.getAccountNumber(),
+                    savedTransaction.getTransactionReference(),
+                    account.getBalance()
+                );
+            } catch (Exception e) {
+                log.error("Failed to send transaction notification email: {}", e.getMessage());
+            }
+        }
+        
+        // Send IN_APP notification to source client
+        if (client != null) {
+            try {
+                String notificationMessage = buildNotificationMessage(
+                    savedTransaction.getType(),
+                    savedTransaction.getAmount(),
+                    savedTransaction.getDescription(),
+                    true
+                );
+                
+                NotificationRequest notificationRequest = new NotificationRequest(
+                    "IN_APP",
+                    client.getEmail(),
+                    notificationMessage,
+                    String.format("{\"transactionId\":%d,\"reference\":\"%s\"}", 
+                        savedTransaction.getId(), 
+                        savedTransaction.getTransactionReference())
+                );
+                
+                notificationClient.sendNotification(notificationRequest);
+                log.info("IN_APP notification sent to source client: {}", client.getEmail());
+            } catch (Exception e) {
+                log.error("Failed to send IN_APP notification to source client: {}", e.getMessage());
+            }
+        }
+        
+        // Send IN_APP notification to destination client (for transfers)
+        if (destinationClient != null && savedTransaction.getType() == Transaction.TransactionType.TRANSFER) {
+            try {
+                String notificationMessage = buildNotificationMessage(
+                    Transaction.TransactionType.DEPOSIT, // Received transfer shows as deposit
+                    savedTransaction.getAmount(),
+                    "Virement reçu" + (savedTransaction.getDescription() != null ? ": " + savedTransaction.getDescription() : ""),
+                    false
+                );
+                
+                NotificationRequest notificationRequest = new NotificationRequest(
+                    "IN_APP",
+                    destinationClient.getEmail(),
+                    notificationMessage,
+                    String.format("{\"transactionId\":%d,\"reference\":\"%s\"}", 
+                        savedTransaction.getId(), 
+                        savedTransaction.getTransactionReference())
+                );
+                
+                notificationClient.sendNotification(notificationRequest);
+                log.info("IN_APP notification sent to destination client: {}", destinationClient.getEmail());
+            } catch (Exception e) {
+                log.error("Failed to send IN_APP notification to destination client: {}", e.getMessage());
+            }
+        }
+    }
+    
+    private String buildNotificationMessage(Transaction.TransactionType type, BigDecimal amount, String description, boolean isSource) {
+        String formattedAmount = String.format("%.2f €", amount);
+        
+        switch (type) {
+            case DEPOSIT:
+                return String.format("Dépôt de %s effectué avec succès%s", 
+                    formattedAmount, 
+                    description != null ? ": " + description : "");
+                    
+            case WITHDRAWAL:
+                return String.format("Retrait de %s effectué avec succès%s", 
+                    formattedAmount,
+                    description != null ? ": " + description : "");
+                    
+            case TRANSFER:
+                if (isSource) {
+                    return String.format("Virement de %s effectué avec succès%s", 
+                        formattedAmount,
+                        description != null ? ": " + description : "");
+                } else {
+                    return String.format("Virement de %s reçu%s", 
+                        formattedAmount,
+                        description != null ? ": " + description : "");
+                }
+                
+            default:
+                return String.format("Transaction de %s effectuée", formattedAmount);
+        }
+    }
+}
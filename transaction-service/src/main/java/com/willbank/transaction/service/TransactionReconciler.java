@@ -0,0 +1,53 @@
+package com.willbank.transaction.service;
+
+import com.willbank.transaction.entity.Transaction;
+import com.willbank.transaction.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reprend les transactions restées PENDING : timeout vers account-service, crash de
+ * l'instance ou échec de l'enregistrement local après les postings. Les postings étant
+ * idempotents sur la référence, les ré-appliquer termine la transaction (ou la passe
+ * FAILED sur un refus) sans jamais déplacer l'argent deux fois.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionReconciler {
+    
+    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+    
+    // Longer than the Feign read timeout: the original request is over by then
+    @Value("${app.reconciliation.min-age-seconds:120}")
+    private long minAgeSeconds;
+    
+    @Value("${app.reconciliation.batch-size:100}")
+    private int batchSize;
+    
+    @Scheduled(fixedDelayString = "${app.reconciliation.interval-ms:60000}",
+               initialDelayString = "${app.reconciliation.initial-delay-ms:60000}")
+    public void reconcilePending() {
+        List<Transaction> pending = transactionRepository.findByStatusAndCreatedAtBeforeOrderByCreatedAtAsc(
+                Transaction.TransactionStatus.PENDING,
+                LocalDateTime.now().minusSeconds(minAgeSeconds),
+                PageRequest.of(0, batchSize));
+        
+        for (Transaction transaction : pending) {
+            try {
+                transactionService.reconcile(transaction);
+            } catch (Exception e) {
+                // Still unknown (account-service down): retried on the next run
+                log.warn("Transaction {} still pending: {}", transaction.getTransactionReference(), e.getMessage());
+            }
+        }
+    }
+}
@@ -1,28 +1,43 @@
 package com.willbank.transaction.service;
 
 import com.willbank.transaction.client.AccountClient;
-import com.willbank.transaction.client.ClientClient;
-import com.willbank.transaction.client.NotificationClient;
-import com.willbank.transaction.client.NotificationRequest;
-import com.willbank.transaction.dto.AccountDTO;
-import com.willbank.transaction.dto.ClientDTO;
+import com.willbank.transaction.dto.AccountTransactionsQuery;
+import com.willbank.transaction.dto.PostingDTO;
+import com.willbank.transaction.dto.PostingRequest;
 import com.willbank.transaction.dto.TransactionDTO;
+import com.willbank.transaction.dto.TransactionPage;
 import com.willbank.transaction.entity.Transaction;
 import com.willbank.transaction.event.AccountCreditedEvent;
 import com.willbank.transaction.event.AccountDebitedEvent;
+import com.willbank.transaction.event.TransactionCommittedEvent;
 import com.willbank.transaction.event.TransactionCreatedEvent;
+import com.willbank.transaction.exception.TransactionFailedException;
 import com.willbank.transaction.exception.TransactionNotFoundException;
+import feign.FeignException;
 import com.willbank.transaction.repository.TransactionRepository;
+import com.willbank.idgen.IdGenerator;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -31,12 +46,24 @@ public class TransactionService {
     
     private final TransactionRepository transactionRepository;
     private final AccountClient accountClient;
-    private final ClientClient clientClient;
-    private final EmailService emailService;
     private final EventPublisher eventPublisher;
-    private final NotificationClient notificationClient;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final IdGenerator idGenerator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
     
-    @Transactional
+    @Value("${app.pagination.max-limit:500}")
+    private int maxPageSize;
+    
+    @Value("${app.pagination.max-limit-per-account:1000}")
+    private int maxBatchLimitPerAccount;
+    
+    /**
+     * The PENDING row commits before account-service is called: if anything fails once the
+     * postings are applied (local save, outbox insert), the row survives and
+     * {@link TransactionReconciler} completes it. Postings are idempotent on the transaction
+     * reference, so applying them again is always safe.
+     */
     public TransactionDTO createTransaction(TransactionDTO transactionDTO) {
         log.info("Creating transaction: {}", transactionDTO);
         
@@ -44,187 +71,92 @@ public class TransactionService {
         transaction.setTransactionReference(generateTransactionReference());
         transaction.setStatus(Transaction.TransactionStatus.PENDING);
         
+        return applyAndComplete(transactionRepository.save(transaction));
+    }
+    
+    /**
+     * Applies again the postings of a transaction left PENDING, then completes or fails it.
+     */
+    public void reconcile(Transaction transaction) {
+        log.info("Reconciling pending transaction {}", transaction.getTransactionReference());
+        applyAndComplete(transaction);
+    }
+    
+    private TransactionDTO applyAndComplete(Transaction transaction) {
+        // Execute all legs of the transaction in a single call to account-service
         try {
-            // Execute transaction based on type
-            switch (transaction.getType()) {
-                case DEPOSIT:
-                    try {
-                        accountClient.credit(transaction.getSourceAccountId(), transaction.getAmount());
-                        eventPublisher.publishAccountCredited(new AccountCreditedEvent(
-                            transaction.getSourceAccountId(),
-                            transaction.getAmount(),
-                            transaction.getTransactionReference(),
-                            LocalDateTime.now()
-                        ));
-                    } catch (Exception e) {
-                        log.warn("Failed to call account service or publish event: {}", e.getMessage());
-                        // Continue anyway for testing
-                    }
-                    break;
-                    
-                case WITHDRAWAL:
-                    try {
-                        accountClient.debit(transaction.getSourceAccountId(), transaction.getAmount());
-                        eventPublisher.publishAccountDebited(new AccountDebitedEvent(
-                            transaction.getSourceAccountId(),
-                            transaction.getAmount(),
-                            transaction.getTransactionReference(),
-                            LocalDateTime.now()
-                        ));
-                    } catch (Exception e) {
-                        log.warn("Failed to call account service or publish event: {}", e.getMessage());
-                        // Continue anyway for testing
-                    }
-                    break;
-                    
-                case TRANSFER:
-                    try {
-                        accountClient.debit(transaction.getSourceAccountId(), transaction.getAmount());
-                        eventPublisher.publishAccountDebited(new AccountDebitedEvent(
-                            transaction.getSourceAccountId(),
-                            transaction.getAmount(),
-                            transaction.getTransactionReference(),
-                            LocalDateTime.now()
-                        ));
-                        
-                        // Virement interne (entre comptes WillBank)
-                        if (transaction.getDestinationAccountId() != null) {
-                            accountClient.credit(transaction.getDestinationAccountId(), transaction.getAmount());
-                            eventPublisher.publishAccountCredited(new AccountCreditedEvent(
-                                transaction.getDestinationAccountId(),
-                                transaction.getAmount(),
-                                transaction.getTransactionReference(),
-                                LocalDateTime.now()
-                            ));
-                        }
-                        // Virement externe (vers IBAN externe)
-                        // Le crédit sera traité par un système externe
-                    } catch (Exception e) {
-                        log.warn("Failed to call account service or publish event: {}", e.getMessage());
-                        // Continue anyway for testing
-                    }
-                    break;
-            }
-            
-            transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
-            Transaction savedTransaction = transactionRepository.save(transaction);
-            
-            // Get account and client information
-            AccountDTO account = null;
-            ClientDTO client = null;
-            AccountDTO destinationAccount = null;
-            ClientDTO destinationClient = null;
-            
-            try {
-                account = accountClient.getAccountById(savedTransaction.getSourceAccountId());
-                client = clientClient.getClientById(account.getClientId());
-                
-                // Get destination client for transfers
-                if (savedTransaction.getType() == Transaction.TransactionType.TRANSFER && 
-                    savedTransaction.getDestinationAccountId() != null) {
-                    destinationAccount = accountClient.getAccountById(savedTransaction.getDestinationAccountId());
-                    destinationClient = clientClient.getClientById(destinationAccount.getClientId());
-                }
-            } catch (Exception e) {
-                log.error("Failed to fetch account/client information: {}", e.getMessage());
-            }
-            
-            // Send email notification to the client
-            if (client != null && account != null) {
-                try {
-                    emailService.sendTransactionNotificationEmail(
-                        client.getEmail(),
-                        client.getFirstName(),
-                        savedTransaction.getType().toString(),
-                        savedTransaction.getAmount(),
-                        account.getAccountNumber(),
-                        savedTransaction.getTransactionReference(),
-                        account.getBalance()
-                    );
-                } catch (Exception e) {
-                    log.error("Failed to send transaction notification email: {}", e.getMessage());
-                }
-            }
-            
-            // Send IN_APP notification to source client
-            if (client != null) {
-                try {
-                    String notificationMessage = buildNotificationMessage(
-                        savedTransaction.getType(),
-                        savedTransaction.getAmount(),
-                        savedTransaction.getDescription(),
-                        true
-                    );
-                    
-                    NotificationRequest notificationRequest = new NotificationRequest(
-                        "IN_APP",
-                        client.getEmail(),
-                        notificationMessage,
-                        String.format("{\"transactionId\":%d,\"reference\":\"%s\"}", 
-                            savedTransaction.getId(), 
-                            savedTransaction.getTransactionReference())
-                    );
-                    
-                    notificationClient.sendNotification(notificationRequest);
-                    log.info("IN_APP notification sent to source client: {}", client.getEmail());
-                } catch (Exception e) {
-                    log.error("Failed to send IN_APP notification to source client: {}", e.getMessage());
-                }
-            }
-            
-            // Send IN_APP notification to destination client (for transfers)
-            if (destinationClient != null && savedTransaction.getType() == Transaction.TransactionType.TRANSFER) {
-                try {
-                    String notificationMessage = buildNotificationMessage(
-                        Transaction.TransactionType.DEPOSIT, // Received transfer shows as deposit
-                        savedTransaction.getAmount(),
-                        "Virement reçu" + (savedTransaction.getDescription() != null ? ": " + savedTransaction.getDescription() : ""),
-                        false
-                    );
-                    
-                    NotificationRequest notificationRequest = new NotificationRequest(
-                        "IN_APP",
-                        destinationClient.getEmail(),
-                        notificationMessage,
-                        String.format("{\"transactionId\":%d,\"reference\":\"%s\"}", 
-                            savedTransaction.getId(), 
-                            savedTransaction.getTransactionReference())
-                    );
-                    
-                    notificationClient.sendNotification(notificationRequest);
-                    log.info("IN_APP notification sent to destination client: {}", destinationClient.getEmail());
-                } catch (Exception e) {
-                    log.error("Failed to send IN_APP notification to destination client: {}", e.getMessage());
-                }
-            }
-            
-            // Publish transaction created event
-            try {
-                eventPublisher.publishTransactionCreated(new TransactionCreatedEvent(
-                    savedTransaction.getId(),
-                    savedTransaction.getTransactionReference(),
-                    savedTransaction.getType(),
-                    savedTransaction.getSourceAccountId(),
-                    savedTransaction.getDestinationAccountId(),
-                    savedTransaction.getAmount(),
-                    savedTransaction.getDescription(),
-                    savedTransaction.getCreatedAt()
-                ));
-            } catch (Exception e) {
-                log.warn("Failed to publish transaction created event: {}", e.getMessage());
-            }
-            
-            log.info("Transaction created successfully: {}", savedTransaction.getTransactionReference());
-            return toDTO(savedTransaction);
-            
+            accountClient.applyPostings(new PostingRequest(
+                transaction.getTransactionReference(),
+                buildPostings(transaction)
+            ));
         } catch (Exception e) {
-            log.error("Transaction failed: {}", e.getMessage());
-            transaction.setStatus(Transaction.TransactionStatus.FAILED);
-            transactionRepository.save(transaction);
+            throw postingFailed(transaction, e);
+        }
+        
+        try {
+            return transactionTemplate.execute(status -> complete(transaction));
+        } catch (RuntimeException e) {
+            log.error("Transaction {} applied but not completed, left PENDING for reconciliation: {}",
+                    transaction.getTransactionReference(), e.getMessage());
             throw e;
         }
     }
     
+    private TransactionDTO complete(Transaction transaction) {
+        // The request thread and the reconciler may both get here: only one publishes the events
+        if (transactionRepository.updateStatus(transaction.getId(),
+                Transaction.TransactionStatus.PENDING, Transaction.TransactionStatus.COMPLETED) == 0) {
+            return getTransactionById(transaction.getId());
+        }
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        publishAccountEvents(transaction);
+        
+        // Account/client enrichment, email and IN_APP notifications run after commit,
+        // off the request thread (see TransactionNotificationService)
+        applicationEventPublisher.publishEvent(new TransactionCommittedEvent(toDTO(transaction)));
+        
+        // Outbox insert in the same transaction: if it fails, the completion rolls back
+        // and the row stays PENDING for the reconciliation
+        eventPublisher.publishTransactionCreated(new TransactionCreatedEvent(
+            transaction.getId(),
+            transaction.getTransactionReference(),
+            transaction.getType(),
+            transaction.getSourceAccountId(),
+            transaction.getDestinationAccountId(),
+            transaction.getAmount(),
+            transaction.getDescription(),
+            transaction.getCreatedAt()
+        ));
+        
+        log.info("Transaction created successfully: {}", transaction.getTransactionReference());
+        return toDTO(transaction);
+    }
+    
+    /**
+     * 4xx answers of account-service (unknown account, insufficient balance) are business
+     * rejections: the transaction is set FAILED. Anything else (timeout, 5xx, 409 while the
+     * same reference is being applied) leaves it PENDING, its outcome unknown until the
+     * reconciliation.
+     */
+    private TransactionFailedException postingFailed(Transaction transaction, Exception cause) {
+        log.error("Postings of transaction {} failed: {}", transaction.getTransactionReference(), cause.getMessage());
+        
+        boolean rejected = cause instanceof FeignException feignException
+                && feignException.status() >= 400 && feignException.status() < 500
+                && feignException.status() != HttpStatus.CONFLICT.value();
+        if (!rejected) {
+            return new TransactionFailedException("Transaction " + transaction.getTransactionReference()
+                    + " is pending, account-service did not confirm its postings: " + cause.getMessage(),
+                    HttpStatus.BAD_GATEWAY, cause);
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> transactionRepository.updateStatus(transaction.getId(),
+                Transaction.TransactionStatus.PENDING, Transaction.TransactionStatus.FAILED));
+        return new TransactionFailedException(
+                "Transaction " + transaction.getTransactionReference() + " failed: " + cause.getMessage(),
+                HttpStatus.UNPROCESSABLE_ENTITY, cause);
+    }
+    
     public TransactionDTO getTransactionById(Long id) {
         log.info("Fetching transaction with ID: {}", id);
         Transaction transaction = transactionRepository.findById(id)
@@ -260,41 +192,159 @@ public class TransactionService {
                 .collect(Collectors.toList());
     }
     
-    private String generateTransactionReference() {
-        String reference;
-        do {
-            reference = "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        } while (transactionRepository.existsByTransactionReference(reference));
-        return reference;
+    public TransactionPage getTransactionsByAccountId(Long accountId, int limit, String cursor) {
+        log.info("Fetching transactions page for account ID: {} (limit: {})", accountId, limit);
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int pageSize = clampLimit(limit);
+        List<Transaction> rows = transactionRepository.findPageByAccountId(
+                accountId, position.createdAt(), position.id(), pageSize);
+        return toPage(rows, pageSize);
+    }
+    
+    public TransactionPage getAllTransactions(int limit, String cursor) {
+        log.info("Fetching transactions page (limit: {})", limit);
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int pageSize = clampLimit(limit);
+        List<Transaction> rows = transactionRepository.findPage(
+                position.createdAt(), position.id(), PageRequest.of(0, pageSize));
+        return toPage(rows, pageSize);
     }
     
-    private String buildNotificationMessage(Transaction.TransactionType type, BigDecimal amount, String description, boolean isSource) {
-        String formattedAmount = String.format("%.2f €", amount);
+    /**
+     * Latest transactions of several accounts, grouped by account id, in a single query.
+     * A transfer between two of the requested accounts is listed under both.
+     */
+    public Map<Long, List<TransactionDTO>> getTransactionsByAccountIds(AccountTransactionsQuery query) {
+        Set<Long> accountIds = new LinkedHashSet<>(query.getAccountIds());
+        int limit = Math.max(1, Math.min(
+                query.getLimitPerAccount() != null ? query.getLimitPerAccount() : maxBatchLimitPerAccount,
+                maxBatchLimitPerAccount));
+        LocalDateTime from = query.getFrom() != null ? query.getFrom() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = query.getTo() != null ? query.getTo() : LocalDateTime.of(9999, 12, 31, 23, 59);
+        log.info("Fetching latest {} transactions for {} accounts", limit, accountIds.size());
         
-        switch (type) {
+        Map<Long, List<TransactionDTO>> byAccount = new LinkedHashMap<>();
+        accountIds.forEach(accountId -> byAccount.put(accountId, new ArrayList<>()));
+        
+        // Rows arrive newest first; a row may rank within the limit for only one of its two accounts
+        for (Transaction transaction : transactionRepository.findLatestByAccountIds(accountIds, from, to, limit)) {
+            TransactionDTO dto = toDTO(transaction);
+            addWithinLimit(byAccount.get(transaction.getSourceAccountId()), dto, limit);
+            if (!Objects.equals(transaction.getDestinationAccountId(), transaction.getSourceAccountId())) {
+                addWithinLimit(byAccount.get(transaction.getDestinationAccountId()), dto, limit);
+            }
+        }
+        return byAccount;
+    }
+    
+    private void addWithinLimit(List<TransactionDTO> transactions, TransactionDTO dto, int limit) {
+        if (transactions != null && transactions.size() < limit) {
+            transactions.add(dto);
+        }
+    }
+    
+    /**
+     * Streams the full history of an account to {@code sink} row by row.
+     * Each entity is detached once mapped, so memory stays flat whatever the history size.
+     */
+    @Transactional(readOnly = true)
+    public void streamTransactionsByAccountId(Long accountId, Consumer<TransactionDTO> sink) {
+        log.info("Streaming transactions for account ID: {}", accountId);
+        try (Stream<Transaction> rows = transactionRepository.streamByAccountId(accountId)) {
+            rows.forEach(transaction -> {
+                sink.accept(toDTO(transaction));
+                entityManager.detach(transaction);
+            });
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamAllTransactions(Consumer<TransactionDTO> sink) {
+        log.info("Streaming all transactions");
+        try (Stream<Transaction> rows = transactionRepository.streamAll()) {
+            rows.forEach(transaction -> {
+                sink.accept(toDTO(transaction));
+                entityManager.detach(transaction);
+            });
+        }
+    }
+    
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+    
+    private TransactionPage toPage(List<Transaction> rows, int pageSize) {
+        List<TransactionDTO> items = rows.stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (rows.size() == pageSize) {
+            Transaction last = rows.get(rows.size() - 1);
+            nextCursor = new TransactionCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new TransactionPage(items, nextCursor);
+    }
+    
+    private String generateTransactionReference() {
+        return "TXN-" + Long.toString(idGenerator.nextId(), 36).toUpperCase();
+    }
+    
+    private List<PostingDTO> buildPostings(Transaction transaction) {
+        List<PostingDTO> postings = new ArrayList<>();
+        switch (transaction.getType()) {
             case DEPOSIT:
-                return String.format("Dépôt de %s effectué avec succès%s", 
-                    formattedAmount, 
-                    description != null ? ": " + description : "");
-                    
+                postings.add(new PostingDTO(transaction.getSourceAccountId(), transaction.getAmount()));
+                break;
             case WITHDRAWAL:
-                return String.format("Retrait de %s effectué avec succès%s", 
-                    formattedAmount,
-                    description != null ? ": " + description : "");
-                    
+                postings.add(new PostingDTO(transaction.getSourceAccountId(), transaction.getAmount().negate()));
+                break;
             case TRANSFER:
-                if (isSource) {
-                    return String.format("Virement de %s effectué avec succès%s", 
-                        formattedAmount,
-                        description != null ? ": " + description : "");
-                } else {
-                    return String.format("Virement de %s reçu%s", 
-                        formattedAmount,
-                        description != null ? ": " + description : "");
+                postings.add(new PostingDTO(transaction.getSourceAccountId(), transaction.getAmount().negate()));
+                // Virement interne (entre comptes WillBank)
+                if (transaction.getDestinationAccountId() != null) {
+                    postings.add(new PostingDTO(transaction.getDestinationAccountId(), transaction.getAmount()));
+                }
+                // Virement externe (vers IBAN externe)
+                // Le crédit sera traité par un système externe
+                break;
+        }
+        return postings;
+    }
+    
+    private void publishAccountEvents(Transaction transaction) {
+        switch (transaction.getType()) {
+            case DEPOSIT:
+                eventPublisher.publishAccountCredited(new AccountCreditedEvent(
+                    transaction.getSourceAccountId(),
+                    transaction.getAmount(),
+                    transaction.getTransactionReference(),
+                    LocalDateTime.now()
+                ));
+                break;
+            case WITHDRAWAL:
+                eventPublisher.publishAccountDebited(new AccountDebitedEvent(
+                    transaction.getSourceAccountId(),
+                    transaction.getAmount(),
+                    transaction.getTransactionReference(),
+                    LocalDateTime.now()
+                ));
+                break;
+            case TRANSFER:
+                eventPublisher.publishAccountDebited(new AccountDebitedEvent(
+                    transaction.getSourceAccountId(),
+                    transaction.getAmount(),
+                    transaction.getTransactionReference(),
+                    LocalDateTime.now()
+                ));
+                if (transaction.getDestinationAccountId() != null) {
+                    eventPublisher.publishAccountCredited(new AccountCreditedEvent(
+                        transaction.getDestinationAccountId(),
+                        transaction.getAmount(),
+                        transaction.getTransactionReference(),
+                        LocalDateTime.now()
+                    ));
                 }
-                
-            default:
-                return String.format("Transaction de %s effectuée", formattedAmount);
+                break;
         }
     }
     
@@ -0,0 +1,111 @@
+package com.willbank.transaction.service;
+
+import com.willbank.transaction.dto.DailyNetFlowsDTO;
+import com.willbank.transaction.entity.DailyAccountAggregate;
+import com.willbank.transaction.repository.DailyAccountAggregateRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Deltas journaliers et leur cache : un compte reste en cache jusqu'à son invalidation,
+ * et un calcul qui a commencé avant une invalidation n'est pas remis en cache.
+ */
+class NetFlowServiceTest {
+    
+    private static final long ACCOUNT_ID = 1L;
+    
+    private final DailyAccountAggregateRepository aggregateRepository = mock(DailyAccountAggregateRepository.class);
+    private final NetFlowService netFlowService = new NetFlowService(aggregateRepository, 30, 1000, 300);
+    
+    @Test
+    void deltasAreSignedAndSlicedToTheWindow() {
+        LocalDate today = LocalDate.now();
+        when(aggregateRepository.findByAccountIdInAndActivityDateBetweenOrderByActivityDate(anyCollection(), any(), any()))
+                .thenReturn(List.of(
+                        aggregate(today.minusDays(2), DailyAccountAggregate.FlowType.TRANSFER_OUT, "20.00"),
+                        aggregate(today.minusDays(1), DailyAccountAggregate.FlowType.TRANSFER_IN, "50.00"),
+                        aggregate(today, DailyAccountAggregate.FlowType.DEPOSIT, "100.00"),
+                        aggregate(today, DailyAccountAggregate.FlowType.WITHDRAWAL, "30.00")));
+        
+        DailyNetFlowsDTO flows = netFlowService.getDailyNetFlows(List.of(ACCOUNT_ID), 3).get(0);
+        
+        assertThat(flows.getFrom()).isEqualTo(today.minusDays(2));
+        assertThat(flows.getTo()).isEqualTo(today);
+        assertThat(flows.getDeltas()).containsExactly(
+                new BigDecimal("-20.00"), new BigDecimal("50.00"), new BigDecimal("70.00"));
+    }
+    
+    @Test
+    void accountStaysCachedUntilInvalidated() {
+        when(aggregateRepository.findByAccountIdInAndActivityDateBetweenOrderByActivityDate(anyCollection(), any(), any()))
+                .thenReturn(List.of());
+        
+        netFlowService.getDailyNetFlows(List.of(ACCOUNT_ID), 7);
+        netFlowService.getDailyNetFlows(List.of(ACCOUNT_ID), 30);
+        verify(aggregateRepository, times(1))
+                .findByAccountIdInAndActivityDateBetweenOrderByActivityDate(anyCollection(), any(), any());
+        
+        // Another account's invalidation leaves this one cached
+        netFlowService.invalidate(2L);
+        netFlowService.getDailyNetFlows(List.of(ACCOUNT_ID), 7);
+        verify(aggregateRepository, times(1))
+                .findByAccountIdInAndActivityDateBetweenOrderByActivityDate(anyCollection(), any(), any());
+        
+        netFlowService.invalidate(ACCOUNT_ID);
+        netFlowService.getDailyNetFlows(List.of(ACCOUNT_ID), 7);
+        verify(aggregateRepository, times(2))
+                .findByAccountIdInAndActivityDateBetweenOrderByActivityDate(anyCollection(), any(), any());
+    }
+    
+    @Test
+    void loadRacingAnInvalidationIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        AtomicBoolean firstLoad = new AtomicBoolean(true);
+        when(aggregateRepository.findByAccountIdInAndActivityDateBetweenOrderByActivityDate(anyCollection(), any(), any()))
+                .thenAnswer(invocation -> {
+                    if (firstLoad.compareAndSet(true, false)) {
+                        // The aggregates are read, then a transaction lands before the result is cached
+                        loading.countDown();
+                        invalidated.await(10, TimeUnit.SECONDS);
+                    }
+                    return List.of();
+                });
+        
+        CompletableFuture<List<DailyNetFlowsDTO>> staleLoad = CompletableFuture.supplyAsync(
+                () -> netFlowService.getDailyNetFlows(List.of(ACCOUNT_ID), 7));
+        assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+        netFlowService.invalidate(ACCOUNT_ID);
+        invalidated.countDown();
+        assertThat(staleLoad.get(10, TimeUnit.SECONDS)).hasSize(1);
+        
+        netFlowService.getDailyNetFlows(List.of(ACCOUNT_ID), 7);
+        verify(aggregateRepository, times(2))
+                .findByAccountIdInAndActivityDateBetweenOrderByActivityDate(anyCollection(), any(), any());
+        
+        // The fresh load was cached
+        netFlowService.getDailyNetFlows(List.of(ACCOUNT_ID), 7);
+        verify(aggregateRepository, times(2))
+                .findByAccountIdInAndActivityDateBetweenOrderByActivityDate(anyCollection(), any(), any());
+    }
+    
+    private static DailyAccountAggregate aggregate(LocalDate day, DailyAccountAggregate.FlowType flowType, String amount) {
+        return new DailyAccountAggregate(null, ACCOUNT_ID, day, flowType, new BigDecimal(amount), 1, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,174 @@
+package com.willbank.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willbank.transaction.entity.OutboxEvent;
+import com.willbank.transaction.event.AccountCreditedEvent;
+import com.willbank.transaction.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Relais outbox sur une vraie base et un vrai broker : plusieurs relais concurrents
+ * (SKIP LOCKED) doivent publier chaque événement exactement une fois et ne le marquer
+ * PUBLISHED qu'après le publisher confirm ; un événement impubliable suit le backoff
+ * puis passe FAILED.
+ */
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "spring.jpa.show-sql=false",
+    // Only the relays started by the tests run
+    "app.outbox.relay.interval-ms=3600000",
+    "app.outbox.relay.batch-size=50",
+    "app.outbox.relay.max-attempts=2",
+    "app.outbox.relay.backoff-ms=60000"
+})
+@Testcontainers
+class OutboxRelayTest {
+    
+    private static final String TEST_QUEUE = "willbank.test.outbox-relay";
+    private static final String ROUTING_KEY = "willbank.test.outbox.credited";
+    private static final int EVENTS = 1000;
+    private static final int RELAYS = 4;
+    
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+    
+    @Container
+    @ServiceConnection
+    static RabbitMQContainer rabbit = new RabbitMQContainer("rabbitmq:3.13-management");
+    
+    @Autowired
+    private OutboxRelay outboxRelay;
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+    
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${rabbitmq.exchange.name}")
+    private String exchange;
+    
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        Queue queue = new Queue(TEST_QUEUE, false, false, true);
+        amqpAdmin.declareQueue(queue);
+        amqpAdmin.declareBinding(BindingBuilder.bind(queue).to(new TopicExchange(exchange)).with(ROUTING_KEY));
+        amqpAdmin.purgeQueue(TEST_QUEUE, false);
+    }
+    
+    @Test
+    void concurrentRelaysPublishEveryEventExactlyOnce() throws Exception {
+        List<OutboxEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(pending(AccountCreditedEvent.class.getName(), objectMapper.writeValueAsString(
+                    new AccountCreditedEvent((long) (i % 10 + 1), new BigDecimal("10.00"), "OUTBOX-" + i, LocalDateTime.now()))));
+        }
+        outboxEventRepository.saveAll(events);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(RELAYS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> relays = new ArrayList<>();
+        for (int i = 0; i < RELAYS; i++) {
+            relays.add(executor.submit(() -> {
+                start.await();
+                outboxRelay.relay();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> relay : relays) {
+            relay.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        
+        assertThat(outboxEventRepository.countByStatus(OutboxEvent.OutboxStatus.PUBLISHED)).isEqualTo(EVENTS);
+        assertThat(outboxEventRepository.countByStatus(OutboxEvent.OutboxStatus.PENDING)).isZero();
+        assertThat(outboxEventRepository.findAll())
+                .allSatisfy(event -> {
+                    assertThat(event.getPublishedAt()).isNotNull();
+                    assertThat(event.getAttempts()).isZero();
+                });
+        
+        Set<String> references = new HashSet<>();
+        int received = 0;
+        Message message;
+        while ((message = rabbitTemplate.receive(TEST_QUEUE, 2000)) != null) {
+            received++;
+            references.add(objectMapper.readTree(message.getBody()).get("transactionReference").asText());
+        }
+        assertThat(received).isEqualTo(EVENTS);
+        assertThat(references).hasSize(EVENTS);
+    }
+    
+    @Test
+    void unpublishableEventBacksOffThenFails() {
+        OutboxEvent event = outboxEventRepository.save(
+                pending("com.willbank.transaction.event.UnknownEvent", "{}"));
+        
+        outboxRelay.relay();
+        OutboxEvent afterFirstAttempt = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertThat(afterFirstAttempt.getStatus()).isEqualTo(OutboxEvent.OutboxStatus.PENDING);
+        assertThat(afterFirstAttempt.getAttempts()).isEqualTo(1);
+        assertThat(afterFirstAttempt.getLastError()).isNotBlank();
+        assertThat(afterFirstAttempt.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        
+        // Still backing off: the relay skips it
+        outboxRelay.relay();
+        assertThat(outboxEventRepository.findById(event.getId()).orElseThrow().getAttempts()).isEqualTo(1);
+        
+        afterFirstAttempt.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEventRepository.save(afterFirstAttempt);
+        outboxRelay.relay();
+        
+        OutboxEvent failed = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OutboxEvent.OutboxStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(2);
+        assertThat(failed.getNextAttemptAt()).isNull();
+        assertThat(outboxEventRepository.countByStatus(OutboxEvent.OutboxStatus.PENDING)).isZero();
+    }
+    
+    private static OutboxEvent pending(String eventType, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setRoutingKey(ROUTING_KEY);
+        event.setPayload(payload);
+        return event;
+    }
+}